@@ -3,6 +3,7 @@ import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionListener;
+import java.util.List;
 
 /**
  * Admin Dashboard - Manage staff, view billing records, system settings
@@ -14,14 +15,22 @@ public class AdminDashboard extends JFrame {
     private static final Font BUTTON_FONT = new Font("Inter", Font.BOLD, 14);
     private static final Font TITLE_FONT = new Font("Inter", Font.BOLD, 18);
     private static final Font LABEL_FONT = new Font("Inter", Font.BOLD, 12);
+    // Initial sorts until a header click picks another
+    private static final QuerySpec NEWEST_BILLS_FIRST = QuerySpec.sortedBy("date", true);
+    private static final QuerySpec NEWEST_USERS_FIRST = QuerySpec.sortedBy("created", true);
 
     private JPanel mainContentPanel;
     private JLabel totalPatientsLabel;
     private JLabel totalStaffLabel;
     private JLabel pendingAppointmentsLabel;
-    private DefaultTableModel staffTableModel;
-    private DefaultTableModel billingTableModel;
-    private DefaultTableModel usersTableModel;
+    private PagedTableModel<StaffMember> staffTableModel;
+    private PagedTableModel<BillingEntry> billingTableModel;
+    private PagedTableModel<UserAccount> usersTableModel;
+    private ScrollPager<BillingEntry> billingPager;
+    private ScrollPager<UserAccount> usersPager;
+    private final DatabaseExecutor.ViewLoader statsLoader = new DatabaseExecutor.ViewLoader();
+    private final DatabaseExecutor.ViewLoader staffLoader = new DatabaseExecutor.ViewLoader();
+    private final DatabaseExecutor.ViewLoader queryStatsLoader = new DatabaseExecutor.ViewLoader();
 
     public AdminDashboard() {
         setTitle("Barangay Health Center - Admin Dashboard");
@@ -63,6 +72,8 @@ public class AdminDashboard extends JFrame {
         sidebar.add(Box.createVerticalStrut(10));
         sidebar.add(createNavButton("👤 User Management", e -> showUserManagement()));
         sidebar.add(Box.createVerticalStrut(10));
+        sidebar.add(createNavButton("📈 Query Stats", e -> showQueryStats()));
+        sidebar.add(Box.createVerticalStrut(10));
         sidebar.add(createNavButton("⚙️ Settings", e -> showSettings()));
         sidebar.add(Box.createVerticalStrut(30));
         sidebar.add(Box.createVerticalGlue());
@@ -175,17 +186,11 @@ public class AdminDashboard extends JFrame {
      * Loads dashboard statistics
      */
     private void loadDashboardStats() {
-        new Thread(() -> {
-            int patients = DatabaseHelper.getPatientCount();
-            int staff = DatabaseHelper.getStaffCount();
-            int pending = DatabaseHelper.getPendingAppointmentsCount();
-
-            SwingUtilities.invokeLater(() -> {
-                totalPatientsLabel.setText(String.valueOf(patients));
-                totalStaffLabel.setText(String.valueOf(staff));
-                pendingAppointmentsLabel.setText(String.valueOf(pending));
-            });
-        }).start();
+        statsLoader.load(DatabaseHelper::getDashboardStats, stats -> {
+            totalPatientsLabel.setText(String.valueOf(stats.patients()));
+            totalStaffLabel.setText(String.valueOf(stats.staff()));
+            pendingAppointmentsLabel.setText(String.valueOf(stats.pendingAppointments()));
+        });
     }
 
     /**
@@ -204,9 +209,8 @@ public class AdminDashboard extends JFrame {
         content.add(titleLabel, BorderLayout.NORTH);
 
         // Staff table
-        staffTableModel = new DefaultTableModel(new Object[]{"ID", "NAME", "POSITION", "CONTACT", "STATUS"}, 0) {
-            @Override public boolean isCellEditable(int row, int col) { return false; }
-        };
+        staffTableModel = new PagedTableModel<>(new String[]{"ID", "NAME", "POSITION", "CONTACT", "STATUS"},
+                m -> new Object[]{m.id(), m.name(), m.designation(), m.contactDetails(), m.statusText()});
         JTable staffTable = new JTable(staffTableModel) {
             @Override
             public javax.swing.table.TableCellRenderer getCellRenderer(int row, int column) {
@@ -265,13 +269,15 @@ public class AdminDashboard extends JFrame {
                 JOptionPane.YES_NO_OPTION);
 
             if (confirm == JOptionPane.YES_OPTION) {
-                boolean success = DatabaseHelper.suspendStaff(staffId);
-                if (success) {
-                    JOptionPane.showMessageDialog(this, staffName + " has been suspended.");
-                    showStaffManagement();
-                } else {
-                    JOptionPane.showMessageDialog(this, "Error suspending staff.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                DatabaseExecutor.supply(() -> DatabaseHelper.suspendStaff(staffId))
+                    .whenComplete((success, error) -> SwingUtilities.invokeLater(() -> {
+                        if (error == null && success) {
+                            JOptionPane.showMessageDialog(this, staffName + " has been suspended.");
+                            showStaffManagement();
+                        } else {
+                            JOptionPane.showMessageDialog(this, "Error suspending staff.", "Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    }));
             }
         });
         buttonPanel.add(suspendBtn);
@@ -355,38 +361,20 @@ public class AdminDashboard extends JFrame {
                 return;
             }
 
-            boolean staffOk = DatabaseHelper.addStaff(name, position, area, contact);
-            if (!staffOk) {
-                JOptionPane.showMessageDialog(dialog, "Error adding staff", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-
-            int staffId = DatabaseHelper.getLastInsertedStaffId();
-            if (staffId == -1) {
-                JOptionPane.showMessageDialog(dialog, "Error getting staff ID", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-
-            boolean userOk = DatabaseHelper.registerUser(name, name, email, password, "STAFF");
-            if (!userOk) {
-                JOptionPane.showMessageDialog(dialog, "Error creating user account", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-
-            int userId = DatabaseHelper.getUserIdByEmail(email);
-            if (userId == -1) {
-                JOptionPane.showMessageDialog(dialog, "Error getting user ID", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-
-            boolean linkOk = DatabaseHelper.linkStaffToUser(staffId, userId);
-            if (linkOk) {
-                JOptionPane.showMessageDialog(dialog, "Staff added successfully!");
-                dialog.dispose();
-                showStaffManagement();
-            } else {
-                JOptionPane.showMessageDialog(dialog, "Error linking staff to user", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            saveBtn.setEnabled(false);
+            saveBtn.setText("Saving...");
+            DatabaseExecutor.supply(() -> DatabaseHelper.addStaffWithAccount(name, position, area, contact, email, password))
+                .whenComplete((ok, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error == null && ok) {
+                        JOptionPane.showMessageDialog(dialog, "Staff added successfully!");
+                        dialog.dispose();
+                        showStaffManagement();
+                    } else {
+                        saveBtn.setEnabled(true);
+                        saveBtn.setText("Add Staff");
+                        JOptionPane.showMessageDialog(dialog, "Error adding staff. Is the email already registered?", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }));
         });
 
         JButton cancelBtn = new JButton("Cancel");
@@ -404,22 +392,11 @@ public class AdminDashboard extends JFrame {
      * Loads staff table
      */
     private void loadStaffTable() {
-        new Thread(() -> {
-            System.out.println("Loading staff table...");
-            Object[][] staffData = DatabaseHelper.getAllStaffForAdmin();
-            System.out.println("Staff data retrieved: " + (staffData == null ? "null" : staffData.length + " rows"));
-            SwingUtilities.invokeLater(() -> {
-                staffTableModel.setRowCount(0);
-                if (staffData != null && staffData.length > 0) {
-                    for (Object[] row : staffData) {
-                        staffTableModel.addRow(row);
-                    }
-                    System.out.println("Table updated with " + staffData.length + " rows");
-                } else {
-                    System.out.println("No staff data to display");
-                }
-            });
-        }).start();
+        System.out.println("Loading staff table...");
+        staffLoader.load(DatabaseHelper::listStaffForAdmin, staffData -> {
+            System.out.println("Staff data retrieved: " + staffData.size() + " rows");
+            staffTableModel.setAll(staffData);
+        });
     }
 
     /**
@@ -435,17 +412,34 @@ public class AdminDashboard extends JFrame {
         JLabel titleLabel = new JLabel("Billing Records");
         titleLabel.setFont(TITLE_FONT);
         titleLabel.setForeground(PRIMARY_BLUE);
-        content.add(titleLabel, BorderLayout.NORTH);
 
         // Billing table
-        billingTableModel = new DefaultTableModel(new Object[]{"PATIENT_ID", "NAME", "CONTACT", "BILL", "STATUS", "ACTION"}, 0) {
+        billingTableModel = new PagedTableModel<>(new String[]{"PATIENT_ID", "NAME", "CONTACT", "BILL", "STATUS", "ACTION"},
+                b -> new Object[]{b.patientId(), b.patientName(), b.contact(), b.formattedAmount(), b.status(), "Toggle"}) {
             @Override public boolean isCellEditable(int row, int col) { return col == 5; }
         };
         JTable billingTable = new JTable(billingTableModel);
         billingTable.setRowHeight(25);
         JScrollPane scrollPane = new JScrollPane(billingTable);
+        FilterBar filterBar = new FilterBar(NEWEST_BILLS_FIRST, spec -> billingPager.reload(
+                DatabaseHelper.BILLING_TABLE.order(spec), DatabaseHelper.BILLING_TABLE.filter(spec)))
+            .addStatusFilter("PAID", "UNPAID")
+            .addDateRange();
+        filterBar.sortOnHeaderClick(billingTable, null, null, null, null, "status", null);
+        billingPager = new ScrollPager<>(billingTableModel, scrollPane,
+                (after, limit) -> DatabaseHelper.listBillingHistoryPage(filterBar.getSpec(), after, limit),
+                DatabaseHelper.DEFAULT_PAGE_SIZE);
+        content.add(titledFilterBar(titleLabel, filterBar), BorderLayout.NORTH);
         content.add(scrollPane, BorderLayout.CENTER);
 
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
+        buttonPanel.setBackground(Color.WHITE);
+        JButton exportBtn = new JButton("⬇ Export CSV");
+        exportBtn.setFont(BUTTON_FONT);
+        exportBtn.addActionListener(e -> CsvExporter.exportWithChooser(this, "billing_history.csv", CsvExporter::exportBillingHistory));
+        buttonPanel.add(exportBtn);
+        content.add(buttonPanel, BorderLayout.SOUTH);
+
         mainContentPanel.add(content);
         loadBillingTable();
         mainContentPanel.revalidate();
@@ -453,20 +447,10 @@ public class AdminDashboard extends JFrame {
     }
 
     /**
-     * Loads billing table
+     * Loads billing table (first page; more pages load while scrolling)
      */
     private void loadBillingTable() {
-        new Thread(() -> {
-            Object[][] billingData = DatabaseHelper.getBillingHistory();
-            SwingUtilities.invokeLater(() -> {
-                billingTableModel.setRowCount(0);
-                if (billingData != null) {
-                    for (Object[] row : billingData) {
-                        billingTableModel.addRow(new Object[]{row[1], row[2], row[3], row[4], row[5], "Toggle"});
-                    }
-                }
-            });
-        }).start();
+        billingPager.reload();
     }
 
     /**
@@ -482,15 +466,22 @@ public class AdminDashboard extends JFrame {
         JLabel titleLabel = new JLabel("User Management");
         titleLabel.setFont(TITLE_FONT);
         titleLabel.setForeground(PRIMARY_BLUE);
-        content.add(titleLabel, BorderLayout.NORTH);
 
         // Users table
-        usersTableModel = new DefaultTableModel(new Object[]{"ID", "NAME", "EMAIL", "ROLE"}, 0) {
-            @Override public boolean isCellEditable(int row, int col) { return false; }
-        };
+        usersTableModel = new PagedTableModel<>(new String[]{"ID", "NAME", "EMAIL", "ROLE"},
+                u -> new Object[]{u.id(), u.fullName(), u.email(), u.role()});
         JTable usersTable = new JTable(usersTableModel);
         usersTable.setRowHeight(25);
         JScrollPane scrollPane = new JScrollPane(usersTable);
+        FilterBar filterBar = new FilterBar(NEWEST_USERS_FIRST, spec -> usersPager.reload(
+                DatabaseHelper.USER_TABLE.order(spec), DatabaseHelper.USER_TABLE.filter(spec)))
+            .addRoleFilter("ADMIN", "STAFF", "PATIENT")
+            .addDateRange();
+        filterBar.sortOnHeaderClick(usersTable, "id", "name", "email", "role");
+        usersPager = new ScrollPager<>(usersTableModel, scrollPane,
+                (after, limit) -> DatabaseHelper.listUsersPage(filterBar.getSpec(), after, limit),
+                DatabaseHelper.DEFAULT_PAGE_SIZE);
+        content.add(titledFilterBar(titleLabel, filterBar), BorderLayout.NORTH);
         content.add(scrollPane, BorderLayout.CENTER);
 
         mainContentPanel.add(content);
@@ -500,20 +491,106 @@ public class AdminDashboard extends JFrame {
     }
 
     /**
-     * Loads users table
+     * Loads users table (first page; more pages load while scrolling)
      */
     private void loadUsersTable() {
-        new Thread(() -> {
-            Object[][] userData = DatabaseHelper.getAllUsers();
-            SwingUtilities.invokeLater(() -> {
-                usersTableModel.setRowCount(0);
-                if (userData != null) {
-                    for (Object[] row : userData) {
-                        usersTableModel.addRow(row);
-                    }
-                }
-            });
-        }).start();
+        usersPager.reload();
+    }
+
+    /**
+     * Stacks a view's title over its filter bar
+     */
+    private JPanel titledFilterBar(JLabel titleLabel, FilterBar filterBar) {
+        JPanel header = new JPanel(new BorderLayout());
+        header.setOpaque(false);
+        header.add(titleLabel, BorderLayout.NORTH);
+        header.add(filterBar, BorderLayout.SOUTH);
+        return header;
+    }
+
+    /**
+     * Shows per-operation query latency (microseconds) with pool and cache figures
+     */
+    private void showQueryStats() {
+        mainContentPanel.removeAll();
+
+        JPanel content = new JPanel(new BorderLayout());
+        content.setBackground(Color.WHITE);
+        content.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+        JLabel titleLabel = new JLabel("Query Stats");
+        titleLabel.setFont(TITLE_FONT);
+        titleLabel.setForeground(PRIMARY_BLUE);
+        content.add(titleLabel, BorderLayout.NORTH);
+
+        DefaultTableModel statsModel = new DefaultTableModel(new Object[]{"OPERATION", "CALLS", "ERRORS", "ROWS",
+                "P50 µs", "P95 µs", "P99 µs", "MAX µs", "STMT P95 µs", "ACQUIRE P95 µs"}, 0) {
+            @Override public boolean isCellEditable(int row, int col) { return false; }
+        };
+        JTable statsTable = new JTable(statsModel);
+        statsTable.setRowHeight(25);
+        statsTable.setAutoCreateRowSorter(true);
+        content.add(new JScrollPane(statsTable), BorderLayout.CENTER);
+
+        JTextArea summary = new JTextArea(5, 80);
+        summary.setEditable(false);
+        summary.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
+        buttonPanel.setBackground(Color.WHITE);
+        JButton refreshBtn = new JButton("🔄 Refresh");
+        refreshBtn.setFont(BUTTON_FONT);
+        refreshBtn.addActionListener(e -> loadQueryStats(statsModel, summary));
+        buttonPanel.add(refreshBtn);
+        JButton resetBtn = new JButton("Reset");
+        resetBtn.setFont(BUTTON_FONT);
+        resetBtn.addActionListener(e -> {
+            QueryMetrics.reset();
+            loadQueryStats(statsModel, summary);
+        });
+        buttonPanel.add(resetBtn);
+        JButton dumpBtn = new JButton("⬇ Dump to File");
+        dumpBtn.setFont(BUTTON_FONT);
+        dumpBtn.addActionListener(e -> CsvExporter.exportWithChooser(this, "query_stats.txt", QueryMetrics::dumpTo));
+        buttonPanel.add(dumpBtn);
+
+        JPanel south = new JPanel(new BorderLayout());
+        south.add(new JScrollPane(summary), BorderLayout.CENTER);
+        south.add(buttonPanel, BorderLayout.SOUTH);
+        content.add(south, BorderLayout.SOUTH);
+
+        mainContentPanel.add(content);
+        loadQueryStats(statsModel, summary);
+        mainContentPanel.revalidate();
+        mainContentPanel.repaint();
+    }
+
+    /**
+     * Loads the query stats table and the pool/cache/outbox summary
+     */
+    private void loadQueryStats(DefaultTableModel statsModel, JTextArea summary) {
+        queryStatsLoader.load(() -> {
+            StringBuilder text = new StringBuilder();
+            text.append("Slow queries: ").append(QueryMetrics.slowQueryCount()).append('\n');
+            text.append(DatabaseHelper.getPoolStats()).append('\n');
+            for (TtlCache.Stats cache : DatabaseHelper.getCacheStats()) {
+                text.append(cache).append('\n');
+            }
+            text.append(NotificationOutbox.getStats()).append('\n');
+            text.append("Patient search index: ").append(PatientSearchIndex.getStats());
+            return new QueryStatsView(DatabaseHelper.getQueryStats(), text.toString());
+        }, view -> {
+            statsModel.setRowCount(0);
+            for (QueryMetrics.Snapshot s : view.operations()) {
+                statsModel.addRow(new Object[]{s.operation, s.calls, s.errors, s.rows, s.p50Micros, s.p95Micros,
+                        s.p99Micros, s.maxMicros, s.statementP95Micros, s.acquireP95Micros});
+            }
+            summary.setText(view.summary());
+            summary.setCaretPosition(0);
+        });
+    }
+
+    private record QueryStatsView(List<QueryMetrics.Snapshot> operations, String summary) {
     }
 
     /**
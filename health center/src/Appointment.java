@@ -0,0 +1,36 @@
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * One appointment row as returned by the typed DatabaseHelper queries.
+ * patientId is 0 and staffName is null when the query does not select them.
+ */
+public record Appointment(int id, int patientId, String patientName, String reason,
+                          LocalDateTime scheduledAt, String staffName, String status) {
+
+    public static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    public static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    public static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    public LocalDate date() {
+        return scheduledAt.toLocalDate();
+    }
+
+    /** Minutes since midnight, used by the conflict checks. */
+    public int minuteOfDay() {
+        return scheduledAt.getHour() * 60 + scheduledAt.getMinute();
+    }
+
+    public String dateText() {
+        return scheduledAt.format(DATE_FORMAT);
+    }
+
+    public String timeText() {
+        return scheduledAt.format(TIME_FORMAT);
+    }
+
+    public String dateTimeText() {
+        return scheduledAt.format(DATE_TIME_FORMAT);
+    }
+}
\ No newline at end of file
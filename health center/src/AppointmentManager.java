@@ -27,7 +27,7 @@ public class AppointmentManager extends JFrame {
     // Components for the calendar
     private JComboBox<String> monthComboBox;
     private JComboBox<Integer> yearComboBox;
-    private JPanel daysPanel;
+    private CalendarGrid calendarGrid;
     private LocalDate selectedDate;
 
     // --- Form Fields for Validation ---
@@ -446,20 +446,13 @@ public class AppointmentManager extends JFrame {
 
         calendarPanel.add(controlPanel, BorderLayout.NORTH);
 
-        // --- Days Grid ---
-        daysPanel = new JPanel(new GridLayout(0, 7, 5, 5)); // 7 columns, auto rows
-        daysPanel.setOpaque(false);
-        daysPanel.setBorder(new EmptyBorder(10, 5, 5, 5));
-
-        // Add day of the week headers
-        String[] dayNames = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
-        for (String dayName : dayNames) {
-            JLabel dayLabel = new JLabel(dayName, SwingConstants.CENTER);
-            dayLabel.setFont(BOLD_FONT);
-            daysPanel.add(dayLabel);
-        }
-
-        calendarPanel.add(daysPanel, BorderLayout.CENTER);
+        // --- Days Grid (past dates are disabled) ---
+        calendarGrid = new CalendarGrid(LABEL_FONT.deriveFont(14f), BOLD_FONT);
+        calendarGrid.setBorder(new EmptyBorder(10, 5, 5, 5));
+        calendarGrid.setFirstSelectableDate(LocalDate.now());
+        calendarGrid.setSelectedDate(selectedDate);
+        calendarGrid.addDateSelectionListener(date -> selectedDate = date);
+        calendarPanel.add(calendarGrid, BorderLayout.CENTER);
 
         // Initial population of the calendar
         updateCalendar();
@@ -468,69 +461,12 @@ public class AppointmentManager extends JFrame {
     }
 
     /**
-     * Repopulates the calendar grid based on the selected month and year.
+     * Shows the month and year picked in the dropdowns.
      */
     private void updateCalendar() {
-        // Remove old day buttons (but not the day name headers)
-        while (daysPanel.getComponentCount() > 7) {
-            daysPanel.remove(daysPanel.getComponentCount() - 1);
-        }
-
         int year = (Integer) yearComboBox.getSelectedItem();
         int month = monthComboBox.getSelectedIndex() + 1;
-
-        YearMonth yearMonth = YearMonth.of(year, month);
-        LocalDate firstOfMonth = yearMonth.atDay(1);
-        int firstDayOfWeek = firstOfMonth.getDayOfWeek().getValue() % 7; // Sunday = 0, Monday = 1, etc.
-
-        // Add empty placeholders for days before the 1st of the month
-        for (int i = 0; i < firstDayOfWeek; i++) {
-            daysPanel.add(new JLabel(""));
-        }
-
-        // Add buttons for each day of the month
-        int daysInMonth = yearMonth.lengthOfMonth();
-        for (int day = 1; day <= daysInMonth; day++) {
-            JButton dayButton = new JButton(String.valueOf(day));
-            dayButton.setFont(LABEL_FONT.deriveFont(14f));
-            dayButton.setFocusPainted(false);
-            dayButton.setMargin(new Insets(10, 10, 10, 10));
-            dayButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
-
-            LocalDate thisDate = yearMonth.atDay(day);
-
-            // Disable past dates
-            if (thisDate.isBefore(LocalDate.now())) {
-                dayButton.setEnabled(false);
-                dayButton.setBackground(Color.LIGHT_GRAY);
-                dayButton.setForeground(Color.GRAY);
-            } else {
-                // Style the button
-                if (thisDate.equals(selectedDate)) {
-                    dayButton.setBackground(PRIMARY_BLUE);
-                    dayButton.setForeground(Color.WHITE);
-                } else if (thisDate.equals(LocalDate.now())) {
-                    dayButton.setBackground(Color.WHITE);
-                    dayButton.setBorder(BorderFactory.createLineBorder(PRIMARY_BLUE, 1)); // Highlight today's date
-                } else {
-                    dayButton.setBackground(Color.WHITE);
-                    dayButton.setForeground(Color.BLACK);
-                }
-
-                final int dayOfMonth = day;
-                dayButton.addActionListener(e -> {
-                    selectedDate = YearMonth.of(year, month).atDay(dayOfMonth);
-                    // Redraw the calendar to show the new selection
-                    updateCalendar();
-                });
-            }
-
-            daysPanel.add(dayButton);
-        }
-
-        // Refresh the panel
-        daysPanel.revalidate();
-        daysPanel.repaint();
+        calendarGrid.setMonth(YearMonth.of(year, month));
     }
 
     /**
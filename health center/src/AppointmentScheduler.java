@@ -0,0 +1,328 @@
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Scheduling engine for the 1-hour appointment rule.
+ * An APPROVED or PENDING appointment starting at minute s blocks [s, s + 60),
+ * so a new time t, which needs [t, t + 60), conflicts when some booking starts
+ * in (t - 60, t + 60).
+ * Bookings are kept per day in sorted sets keyed by minute of day, which makes
+ * a conflict check one floor() and one higher() lookup and lets the free-slot
+ * search jump past each blocked hour instead of testing every minute.
+ *
+ * A day is loaded from the database on first use and reloaded after
+ * hc.scheduler.ttlMs (default 30s) to pick up other workstations' changes.
+ * DatabaseHelper reports its own inserts, status changes and deletes here so
+ * the loaded days stay current in between.
+ */
+public final class AppointmentScheduler {
+
+    public static final int SLOT_MINUTES = 60;
+    // Bookable start times: 09:00 up to, not including, 18:00
+    public static final int OPEN_MINUTE = 9 * 60;
+    public static final int CLOSE_MINUTE = 18 * 60;
+
+    private static final long TTL_MILLIS = Long.getLong("hc.scheduler.ttlMs", 30_000L);
+
+    private static final Map<LocalDate, DayIndex> DAYS = new ConcurrentHashMap<>();
+    // Which loaded day an appointment id lives in, for status changes and deletes; only holds ids of loaded days
+    private static final Map<Integer, LocalDate> DAY_BY_ID = new ConcurrentHashMap<>();
+
+    private AppointmentScheduler() {
+    }
+
+    /**
+     * Returns the id of a booking whose hour overlaps the hour from the given time, or -1 if it is free.
+     * @param excludeId appointment to ignore (the one being checked), or -1
+     * @param includePending false to only count APPROVED bookings
+     */
+    public static int findConflict(LocalDateTime at, int excludeId, boolean includePending) {
+        DayIndex day = day(at.toLocalDate());
+        return day.conflictAt(minuteOfDay(at), excludeId, includePending);
+    }
+
+    public static boolean hasConflict(LocalDateTime at, int excludeId, boolean includePending) {
+        return findConflict(at, excludeId, includePending) >= 0;
+    }
+
+    /**
+     * Returns the first free start time on the given day at or after fromMinute,
+     * on a stepMinutes grid within business hours, or null if the day is full.
+     */
+    public static LocalTime nextFreeSlot(LocalDate date, int fromMinute, int stepMinutes, boolean includePending) {
+        int minute = day(date).nextFree(fromMinute, stepMinutes, includePending);
+        return minute < 0 ? null : LocalTime.of(minute / 60, minute % 60);
+    }
+
+    /**
+     * Returns up to limit free start times from the given moment over the next days,
+     * on a stepMinutes grid within business hours.
+     */
+    public static List<LocalDateTime> freeSlots(LocalDateTime from, int days, int stepMinutes,
+                                                boolean includePending, int limit) {
+        LocalDate first = from.toLocalDate();
+        preload(first, first.plusDays(days));
+
+        List<LocalDateTime> slots = new ArrayList<>();
+        for (int d = 0; d < days && slots.size() < limit; d++) {
+            LocalDate date = first.plusDays(d);
+            DayIndex day = day(date);
+            // Only strictly later start times on the first day
+            int minute = d == 0 ? minuteOfDay(from) + 1 : OPEN_MINUTE;
+            while (slots.size() < limit) {
+                minute = day.nextFree(minute, stepMinutes, includePending);
+                if (minute < 0) break;
+                slots.add(date.atTime(minute / 60, minute % 60));
+                minute += stepMinutes;
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Records a newly inserted appointment.
+     */
+    public static void recordBooking(int appointmentId, LocalDateTime at, String status) {
+        DayIndex day = DAYS.get(at.toLocalDate());
+        if (day != null) {
+            day.put(appointmentId, minuteOfDay(at), status);
+            DAY_BY_ID.put(appointmentId, at.toLocalDate());
+        }
+    }
+
+    /**
+     * Records a status change. An unknown id that becomes active again means a
+     * loaded day may be missing it, so every loaded day is reloaded on next use.
+     */
+    public static void recordStatusChange(int appointmentId, String status) {
+        LocalDate date = DAY_BY_ID.get(appointmentId);
+        DayIndex day = date == null ? null : DAYS.get(date);
+        if (day != null && day.updateStatus(appointmentId, status)) {
+            if (!isActive(status)) {
+                // The day no longer holds it; becoming active again goes through invalidateAll below
+                DAY_BY_ID.remove(appointmentId, date);
+            }
+            return;
+        }
+        if (isActive(status)) {
+            invalidateAll();
+        }
+    }
+
+    public static void recordRemoval(int appointmentId) {
+        LocalDate date = DAY_BY_ID.remove(appointmentId);
+        DayIndex day = date == null ? null : DAYS.get(date);
+        if (day != null) {
+            day.remove(appointmentId);
+        }
+    }
+
+    public static void invalidate(LocalDate date) {
+        DayIndex day = DAYS.remove(date);
+        if (day != null) {
+            forget(date, day, null);
+        }
+    }
+
+    public static void invalidateAll() {
+        for (LocalDate date : DAYS.keySet()) {
+            invalidate(date);
+        }
+    }
+
+    static boolean isActive(String status) {
+        return "APPROVED".equalsIgnoreCase(status) || "PENDING".equalsIgnoreCase(status);
+    }
+
+    private static int minuteOfDay(LocalDateTime at) {
+        return at.getHour() * 60 + at.getMinute();
+    }
+
+    /**
+     * Returns the index for a day, loading it if missing or older than the TTL.
+     */
+    private static DayIndex day(LocalDate date) {
+        DayIndex day = DAYS.get(date);
+        if (day != null && !day.isExpired()) {
+            return day;
+        }
+        preload(date, date.plusDays(1));
+        day = DAYS.get(date);
+        // Load failed: answer from an empty day rather than caching it
+        return day != null ? day : new DayIndex();
+    }
+
+    /**
+     * Loads every missing or expired day in [from, toExclusive) with one query.
+     */
+    private static void preload(LocalDate from, LocalDate toExclusive) {
+        boolean needed = false;
+        for (LocalDate d = from; d.isBefore(toExclusive); d = d.plusDays(1)) {
+            DayIndex day = DAYS.get(d);
+            if (day == null || day.isExpired()) {
+                needed = true;
+                break;
+            }
+        }
+        if (!needed) return;
+
+        List<Appointment> bookings = DatabaseHelper.listActiveBookings(from, toExclusive);
+        if (bookings == null) return;
+
+        Map<LocalDate, DayIndex> loaded = new HashMap<>();
+        for (LocalDate d = from; d.isBefore(toExclusive); d = d.plusDays(1)) {
+            loaded.put(d, new DayIndex());
+        }
+        for (Appointment a : bookings) {
+            loaded.get(a.date()).put(a.id(), a.minuteOfDay(), a.status());
+            DAY_BY_ID.put(a.id(), a.date());
+        }
+        for (Map.Entry<LocalDate, DayIndex> e : loaded.entrySet()) {
+            DayIndex old = DAYS.put(e.getKey(), e.getValue());
+            if (old != null) {
+                forget(e.getKey(), old, e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Drops the DAY_BY_ID entries of an evicted or reloaded day, except the ids
+     * its replacement still holds. An id already moved to another day is kept.
+     */
+    private static void forget(LocalDate date, DayIndex old, DayIndex replacement) {
+        for (int id : old.ids()) {
+            if (replacement == null || !replacement.contains(id)) {
+                DAY_BY_ID.remove(id, date);
+            }
+        }
+    }
+
+    /**
+     * Bookings for one day. Keys pack (minute of day, appointment id) into a long
+     * so several bookings can share a start minute.
+     */
+    private static final class DayIndex {
+        private final long loadedAt = System.currentTimeMillis();
+        private final NavigableSet<Long> approved = new TreeSet<>();
+        private final NavigableSet<Long> pending = new TreeSet<>();
+        private final Map<Integer, Long> keyById = new HashMap<>();
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - loadedAt > TTL_MILLIS;
+        }
+
+        synchronized void put(int id, int minute, String status) {
+            remove(id);
+            NavigableSet<Long> set = setFor(status);
+            if (set == null) return;
+            long key = key(minute, id);
+            set.add(key);
+            keyById.put(id, key);
+        }
+
+        synchronized List<Integer> ids() {
+            return new ArrayList<>(keyById.keySet());
+        }
+
+        synchronized boolean contains(int id) {
+            return keyById.containsKey(id);
+        }
+
+        /** Returns false if the id is not in this day and the status makes it active. */
+        synchronized boolean updateStatus(int id, String status) {
+            Long key = keyById.get(id);
+            if (key == null) {
+                return !isActive(status);
+            }
+            put(id, (int) (key >>> 32), status);
+            return true;
+        }
+
+        synchronized void remove(int id) {
+            Long key = keyById.remove(id);
+            if (key != null) {
+                approved.remove(key);
+                pending.remove(key);
+            }
+        }
+
+        synchronized int conflictAt(int minute, int excludeId, boolean includePending) {
+            long blocking = blockingKey(minute, excludeId, includePending);
+            return blocking < 0 ? -1 : (int) blocking;
+        }
+
+        synchronized int nextFree(int fromMinute, int stepMinutes, boolean includePending) {
+            int minute = alignUp(Math.max(fromMinute, OPEN_MINUTE), stepMinutes);
+            while (minute < CLOSE_MINUTE) {
+                long blocking = blockingKey(minute, -1, includePending);
+                if (blocking < 0) {
+                    return minute;
+                }
+                // Skip to the end of the blocking hour
+                minute = alignUp((int) (blocking >>> 32) + SLOT_MINUTES, stepMinutes);
+            }
+            return -1;
+        }
+
+        /**
+         * Key of a booking starting in (minute - 60, minute + 60), or -1. A start
+         * after minute wins, so skipping past its hour clears the earlier ones too.
+         */
+        private long blockingKey(int minute, int excludeId, boolean includePending) {
+            long approvedKey = earliestStartAfter(approved, minute, excludeId);
+            long pendingKey = includePending ? earliestStartAfter(pending, minute, excludeId) : -1;
+            long later = approvedKey < 0 ? pendingKey : pendingKey < 0 ? approvedKey : Math.min(approvedKey, pendingKey);
+            if (later >= 0 && (later >>> 32) < minute + SLOT_MINUTES) {
+                // Skipping past the later booking also skips anything earlier
+                return later;
+            }
+            approvedKey = latestStartAtOrBefore(approved, minute, excludeId);
+            pendingKey = includePending ? latestStartAtOrBefore(pending, minute, excludeId) : -1;
+            long latest = Math.max(approvedKey, pendingKey);
+            if (latest < 0 || (latest >>> 32) <= minute - SLOT_MINUTES) {
+                return -1;
+            }
+            return latest;
+        }
+
+        private NavigableSet<Long> setFor(String status) {
+            if ("APPROVED".equalsIgnoreCase(status)) return approved;
+            if ("PENDING".equalsIgnoreCase(status)) return pending;
+            return null;
+        }
+
+        /** Key of the latest booking starting at or before minute, skipping excludeId, or -1. */
+        private static long latestStartAtOrBefore(NavigableSet<Long> set, int minute, int excludeId) {
+            Long key = set.floor(key(minute, Integer.MAX_VALUE));
+            while (key != null && (int) (long) key == excludeId) {
+                key = set.lower(key);
+            }
+            return key == null ? -1 : key;
+        }
+
+        /** Key of the earliest booking starting after minute, skipping excludeId, or -1. */
+        private static long earliestStartAfter(NavigableSet<Long> set, int minute, int excludeId) {
+            Long key = set.higher(key(minute, Integer.MAX_VALUE));
+            while (key != null && (int) (long) key == excludeId) {
+                key = set.higher(key);
+            }
+            return key == null ? -1 : key;
+        }
+
+        private static long key(int minute, int id) {
+            return ((long) minute << 32) | (id & 0xFFFFFFFFL);
+        }
+
+        private static int alignUp(int minute, int step) {
+            return ((minute + step - 1) / step) * step;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+import java.time.LocalDateTime;
+
+/**
+ * Billing row. Money is kept as a whole number of centavos to avoid
+ * floating point rounding; use formattedAmount() for display.
+ * createdAt is the paging key together with id.
+ */
+public record BillingEntry(int id, int patientId, String patientName, String contact,
+                           long amountCentavos, String status, LocalDateTime createdAt) {
+
+    public static String formatPesos(long centavos) {
+        String sign = centavos < 0 ? "-" : "";
+        long abs = Math.abs(centavos);
+        return String.format("%s₱%,d.%02d", sign, abs / 100, abs % 100);
+    }
+
+    public String formattedAmount() {
+        return formatPesos(amountCentavos);
+    }
+
+    public boolean isPaid() {
+        return "PAID".equalsIgnoreCase(status);
+    }
+}
\ No newline at end of file
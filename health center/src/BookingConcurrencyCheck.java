@@ -0,0 +1,163 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs bookAndApproveAppointment from many threads at once against the
+ * configured database and checks that no two APPROVED appointments on the day
+ * start less than an hour apart. Every thread books random times between
+ * 09:00 and 11:45 on a 15-minute grid, so the same and neighbouring hours are
+ * contended. Prints the outcome counts and bookings per second; exits with 1 if
+ * an overlap was found.
+ *
+ *   java -cp ... -Dhc.check.patientId=12 BookingConcurrencyCheck
+ *
+ * hc.check.patientId is required: every booking queues a notification for that
+ * patient, so use a test account. The booked appointments are deleted at the end
+ * together with their undelivered outbox events and the day's lock row, unless
+ * hc.check.keep is true. Point it at a test database: a workstation running
+ * against the same one may deliver some notifications before the cleanup.
+ * Also hc.check.threads (default 16), hc.check.bookings per thread (default 20)
+ * and hc.check.day (yyyy-MM-dd, default a year from today). Bookings run on
+ * DatabaseExecutor, so hc.async.threads and hc.pool.maxSize bound how many are
+ * decided at once.
+ */
+public class BookingConcurrencyCheck {
+
+    private static final int THREADS = Integer.getInteger("hc.check.threads", 16);
+    private static final int BOOKINGS_PER_THREAD = Integer.getInteger("hc.check.bookings", 20);
+    private static final boolean KEEP = Boolean.getBoolean("hc.check.keep");
+    private static final int FIRST_MINUTE = 9 * 60;
+    private static final int STEP_MINUTES = 15;
+    private static final int STARTS = 12;
+
+    public static void main(String[] args) throws Exception {
+        String dayProperty = System.getProperty("hc.check.day");
+        LocalDate day = dayProperty != null ? LocalDate.parse(dayProperty) : LocalDate.now().plusYears(1);
+        int patientId = Integer.getInteger("hc.check.patientId", -1);
+        if (patientId < 0) {
+            System.err.println("Set -Dhc.check.patientId to a test patient; every booking notifies that patient");
+            System.exit(2);
+        }
+
+        System.out.println("Booking " + THREADS + " x " + BOOKINGS_PER_THREAD + " appointments on " + day
+                + " for patient " + patientId);
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger disapproved = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<Integer> bookedIds = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            final int patient = patientId;
+            Thread worker = new Thread(() -> {
+                Random random = new Random(thread);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                    int minute = FIRST_MINUTE + random.nextInt(STARTS) * STEP_MINUTES;
+                    LocalDateTime at = day.atTime(minute / 60, minute % 60);
+                    try {
+                        BookingResult result = DatabaseHelper
+                                .bookAndApproveAppointment(patient, at, "Concurrency check")
+                                .join();
+                        bookedIds.add(result.appointmentId());
+                        (result.isApproved() ? approved : disapproved).incrementAndGet();
+                    } catch (RuntimeException e) {
+                        // Already logged by bookAndApproveAppointment; a full queue rejects the task
+                        failed.incrementAndGet();
+                    }
+                }
+            }, "booking-check-" + t);
+            threads.add(worker);
+            worker.start();
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Thread worker : threads) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+        int decided = approved.get() + disapproved.get();
+        System.out.printf("%d approved, %d disapproved, %d failed in %.2f s (%.1f bookings/s)%n",
+                approved.get(), disapproved.get(), failed.get(), seconds, decided / seconds);
+
+        List<String> overlaps = findOverlaps(day);
+        if (overlaps == null) {
+            System.exit(2);
+        }
+        for (String overlap : overlaps) {
+            System.out.println("OVERLAP: " + overlap);
+        }
+        System.out.println(overlaps.isEmpty()
+                ? "OK: no two APPROVED appointments on " + day + " start less than an hour apart"
+                : overlaps.size() + " overlapping APPROVED pairs on " + day);
+
+        if (!KEEP) {
+            for (int id : bookedIds) {
+                DatabaseHelper.deleteAppointment(id);
+            }
+            dropDayLock(day);
+        }
+        System.exit(overlaps.isEmpty() ? 0 : 1);
+    }
+
+    /**
+     * Pairs of APPROVED appointments on the day starting less than 60 minutes
+     * apart, as "id at time / id at time", or null if the query failed.
+     */
+    private static List<String> findOverlaps(LocalDate day) {
+        String q = "SELECT a.id, a.appointment_date, b.id, b.appointment_date " +
+                   "FROM appointments a JOIN appointments b " +
+                   "ON b.id > a.id AND b.status = 'APPROVED' " +
+                   "AND b.appointment_date > a.appointment_date - INTERVAL " + AppointmentScheduler.SLOT_MINUTES + " MINUTE " +
+                   "AND b.appointment_date < a.appointment_date + INTERVAL " + AppointmentScheduler.SLOT_MINUTES + " MINUTE " +
+                   "WHERE a.status = 'APPROVED' AND a.appointment_date >= ? AND a.appointment_date < ? " +
+                   "ORDER BY a.appointment_date, a.id";
+        List<String> overlaps = new ArrayList<>();
+        try (Connection conn = DatabaseHelper.getConnection();
+             PreparedStatement p = conn.prepareStatement(q)) {
+            p.setTimestamp(1, Timestamp.valueOf(day.atStartOfDay()));
+            p.setTimestamp(2, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+            try (ResultSet rs = p.executeQuery()) {
+                while (rs.next()) {
+                    overlaps.add(rs.getInt(1) + " at " + rs.getTimestamp(2).toLocalDateTime().toLocalTime()
+                            + " / " + rs.getInt(3) + " at " + rs.getTimestamp(4).toLocalDateTime().toLocalTime());
+                }
+            }
+            return overlaps;
+        } catch (SQLException e) {
+            System.err.println("ERROR findOverlaps: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // The lock row is recreated on the next booking for the day
+    private static void dropDayLock(LocalDate day) {
+        try (Connection conn = DatabaseHelper.getConnection();
+             PreparedStatement p = conn.prepareStatement("DELETE FROM appointment_day_locks WHERE day = ?")) {
+            p.setDate(1, java.sql.Date.valueOf(day));
+            p.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("ERROR dropDayLock: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of DatabaseHelper.bookAndApproveAppointment: the new appointment id and
+ * the status it was committed with (APPROVED, or DISAPPROVED on a time conflict).
+ * message is shown to the patient right away; the notification itself (with
+ * suggested times on a conflict) is delivered by NotificationOutbox.
+ */
+public record BookingResult(int appointmentId, LocalDateTime scheduledAt, String status, String message) {
+
+    public boolean isApproved() {
+        return "APPROVED".equals(status);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,215 @@
+import javax.swing.*;
+import javax.swing.border.Border;
+import java.awt.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Sunday-first month calendar: a row of day names over a fixed 6×7 grid of day
+ * buttons. The 42 buttons are created once; changing the month, the selection or
+ * the decorations recomputes each cell's look and only touches the buttons whose
+ * look changed. Fonts, colours and borders are shared by every instance.
+ *
+ * Callers may decorate days (background and tooltip), e.g. with the month's
+ * occupancy via showOccupancy. Decorations belong to one month and are dropped
+ * when another month is shown.
+ */
+public class CalendarGrid extends JPanel {
+
+    /**
+     * Extra look for one day. A null background keeps the default.
+     */
+    public record Decoration(Color background, String toolTip) {
+    }
+
+    public static final Color FULL_DAY_COLOR = new Color(255, 205, 210);
+    public static final Color BUSY_DAY_COLOR = new Color(255, 236, 179);
+
+    private static final int CELLS = 42;
+    private static final String[] DAY_NAMES = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
+    private static final Color PRIMARY_BLUE = new Color(0, 102, 204);
+    private static final Color SELECTED_BLUE = new Color(100, 150, 255);
+    private static final Color OUTSIDE_MONTH = new Color(245, 245, 245);
+    private static final Color PAST_DAY = new Color(230, 230, 230);
+    private static final Border CELL_BORDER = BorderFactory.createLineBorder(new Color(220, 220, 220), 1);
+
+    private final JButton[] cells = new JButton[CELLS];
+    private final CellLook[] looks = new CellLook[CELLS];
+    private final LocalDate[] dates = new LocalDate[CELLS];
+    private final List<Consumer<LocalDate>> selectionListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<YearMonth>> monthListeners = new CopyOnWriteArrayList<>();
+
+    private YearMonth month = YearMonth.now();
+    private LocalDate selectedDate;
+    private LocalDate firstSelectableDate;
+    private Function<LocalDate, Decoration> decorator;
+
+    /**
+     * @param cellFont font of the day numbers
+     * @param headerFont font of the day names
+     */
+    public CalendarGrid(Font cellFont, Font headerFont) {
+        super(new BorderLayout(0, 5));
+        setOpaque(false);
+
+        JPanel header = new JPanel(new GridLayout(1, 7, 5, 5));
+        header.setOpaque(false);
+        for (String name : DAY_NAMES) {
+            JLabel label = new JLabel(name, SwingConstants.CENTER);
+            label.setFont(headerFont);
+            label.setForeground(PRIMARY_BLUE);
+            header.add(label);
+        }
+        add(header, BorderLayout.NORTH);
+
+        JPanel grid = new JPanel(new GridLayout(6, 7, 5, 5));
+        grid.setOpaque(false);
+        for (int i = 0; i < CELLS; i++) {
+            JButton cell = new JButton();
+            cell.setFont(cellFont);
+            cell.setFocusPainted(false);
+            cell.setBorder(CELL_BORDER);
+            final int index = i;
+            cell.addActionListener(e -> select(dates[index]));
+            cells[i] = cell;
+            grid.add(cell);
+        }
+        add(grid, BorderLayout.CENTER);
+        refresh();
+    }
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    /**
+     * Shows another month, dropping the current decorations, and tells the month listeners.
+     */
+    public void setMonth(YearMonth month) {
+        if (month.equals(this.month)) return;
+        this.month = month;
+        decorator = null;
+        refresh();
+        monthListeners.forEach(l -> l.accept(month));
+    }
+
+    public void showPreviousMonth() {
+        setMonth(month.minusMonths(1));
+    }
+
+    public void showNextMonth() {
+        setMonth(month.plusMonths(1));
+    }
+
+    public LocalDate getSelectedDate() {
+        return selectedDate;
+    }
+
+    /**
+     * Highlights a date without telling the selection listeners (null clears it).
+     */
+    public void setSelectedDate(LocalDate date) {
+        selectedDate = date;
+        refresh();
+    }
+
+    /**
+     * Days before this date are shown greyed out and can't be clicked (null allows all).
+     */
+    public void setFirstSelectableDate(LocalDate date) {
+        firstSelectableDate = date;
+        refresh();
+    }
+
+    /**
+     * Decorates the days of the given month; ignored if another month is shown by now.
+     */
+    public void setDecorator(YearMonth forMonth, Function<LocalDate, Decoration> decorator) {
+        if (!forMonth.equals(month)) return;
+        this.decorator = decorator;
+        refresh();
+    }
+
+    /**
+     * Tints full and nearly full days and gives every day its load as a tooltip.
+     */
+    public void showOccupancy(MonthOccupancy occupancy) {
+        setDecorator(occupancy.month(), date -> {
+            MonthOccupancy.Day load = occupancy.day(date);
+            Color background = load.isFull() ? FULL_DAY_COLOR : load.isNearFull() ? BUSY_DAY_COLOR : null;
+            return new Decoration(background, load.summaryText());
+        });
+    }
+
+    /** Called on the EDT with the clicked date. */
+    public void addDateSelectionListener(Consumer<LocalDate> listener) {
+        selectionListeners.add(listener);
+    }
+
+    /** Called on the EDT after the shown month changes. */
+    public void addMonthChangeListener(Consumer<YearMonth> listener) {
+        monthListeners.add(listener);
+    }
+
+    private void select(LocalDate date) {
+        if (date == null) return;
+        selectedDate = date;
+        refresh();
+        selectionListeners.forEach(l -> l.accept(date));
+    }
+
+    private void refresh() {
+        LocalDate first = month.atDay(1);
+        LocalDate start = first.minusDays(first.getDayOfWeek().getValue() % 7);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < CELLS; i++) {
+            LocalDate date = start.plusDays(i);
+            boolean inMonth = YearMonth.from(date).equals(month);
+            dates[i] = inMonth ? date : null;
+            CellLook look = inMonth ? lookFor(date, today) : CellLook.OUTSIDE;
+            if (!look.equals(looks[i])) {
+                look.applyTo(cells[i], looks[i]);
+                looks[i] = look;
+            }
+        }
+    }
+
+    private CellLook lookFor(LocalDate date, LocalDate today) {
+        String text = String.valueOf(date.getDayOfMonth());
+        Decoration decoration = decorator == null ? null : decorator.apply(date);
+        String toolTip = decoration == null ? null : decoration.toolTip();
+        if (firstSelectableDate != null && date.isBefore(firstSelectableDate)) {
+            return new CellLook(text, false, PAST_DAY, Color.GRAY, toolTip);
+        }
+        if (date.equals(selectedDate)) {
+            return new CellLook(text, true, SELECTED_BLUE, Color.WHITE, toolTip);
+        }
+        if (date.equals(today)) {
+            return new CellLook(text, true, PRIMARY_BLUE, Color.WHITE, toolTip);
+        }
+        Color background = decoration != null && decoration.background() != null ? decoration.background() : Color.WHITE;
+        return new CellLook(text, true, background, Color.BLACK, toolTip);
+    }
+
+    /**
+     * Everything that varies between cells; applied field by field so an
+     * unchanged property isn't set (and repainted) again.
+     */
+    private record CellLook(String text, boolean enabled, Color background, Color foreground, String toolTip) {
+
+        static final CellLook OUTSIDE = new CellLook("", false, OUTSIDE_MONTH, Color.BLACK, null);
+
+        void applyTo(JButton cell, CellLook previous) {
+            if (previous == null || !text.equals(previous.text)) cell.setText(text);
+            if (previous == null || enabled != previous.enabled) cell.setEnabled(enabled);
+            if (previous == null || !background.equals(previous.background)) cell.setBackground(background);
+            if (previous == null || !foreground.equals(previous.foreground)) cell.setForeground(foreground);
+            if (previous == null || !Objects.equals(toolTip, previous.toolTip)) cell.setToolTipText(toolTip);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+import javax.swing.JComponent;
+import javax.swing.Timer;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Polls a table for rows changed since the last high-water mark and hands each
+ * non-empty ChangeSet to the view on the EDT. Runs every hc.sync.pollMs
+ * (default 5000, 0 disables) while the view is showing, and stops for good once
+ * the view has been shown and is then removed from its window. A poll that
+ * fails keeps the old mark, so nothing is skipped.
+ */
+public class ChangePoller<T> {
+
+    /**
+     * Reads the changes since the given time, or only the current high-water
+     * mark when since is null. Returns null on error.
+     */
+    @FunctionalInterface
+    public interface ChangeFetcher<T> {
+        ChangeSet<T> fetch(LocalDateTime since);
+    }
+
+    private static final int POLL_INTERVAL_MS = Integer.getInteger("hc.sync.pollMs", 5000);
+
+    private final JComponent view;
+    private final ChangeFetcher<T> fetcher;
+    private final Consumer<ChangeSet<T>> onChanges;
+    private final Timer timer;
+    private final DatabaseExecutor.ViewLoader loader = new DatabaseExecutor.ViewLoader();
+    private LocalDateTime since;
+    // Set by the first tick that finds the view showing; before that, not displayable just means not packed yet
+    private boolean shown;
+
+    public ChangePoller(JComponent view, ChangeFetcher<T> fetcher, Consumer<ChangeSet<T>> onChanges) {
+        this.view = view;
+        this.fetcher = fetcher;
+        this.onChanges = onChanges;
+        this.timer = new Timer(Math.max(POLL_INTERVAL_MS, 1), e -> tick());
+    }
+
+    /**
+     * Call together with a full reload of the view: takes a fresh high-water
+     * mark and (re)starts polling from it. Works before the view is in a window,
+     * e.g. from a constructor.
+     */
+    public void restart() {
+        since = null;
+        poll(true);
+        if (POLL_INTERVAL_MS > 0) {
+            timer.restart();
+        }
+    }
+
+    /**
+     * Polls right away, e.g. after this client saved a change of its own.
+     */
+    public void pollNow() {
+        poll(true);
+    }
+
+    public void stop() {
+        timer.stop();
+        loader.cancel();
+    }
+
+    private void tick() {
+        if (shown && !view.isDisplayable()) {
+            stop();
+            return;
+        }
+        if (!view.isShowing()) return;
+        shown = true;
+        poll(false);
+    }
+
+    private void poll(boolean force) {
+        if (!force && loader.isLoading()) return;
+
+        final LocalDateTime from = since;
+        loader.load(() -> fetcher.fetch(from), changes -> {
+            if (changes == null) return;
+            since = changes.highWater();
+            if (from != null && !changes.isEmpty()) {
+                onChanges.accept(changes);
+            }
+        });
+    }
+}
\ No newline at end of file
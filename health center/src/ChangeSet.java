@@ -0,0 +1,15 @@
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Rows of one table that changed since a high-water mark, as returned by the
+ * DatabaseHelper list...Changes methods. changed holds inserted and updated rows,
+ * deletedIds the ids recorded in row_tombstones. highWater is the database time
+ * the changes were read at; pass it as since on the next call.
+ */
+public record ChangeSet<T>(List<T> changed, List<Integer> deletedIds, LocalDateTime highWater) {
+
+    public boolean isEmpty() {
+        return changed.isEmpty() && deletedIds.isEmpty();
+    }
+}
\ No newline at end of file
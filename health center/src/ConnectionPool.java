@@ -0,0 +1,523 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small bounded JDBC connection pool used by DatabaseHelper.
+ * Connections handed out are proxies: calling close() returns the physical
+ * connection to the pool instead of closing the socket, so the existing
+ * try-with-resources code in DatabaseHelper works unchanged.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final Object lock = new Object();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Map<PooledConnection, Boolean> borrowed = new IdentityHashMap<>();
+    private int totalConnections = 0;
+    private int waitingThreads = 0;
+    private boolean shutdown = false;
+
+    // Statistics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong invalidCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong stmtCacheHits = new AtomicLong();
+    private final AtomicLong stmtCacheMisses = new AtomicLong();
+    private final AtomicLong stmtCacheEvictions = new AtomicLong();
+
+    private final Thread housekeeper;
+
+    public ConnectionPool(String url, String user, String password,
+                          int minSize, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.validationTimeoutSeconds = 2;
+        this.statementCacheSize = statementCacheSize;
+
+        housekeeper = new Thread(this::housekeepingLoop, "db-pool-housekeeper");
+        housekeeper.setDaemon(true);
+        housekeeper.start();
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new one if the pool is not yet at maxSize.
+     * Blocks up to borrowTimeoutMillis when every connection is in use.
+     * Idle connections are validated before they are handed out.
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean createNew = false;
+
+            synchronized (lock) {
+                while (true) {
+                    if (shutdown) {
+                        throw new SQLException("Connection pool has been shut down");
+                    }
+                    if (!idle.isEmpty()) {
+                        candidate = idle.pollFirst();
+                        candidate.startLease();
+                        borrowed.put(candidate, Boolean.TRUE);
+                        break;
+                    }
+                    if (totalConnections < maxSize) {
+                        totalConnections++;
+                        createNew = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount.incrementAndGet();
+                        throw new SQLException("Timed out after " + borrowTimeoutMillis
+                                + " ms waiting for a database connection (pool max=" + maxSize + ")");
+                    }
+                    waitingThreads++;
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    } finally {
+                        waitingThreads--;
+                    }
+                }
+            }
+
+            if (createNew) {
+                try {
+                    candidate = openPhysical();
+                } catch (SQLException e) {
+                    synchronized (lock) {
+                        totalConnections--;
+                        lock.notifyAll();
+                    }
+                    throw e;
+                }
+                synchronized (lock) {
+                    candidate.startLease();
+                    borrowed.put(candidate, Boolean.TRUE);
+                }
+            } else if (!isUsable(candidate)) {
+                invalidCount.incrementAndGet();
+                discard(candidate);
+                continue;
+            }
+
+            recordWait(System.nanoTime() - start);
+            return candidate.lease();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the pool statistics.
+     */
+    public Stats getStats() {
+        synchronized (lock) {
+            long borrows = borrowCount.get();
+            return new Stats(
+                borrowed.size(),
+                idle.size(),
+                totalConnections,
+                waitingThreads,
+                minSize,
+                maxSize,
+                borrows,
+                borrows == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.get() / borrows),
+                TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get()),
+                createdCount.get(),
+                evictedCount.get(),
+                invalidCount.get(),
+                timeoutCount.get(),
+                leakCount.get(),
+                stmtCacheHits.get(),
+                stmtCacheMisses.get(),
+                stmtCacheEvictions.get()
+            );
+        }
+    }
+
+    /**
+     * Closes all idle connections and refuses new borrows.
+     * Borrowed connections are closed as they are returned.
+     */
+    public void shutdown() {
+        List<PooledConnection> toClose;
+        synchronized (lock) {
+            shutdown = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            totalConnections -= toClose.size();
+            lock.notifyAll();
+        }
+        housekeeper.interrupt();
+        for (PooledConnection pc : toClose) {
+            pc.closePhysical();
+        }
+    }
+
+    private PooledConnection openPhysical() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        createdCount.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private boolean isUsable(PooledConnection pc) {
+        try {
+            return !pc.physical.isClosed() && pc.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void recordWait(long nanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Called by a lease when the caller closes it.
+     */
+    private void release(PooledConnection pc, boolean broken) {
+        boolean closeIt;
+        synchronized (lock) {
+            if (borrowed.remove(pc) == null) {
+                return;
+            }
+            closeIt = broken || shutdown;
+            if (closeIt) {
+                totalConnections--;
+            } else {
+                pc.lastReturned = System.currentTimeMillis();
+                idle.addFirst(pc);
+            }
+            lock.notifyAll();
+        }
+        if (closeIt) {
+            pc.closePhysical();
+        }
+    }
+
+    private void discard(PooledConnection pc) {
+        synchronized (lock) {
+            borrowed.remove(pc);
+            totalConnections--;
+            lock.notifyAll();
+        }
+        pc.closePhysical();
+    }
+
+    /**
+     * Runs housekeep() until shutdown. A failed round is logged and the next one runs as usual.
+     */
+    private void housekeepingLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(Math.max(1000, Math.min(idleTimeoutMillis, leakThresholdMillis) / 2));
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (!housekeep()) return;
+            } catch (RuntimeException e) {
+                System.err.println("ERROR connection pool housekeeping: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Evicts connections idle for longer than idleTimeoutMillis (never dropping below minSize),
+     * tops the pool back up to minSize and reports leases held past the leak threshold.
+     * Returns false once the pool has been shut down.
+     */
+    private boolean housekeep() {
+        List<PooledConnection> evicted = new ArrayList<>();
+        List<PooledConnection> leaked = new ArrayList<>();
+        int missing;
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            if (shutdown) return false;
+            // Oldest idle connections sit at the tail of the deque
+            while (totalConnections > minSize && !idle.isEmpty()
+                    && now - idle.peekLast().lastReturned > idleTimeoutMillis) {
+                evicted.add(idle.pollLast());
+                totalConnections--;
+            }
+            for (PooledConnection pc : borrowed.keySet()) {
+                // borrowedAt is 0 until the first lease starts
+                if (!pc.leakReported && pc.borrowedAt > 0 && now - pc.borrowedAt > leakThresholdMillis) {
+                    pc.leakReported = true;
+                    leaked.add(pc);
+                }
+            }
+            missing = Math.max(0, minSize - totalConnections);
+            totalConnections += missing;
+        }
+
+        for (PooledConnection pc : evicted) {
+            evictedCount.incrementAndGet();
+            pc.closePhysical();
+        }
+        for (PooledConnection pc : leaked) {
+            leakCount.incrementAndGet();
+            SQLException trace = new SQLException("Connection borrowed " + (now - pc.borrowedAt)
+                    + " ms ago by thread '" + pc.borrowerThread + "' has not been returned");
+            trace.setStackTrace(pc.borrowerStack);
+            System.err.println("WARNING: possible connection leak detected");
+            trace.printStackTrace();
+        }
+        for (int i = 0; i < missing; i++) {
+            try {
+                PooledConnection pc = openPhysical();
+                synchronized (lock) {
+                    pc.lastReturned = System.currentTimeMillis();
+                    idle.addLast(pc);
+                    lock.notifyAll();
+                }
+            } catch (SQLException e) {
+                synchronized (lock) {
+                    totalConnections--;
+                }
+                System.err.println("Error pre-filling connection pool: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A physical connection owned by the pool.
+     */
+    private final class PooledConnection {
+        final Connection physical;
+        volatile long lastReturned = System.currentTimeMillis();
+        volatile long borrowedAt;
+        volatile String borrowerThread;
+        volatile StackTraceElement[] borrowerStack;
+        volatile boolean leakReported;
+        final StatementCache statementCache;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statementCache = statementCacheSize > 0
+                    ? new StatementCache(physical, statementCacheSize, stmtCacheHits, stmtCacheMisses, stmtCacheEvictions)
+                    : null;
+        }
+
+        /**
+         * Records who borrowed the connection. Called under the pool lock together with
+         * adding it to borrowed, so the housekeeper never sees a stale or missing lease.
+         */
+        void startLease() {
+            borrowedAt = System.currentTimeMillis();
+            borrowerThread = Thread.currentThread().getName();
+            borrowerStack = new Throwable().getStackTrace();
+            leakReported = false;
+        }
+
+        Connection lease() throws SQLException {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this));
+        }
+
+        /**
+         * Undo per-lease session changes before the connection goes back to the idle list.
+         */
+        boolean reset() {
+            try {
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            if (statementCache != null) {
+                statementCache.closeAll();
+            }
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // Already broken, nothing else to do
+            }
+        }
+    }
+
+    /**
+     * Proxy handler for one lease of a pooled connection. After close() the
+     * lease is dead even if the physical connection lives on in the pool.
+     */
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pc;
+        private final List<Statement> openedStatements = new ArrayList<>();
+        private boolean closed = false;
+
+        LeaseHandler(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        closeOpenedStatements();
+                        release(pc, !pc.reset());
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pc.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pc.physical + (closed ? ", closed" : "") + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            Object result;
+            if (pc.statementCache != null && "prepareStatement".equals(name) && args.length == 1) {
+                result = pc.statementCache.prepare((String) args[0], (Connection) proxy);
+            } else {
+                try {
+                    result = method.invoke(pc.physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            // Cached statements are included: closing them just checks them back in
+            if (result instanceof Statement) {
+                openedStatements.add((Statement) result);
+            }
+            return result;
+        }
+
+        /**
+         * Statements left open by the caller would otherwise pile up on the
+         * physical connection for as long as it stays in the pool.
+         */
+        private void closeOpenedStatements() {
+            for (Statement st : openedStatements) {
+                try {
+                    st.close();
+                } catch (SQLException e) {
+                    // Ignore, the connection is validated on next borrow
+                }
+            }
+            openedStatements.clear();
+        }
+    }
+
+    /**
+     * Point-in-time pool statistics (wait times in microseconds).
+     */
+    public static final class Stats {
+        public final int active;
+        public final int idle;
+        public final int total;
+        public final int waiting;
+        public final int minSize;
+        public final int maxSize;
+        public final long borrows;
+        public final long avgWaitMicros;
+        public final long maxWaitMicros;
+        public final long created;
+        public final long evicted;
+        public final long invalidated;
+        public final long timeouts;
+        public final long leaks;
+        public final long stmtCacheHits;
+        public final long stmtCacheMisses;
+        public final long stmtCacheEvictions;
+
+        Stats(int active, int idle, int total, int waiting, int minSize, int maxSize,
+              long borrows, long avgWaitMicros, long maxWaitMicros, long created,
+              long evicted, long invalidated, long timeouts, long leaks,
+              long stmtCacheHits, long stmtCacheMisses, long stmtCacheEvictions) {
+            this.active = active;
+            this.idle = idle;
+            this.total = total;
+            this.waiting = waiting;
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.borrows = borrows;
+            this.avgWaitMicros = avgWaitMicros;
+            this.maxWaitMicros = maxWaitMicros;
+            this.created = created;
+            this.evicted = evicted;
+            this.invalidated = invalidated;
+            this.timeouts = timeouts;
+            this.leaks = leaks;
+            this.stmtCacheHits = stmtCacheHits;
+            this.stmtCacheMisses = stmtCacheMisses;
+            this.stmtCacheEvictions = stmtCacheEvictions;
+        }
+
+        @Override
+        public String toString() {
+            return "active=" + active + ", idle=" + idle + ", total=" + total + "/" + maxSize
+                    + ", waiting=" + waiting + ", borrows=" + borrows
+                    + ", avgWait=" + avgWaitMicros + "us, maxWait=" + maxWaitMicros + "us"
+                    + ", created=" + created + ", evicted=" + evicted
+                    + ", invalidated=" + invalidated + ", timeouts=" + timeouts + ", leaks=" + leaks
+                    + ", stmtCache(hits=" + stmtCacheHits + ", misses=" + stmtCacheMisses
+                    + ", evictions=" + stmtCacheEvictions + ")";
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+import javax.swing.*;
+import java.awt.Component;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Writes full-table CSV exports using the streaming DatabaseHelper queries,
+ * so rows go from the socket to the file one at a time.
+ */
+public class CsvExporter {
+
+    /**
+     * Exports the whole billing history. Amounts are written as plain pesos (e.g. 1250.00).
+     * @return number of rows written
+     */
+    public static int exportBillingHistory(File target) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8)) {
+            writeRow(out, "billing_id", "patient_id", "patient_name", "contact", "amount", "status", "created_at");
+            return runExport(() -> DatabaseHelper.streamBillingHistory(b -> writeRow(out,
+                    String.valueOf(b.id()),
+                    String.valueOf(b.patientId()),
+                    b.patientName(),
+                    b.contact(),
+                    centavosToPlain(b.amountCentavos()),
+                    b.status(),
+                    b.createdAt() != null ? b.createdAt().format(Appointment.DATE_TIME_FORMAT) : "")));
+        }
+    }
+
+    /**
+     * Exports the whole appointment history.
+     * @return number of rows written
+     */
+    public static int exportAppointmentHistory(File target) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8)) {
+            writeRow(out, "appointment_id", "patient_id", "patient_name", "reason", "scheduled", "staff", "status");
+            return runExport(() -> DatabaseHelper.streamAppointmentHistory(a -> writeRow(out,
+                    String.valueOf(a.id()),
+                    String.valueOf(a.patientId()),
+                    a.patientName(),
+                    a.reason(),
+                    a.dateTimeText(),
+                    a.staffName(),
+                    a.status())));
+        }
+    }
+
+    /**
+     * An export writing to a file, e.g. CsvExporter::exportBillingHistory.
+     */
+    @FunctionalInterface
+    public interface Export {
+        int writeTo(File target) throws IOException;
+    }
+
+    /**
+     * Asks for a target file, then runs the export off the EDT and reports the result.
+     * Must be called on the EDT.
+     */
+    public static void exportWithChooser(Component parent, String defaultFileName, Export export) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File(defaultFileName));
+        if (chooser.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File target = chooser.getSelectedFile();
+        DatabaseExecutor.run(() -> {
+            try {
+                int rows = export.writeTo(target);
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent,
+                        "Exported " + rows + " rows to\n" + target.getAbsolutePath()));
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent,
+                        "Export failed: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
+            }
+        });
+    }
+
+    /**
+     * Runs a streaming export, turning write failures and query failures back into IOExceptions.
+     */
+    private static int runExport(java.util.function.IntSupplier export) throws IOException {
+        int rows;
+        try {
+            rows = export.getAsInt();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (rows < 0) {
+            throw new IOException("Database error while exporting, see console for details");
+        }
+        return rows;
+    }
+
+    private static String centavosToPlain(long centavos) {
+        String sign = centavos < 0 ? "-" : "";
+        long abs = Math.abs(centavos);
+        return String.format("%s%d.%02d", sign, abs / 100, abs % 100);
+    }
+
+    private static void writeRow(Writer out, String... values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                out.write(escape(values[i]));
+            }
+            out.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String escape(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
\ No newline at end of file
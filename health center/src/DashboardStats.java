@@ -0,0 +1,8 @@
+/**
+ * KPI counters shown on the admin and staff dashboards, read together by
+ * DatabaseHelper.getDashboardStats().
+ */
+public record DashboardStats(int patients, int staff, int pendingAppointments, int totalAppointments) {
+
+    public static final DashboardStats EMPTY = new DashboardStats(0, 0, 0, 0);
+}
\ No newline at end of file
@@ -0,0 +1,143 @@
+import javax.swing.SwingUtilities;
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Shared executor for database work started from the UI.
+ * Tasks run on at most hc.async.threads threads (default 8, a bit under the
+ * connection pool size) with up to hc.async.queueSize waiting; when the queue
+ * is full the returned future fails instead of spawning more threads.
+ * On JDKs with virtual threads the workers are virtual, otherwise daemon
+ * platform threads. Either way they are named db-worker-N.
+ *
+ * Views use a ViewLoader per table or panel so a new load supersedes the
+ * previous one and results arrive on the EDT.
+ */
+public final class DatabaseExecutor {
+
+    private static final int THREADS = Integer.getInteger("hc.async.threads", 8);
+    private static final int QUEUE_SIZE = Integer.getInteger("hc.async.queueSize", 500);
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            THREADS, THREADS, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_SIZE), createThreadFactory(),
+            new ThreadPoolExecutor.AbortPolicy());
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private DatabaseExecutor() {
+    }
+
+    public static Executor executor() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Runs a query off the EDT.
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> query) {
+        try {
+            return CompletableFuture.supplyAsync(query, EXECUTOR);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Runs a task off the EDT.
+     */
+    public static CompletableFuture<Void> run(Runnable task) {
+        try {
+            return CompletableFuture.runAsync(task, EXECUTOR);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Number of tasks waiting for a worker, for diagnostics.
+     */
+    public static int queuedTasks() {
+        return EXECUTOR.getQueue().size();
+    }
+
+    /**
+     * Uses Thread.ofVirtual() when the running JDK has it (21+), looked up
+     * reflectively so the code still compiles and runs on 17.
+     */
+    private static ThreadFactory createThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = ofVirtual.getMethod("name", String.class, long.class).invoke(builder, "db-worker-", 1L);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return task -> {
+                Thread t = new Thread(task, "db-worker-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+        }
+    }
+
+    /**
+     * One loading slot for a view (a table, a counter panel). Starting a load
+     * cancels the one still in flight, so rapid refreshes or tab switches never
+     * let an older result overwrite a newer one. Must be used from the EDT.
+     */
+    public static final class ViewLoader {
+        private CompletableFuture<?> current;
+
+        /**
+         * Runs query in the background and hands its result to onResult on the EDT,
+         * unless another load or cancel() happened first.
+         */
+        public <T> CompletableFuture<T> load(Supplier<T> query, Consumer<T> onResult) {
+            cancel();
+            CompletableFuture<T> future = supply(query);
+            current = future;
+            future.whenComplete((result, error) -> {
+                if (error != null && !future.isCancelled()) {
+                    error.printStackTrace();
+                }
+                SwingUtilities.invokeLater(() -> {
+                    if (current == future) {
+                        current = null;
+                        if (error == null) {
+                            onResult.accept(result);
+                        }
+                    }
+                });
+            });
+            return future;
+        }
+
+        /**
+         * Drops the load in flight. A query that already started still runs
+         * to completion, but its result is discarded.
+         */
+        public void cancel() {
+            if (current != null) {
+                current.cancel(false);
+                current = null;
+            }
+        }
+
+        public boolean isLoading() {
+            return current != null;
+        }
+    }
+}
\ No newline at end of file
@@ -1,14 +1,28 @@
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
-import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 /**
  * Helper class for managing MySQL database connections and user authentication.
@@ -17,11 +31,30 @@ import java.util.List;
 public class DatabaseHelper {
 
     // Database configuration
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/barangay_health_center";
+    // Server-side prepares pair with the per-connection statement cache: each hot query is prepared once per connection
+    private static final boolean USE_SERVER_PREPARED_STATEMENTS =
+            Boolean.parseBoolean(System.getProperty("hc.db.serverPrepStmts", "true"));
+    private static final String DB_URL = "jdbc:mysql://localhost:3306/barangay_health_center"
+            + "?useServerPrepStmts=" + USE_SERVER_PREPARED_STATEMENTS
+            // Lets Connector/J send a JDBC batch as multi-row statements instead of one round trip per row
+            + "&rewriteBatchedStatements=true";
     private static final String DB_USER = "root";
     private static final String DB_PASSWORD = "LeandrO#_9"; // Change this to your MySQL password
     private static final String DB_DRIVER = "com.mysql.cj.jdbc.Driver";
 
+    // Connection pool configuration (override with -Dhc.pool.maxSize=20 etc.)
+    private static final int POOL_MIN_SIZE = Integer.getInteger("hc.pool.minSize", 2);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("hc.pool.maxSize", 10);
+    private static final long POOL_BORROW_TIMEOUT_MS = Long.getLong("hc.pool.borrowTimeoutMs", 10_000L);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("hc.pool.idleTimeoutMs", 300_000L);
+    private static final long POOL_LEAK_THRESHOLD_MS = Long.getLong("hc.pool.leakThresholdMs", 60_000L);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("hc.pool.statementCacheSize", 64);
+
+    // Rows per page for the paged "get all" queries (override with -Dhc.page.size=200)
+    public static final int DEFAULT_PAGE_SIZE = Integer.getInteger("hc.page.size", 100);
+
+    private static final ConnectionPool POOL;
+
     static {
         try {
             Class.forName(DB_DRIVER);
@@ -29,14 +62,239 @@ public class DatabaseHelper {
             System.err.println("MySQL JDBC Driver not found. Please add mysql-connector-java to your classpath.");
             e.printStackTrace();
         }
+        POOL = new ConnectionPool(DB_URL, DB_USER, DB_PASSWORD,
+                POOL_MIN_SIZE, POOL_MAX_SIZE,
+                POOL_BORROW_TIMEOUT_MS, POOL_IDLE_TIMEOUT_MS, POOL_LEAK_THRESHOLD_MS,
+                STATEMENT_CACHE_SIZE);
     }
 
     /**
-     * Establishes a connection to the MySQL database.
-     * @return Connection object if successful, null otherwise.
+     * Borrows a pooled connection to the MySQL database.
+     * Closing the returned connection hands it back to the pool.
+     * Time spent waiting for it and in its statements is recorded by QueryMetrics.
+     * @return Connection object if successful.
      */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        return QueryMetrics.acquire(POOL::getConnection);
+    }
+
+    /**
+     * Returns per-operation latency, row and error figures, slowest p95 first.
+     */
+    public static List<QueryMetrics.Snapshot> getQueryStats() {
+        return QueryMetrics.snapshot();
+    }
+
+    /**
+     * Returns current connection pool statistics (active, idle, wait times, leaks,
+     * prepared statement cache hits/misses).
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return POOL.getStats();
+    }
+
+    // Read-through caches for data that rarely changes (override with -Dhc.cache.ttlMs=... etc.)
+    private static final long CACHE_TTL_MS = Long.getLong("hc.cache.ttlMs", 60_000L);
+    private static final int CACHE_MAX_ENTRIES = Integer.getInteger("hc.cache.maxEntries", 256);
+    private static final TtlCache<String, List<StaffMember>> STAFF_DIRECTORY_CACHE =
+            new TtlCache<>("staffDirectory", 4, CACHE_TTL_MS);
+    private static final TtlCache<Integer, String[]> PATIENT_PROFILE_CACHE =
+            new TtlCache<>("patientProfile", CACHE_MAX_ENTRIES, CACHE_TTL_MS);
+    private static final TtlCache<Integer, Boolean> STAFF_SUSPENSION_CACHE =
+            new TtlCache<>("staffSuspension", CACHE_MAX_ENTRIES, CACHE_TTL_MS);
+    private static final TtlCache<Integer, Integer> UNREAD_NOTIFICATIONS_CACHE =
+            new TtlCache<>("unreadNotifications", CACHE_MAX_ENTRIES, CACHE_TTL_MS);
+    // Appointment writes through DatabaseHelper drop it; the TTL picks up other workstations' bookings
+    private static final TtlCache<YearMonth, MonthOccupancy> MONTH_OCCUPANCY_CACHE =
+            new TtlCache<>("monthOccupancy", 12, Long.getLong("hc.calendar.ttlMs", 30_000L));
+
+    /**
+     * Returns hit/miss/eviction counts for the staff directory, patient profile,
+     * staff suspension, unread count and month occupancy caches.
+     */
+    public static List<TtlCache.Stats> getCacheStats() {
+        return List.of(STAFF_DIRECTORY_CACHE.getStats(), PATIENT_PROFILE_CACHE.getStats(),
+                STAFF_SUSPENSION_CACHE.getStats(), UNREAD_NOTIFICATIONS_CACHE.getStats(),
+                MONTH_OCCUPANCY_CACHE.getStats());
+    }
+
+    /**
+     * Drops cached staff rows and suspension flags after a staff write.
+     */
+    private static void invalidateStaffCaches() {
+        STAFF_DIRECTORY_CACHE.invalidateAll();
+        STAFF_SUSPENSION_CACHE.invalidateAll();
+    }
+
+    /**
+     * Maps the current ResultSet row to a typed record.
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Binds parameters on a prepared statement before it is executed.
+     */
+    @FunctionalInterface
+    public interface ParameterBinder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    private static final ParameterBinder NO_PARAMETERS = ps -> { };
+
+    /**
+     * Runs a SELECT and maps every row straight into a typed list.
+     * Errors are logged under the given operation name and an empty list is returned,
+     * matching the behaviour of the older Object[][] methods.
+     */
+    private static <T> List<T> queryList(String operation, String sql, ParameterBinder binder, RowMapper<T> mapper) {
+        try {
+            return queryListOrThrow(sql, binder, mapper);
+        } catch (SQLException e) {
+            System.err.println("ERROR " + operation + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Same as queryList but lets the SQLException through, for callers (like the caches)
+     * that must tell an empty result from a failed query.
+     */
+    private static <T> List<T> queryListOrThrow(String sql, ParameterBinder binder, RowMapper<T> mapper) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement p = conn.prepareStatement(sql)) {
+            binder.bind(p);
+            try (ResultSet rs = p.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapper.map(rs));
+                }
+            }
+            QueryMetrics.countRows(conn, rows.size());
+        }
+        return rows;
+    }
+
+    /**
+     * Reads a list through the staff directory cache; on error returns an empty list (not cached).
+     */
+    private static List<StaffMember> cachedStaffList(String operation, String sql) {
+        try {
+            return STAFF_DIRECTORY_CACHE.get(sql, q -> List.copyOf(queryListOrThrow(q, NO_PARAMETERS, STAFF_MAPPER)));
+        } catch (SQLException e) {
+            System.err.println("ERROR " + operation + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return List.of();
+    }
+
+    // TIMESTAMP columns have 1-second resolution and updated_at is set when a row is
+    // written, not when it commits, so each poll re-reads this much before the last mark.
+    // Re-applying a row that is already current is harmless.
+    private static final int CHANGE_OVERLAP_SECONDS = 2;
+    // Pollers only run while their view is open, so a week of tombstones is plenty
+    private static final int TOMBSTONE_RETENTION_DAYS = 7;
+
+    /**
+     * Reads one table's changes since the given time: the rows matched by changedSql,
+     * whose sinceParams placeholders are all bound to since, and the ids tombstoned
+     * for table. With since == null only the new high-water mark is read.
+     * Returns null on error so the caller keeps its old mark.
+     */
+    private static <T> ChangeSet<T> queryChanges(String operation, String table, LocalDateTime since,
+                                                 String changedSql, int sinceParams, RowMapper<T> mapper) {
+        try (Connection conn = getConnection()) {
+            LocalDateTime highWater;
+            try (PreparedStatement p = conn.prepareStatement("SELECT NOW()");
+                 ResultSet rs = p.executeQuery()) {
+                rs.next();
+                highWater = toLocalDateTime(rs.getTimestamp(1));
+            }
+            if (since == null) {
+                return new ChangeSet<>(List.of(), List.of(), highWater);
+            }
+
+            Timestamp from = Timestamp.valueOf(since.minusSeconds(CHANGE_OVERLAP_SECONDS));
+            List<T> changed = new ArrayList<>();
+            try (PreparedStatement p = conn.prepareStatement(changedSql)) {
+                for (int i = 1; i <= sinceParams; i++) {
+                    p.setTimestamp(i, from);
+                }
+                try (ResultSet rs = p.executeQuery()) {
+                    while (rs.next()) {
+                        changed.add(mapper.map(rs));
+                    }
+                }
+            }
+
+            List<Integer> deleted = new ArrayList<>();
+            try (PreparedStatement p = conn.prepareStatement(
+                    "SELECT row_id FROM row_tombstones WHERE table_name = ? AND deleted_at > ?")) {
+                p.setString(1, table);
+                p.setTimestamp(2, from);
+                try (ResultSet rs = p.executeQuery()) {
+                    while (rs.next()) {
+                        deleted.add(rs.getInt(1));
+                    }
+                }
+            }
+            QueryMetrics.countRows(conn, changed.size() + deleted.size());
+            return new ChangeSet<>(changed, deleted, highWater);
+        } catch (SQLException e) {
+            System.err.println("ERROR " + operation + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Streams a SELECT row by row to the sink without buffering the result.
+     * Uses a forward-only, read-only cursor with Connector/J's row streaming
+     * (fetch size Integer.MIN_VALUE), so heap use stays flat for any table size.
+     * The connection is busy until the last row has been consumed.
+     * @return number of rows delivered, or -1 on error
+     */
+    private static <T> int streamQuery(String operation, String sql, ParameterBinder binder,
+                                       RowMapper<T> mapper, Consumer<? super T> sink) {
+        int count = 0;
+        try (Connection conn = getConnection();
+             PreparedStatement p = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            p.setFetchSize(Integer.MIN_VALUE);
+            binder.bind(p);
+            try (ResultSet rs = p.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(mapper.map(rs));
+                    count++;
+                }
+            }
+            QueryMetrics.countRows(conn, count);
+        } catch (SQLException e) {
+            System.err.println("ERROR " + operation + ": " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+        return count;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp ts) {
+        return ts != null ? ts.toLocalDateTime() : null;
+    }
+
+    /**
+     * Binds [day 00:00, next day 00:00) as two timestamps so date filters stay index range scans
+     * instead of wrapping the column in DATE().
+     */
+    private static void bindDayRange(PreparedStatement p, int firstIndex, LocalDate day) throws SQLException {
+        p.setTimestamp(firstIndex, Timestamp.valueOf(day.atStartOfDay()));
+        p.setTimestamp(firstIndex + 1, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+    }
+
+    private static Integer getNullableInt(ResultSet rs, String column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
     }
 
     /**
@@ -107,10 +365,11 @@ public class DatabaseHelper {
             
             pstmt.setString(1, email);
             pstmt.setString(2, password);
-            pstmt.setString(3, firstName);
-            pstmt.setString(4, lastName);
+            pstmt.setString(3, nullToEmpty(firstName));
+            pstmt.setString(4, nullToEmpty(lastName));
             
             int affectedRows = pstmt.executeUpdate();
+            PatientSearchIndex.markStale();
             return affectedRows > 0;
             
         } catch (SQLException e) {
@@ -146,88 +405,22 @@ public class DatabaseHelper {
     }
 
     /**
-     * Creates the required database and tables if they don't exist.
-     * Run this once during application initialization.
+     * Brings the database schema up to date.
+     * Schema changes live in SchemaMigrations; when the database is already current
+     * this is a single SELECT against schema_version.
      */
     public static void initializeDatabase() {
         try (Connection conn = getConnection()) {
-            Statement stmt = conn.createStatement();
-            
-            // Create users table with role column
-            String usersTable = "CREATE TABLE IF NOT EXISTS users (" +
-                    "id INT AUTO_INCREMENT PRIMARY KEY," +
-                    "email VARCHAR(255) UNIQUE NOT NULL," +
-                    "password VARCHAR(255) NOT NULL," +
-                    "first_name VARCHAR(255)," +
-                    "last_name VARCHAR(255)," +
-                    "role VARCHAR(20) NOT NULL DEFAULT 'PATIENT'," +
-                    "staff_id INT," +
-                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP" +
-                    ")";
-            stmt.executeUpdate(usersTable);
-            
-            // Add staff_id column if it doesn't exist
-            try {
-                stmt.executeUpdate("ALTER TABLE users ADD COLUMN staff_id INT");
-            } catch (SQLException e) {
-                // Column already exists, ignore
+            int applied = SchemaMigrations.migrate(conn);
+            if (applied > 0) {
+                System.out.println("Applied " + applied + " schema migration(s), now at version " +
+                        SchemaMigrations.latestVersion());
             }
-            
-            // Create staff table
-            String staffTable = "CREATE TABLE IF NOT EXISTS staff (" +
-                    "id INT AUTO_INCREMENT PRIMARY KEY," +
-                    "user_id INT," +
-                    "name VARCHAR(255) NOT NULL," +
-                    "designation VARCHAR(255) NOT NULL," +
-                    "area_of_focus VARCHAR(255)," +
-                    "contact_details VARCHAR(255)," +
-                    "suspended BOOLEAN DEFAULT FALSE," +
-                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP" +
-                    ")";
-            stmt.executeUpdate(staffTable);
-            
-            // Add suspended column if it doesn't exist
-            try {
-                stmt.executeUpdate("ALTER TABLE staff ADD COLUMN suspended BOOLEAN DEFAULT FALSE");
-            } catch (SQLException e) {
-                // Column already exists, ignore
-            }
-            
-            // Add user_id column if it doesn't exist
-            try {
-                stmt.executeUpdate("ALTER TABLE staff ADD COLUMN user_id INT");
-            } catch (SQLException e) {
-                // Column already exists, ignore
-            }
-            
-            // Create appointments table
-            String appointmentsTable = "CREATE TABLE IF NOT EXISTS appointments (" +
-                    "id INT AUTO_INCREMENT PRIMARY KEY," +
-                    "patient_id INT NOT NULL," +
-                    "staff_id INT," +
-                    "appointment_date DATETIME NOT NULL," +
-                    "reason VARCHAR(255)," +
-                    "status VARCHAR(20) NOT NULL DEFAULT 'PENDING'," +
-                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP," +
-                    "FOREIGN KEY (patient_id) REFERENCES users(id)," +
-                    "FOREIGN KEY (staff_id) REFERENCES staff(id)" +
-                    ")";
-            stmt.executeUpdate(appointmentsTable);
-            
-            // Initialize staff-user links
-            initializeStaffUserLinks();
-            
-            System.out.println("Database tables initialized successfully!");
-            
         } catch (SQLException e) {
             System.err.println("Error initializing tables: " + e.getMessage());
             e.printStackTrace();
         }
     }
-
     /**
      * Returns all users as a 2D object array for JTable display
      */
@@ -260,8 +453,17 @@ public class DatabaseHelper {
 
     /**
      * Returns first_name, last_name, date_of_birth, profile_picture_path
+     * Served from the patient profile cache; updates through this class invalidate it.
      */
     public static String[] getPatientData(int patientId) {
+        try {
+            String[] data = PATIENT_PROFILE_CACHE.get(patientId, DatabaseHelper::loadPatientData);
+            return data != null ? data.clone() : null;
+        } catch (SQLException e) { e.printStackTrace(); }
+        return null;
+    }
+
+    private static String[] loadPatientData(int patientId) throws SQLException {
         String q = "SELECT first_name, last_name, date_of_birth, COALESCE(profile_picture,'') as profile_picture FROM users WHERE id = ? AND role = 'PATIENT'";
         try (Connection conn = getConnection();
              PreparedStatement p = conn.prepareStatement(q)) {
@@ -275,26 +477,19 @@ public class DatabaseHelper {
                     rs.getString("profile_picture")
                 };
             }
-        } catch (SQLException e) { e.printStackTrace(); }
+        }
         return null;
     }
-
     /**
-     * Returns first and last name only (convenience)
+     * Returns first and last name only (convenience), from the same cached row as getPatientData
      */
     public static String[] getPatientNameComponents(int patientId) {
-        String q = "SELECT first_name, last_name FROM users WHERE id = ? AND role = 'PATIENT'";
-        try (Connection conn = getConnection();
-             PreparedStatement p = conn.prepareStatement(q)) {
-            p.setInt(1, patientId);
-            ResultSet rs = p.executeQuery();
-            if (rs.next()) {
-                return new String[]{ rs.getString("first_name"), rs.getString("last_name") };
-            }
-        } catch (SQLException e) { e.printStackTrace(); }
+        String[] data = getPatientData(patientId);
+        if (data != null) {
+            return new String[]{ data[0], data[1] };
+        }
         return new String[]{"",""};
     }
-
     /**
      * Extended update: update name, phone, address, occupation, civil_status, profile picture path
      */
@@ -304,15 +499,18 @@ public class DatabaseHelper {
         String q = "UPDATE users SET first_name = ?, last_name = ?, phone_number = ?, address = ?, occupation = ?, civil_status = ?, profile_picture = ? WHERE id = ?";
         try (Connection conn = getConnection();
              PreparedStatement p = conn.prepareStatement(q)) {
-            p.setString(1, firstName);
-            p.setString(2, lastName);
+            p.setString(1, nullToEmpty(firstName));
+            p.setString(2, nullToEmpty(lastName));
             p.setString(3, phone);
             p.setString(4, address);
             p.setString(5, occupation);
             p.setString(6, civilStatus);
             p.setString(7, profilePicPath);
             p.setInt(8, patientId);
-            return p.executeUpdate() > 0;
+            boolean updated = p.executeUpdate() > 0;
+            PATIENT_PROFILE_CACHE.invalidate(patientId);
+            PatientSearchIndex.markStale();
+            return updated;
         } catch (SQLException e) { e.printStackTrace(); }
         return false;
     }
@@ -353,7 +551,10 @@ public class DatabaseHelper {
             pstmt.setString(3, occupation);
             pstmt.setString(4, civilStatus);
             pstmt.setInt(5, patientId);
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            PATIENT_PROFILE_CACHE.invalidate(patientId);
+            PatientSearchIndex.markStale();
+            return updated;
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -361,85 +562,91 @@ public class DatabaseHelper {
     }
 
     /**
-     * Gets patient appointments
+     * Gets patient appointments, newest first
+     */
+    public static List<Appointment> listPatientAppointments(int patientId) {
+        String q = "SELECT a.id, a.patient_id, a.reason, a.appointment_date, UPPER(a.status) AS status " +
+                   "FROM appointments a WHERE a.patient_id = ? ORDER BY a.appointment_date DESC";
+        return queryList("listPatientAppointments", q, p -> p.setInt(1, patientId), rs -> new Appointment(
+            rs.getInt("id"),
+            rs.getInt("patient_id"),
+            null,
+            rs.getString("reason"),
+            toLocalDateTime(rs.getTimestamp("appointment_date")),
+            null,
+            rs.getString("status")
+        ));
+    }
+
+    /**
+     * Gets patient appointments as table rows: id, reason, date (yyyy-MM-dd), time (HH:mm), status
      */
     public static Object[][] getPatientAppointments(int patientId) {
-        String query = """
-          SELECT 
-              a.id,
-              a.reason,
-            DATE(a.appointment_date) AS appointment_date,
-            TIME_FORMAT(a.appointment_date, '%H:%i') AS appointment_time,
-            UPPER(a.status) AS status
-        FROM appointments a
-        WHERE a.patient_id = ?
-        ORDER BY a.appointment_date DESC
-    """;
-
-    List<Object[]> rows = new ArrayList<>();
-
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-        pstmt.setInt(1, patientId);
-        ResultSet rs = pstmt.executeQuery();
-
-        while (rs.next()) {
-            rows.add(new Object[]{
-                rs.getInt("id"),                  // 0: ID
-                rs.getString("reason"),           // 1: Reason
-                rs.getString("appointment_date"), // 2: Date (e.g., 2025-12-21)
-                rs.getString("appointment_time"), // 3: Time (e.g., 10:00)
-                rs.getString("status")            // 4: Status
-            });
+        List<Appointment> appts = listPatientAppointments(patientId);
+        Object[][] rows = new Object[appts.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            Appointment a = appts.get(i);
+            rows[i] = new Object[]{a.id(), a.reason(), a.dateText(), a.timeText(), a.status()};
         }
-
-        System.out.println("Loaded " + rows.size() + " appointments for patient ID: " + patientId);
-
-    } catch (SQLException e) {
-        System.err.println("Error loading appointments for patient " + patientId + ": " + e.getMessage());
-        e.printStackTrace();
+        return rows;
     }
 
-    return rows.toArray(new Object[0][]);
-}
+    /**
+     * Gets all staff (cached, read-only list)
+     */
+    public static List<StaffMember> listStaff() {
+        String q = "SELECT id, name, designation, area_of_focus, contact_details, suspended FROM staff";
+        return cachedStaffList("listStaff", q);
+    }
 
     /**
-     * Gets all staff
+     * Gets all staff as table rows: id, name, designation, area_of_focus, contact_details
      */
     public static Object[][] getAllStaff() {
-        String query = "SELECT id, name, designation, area_of_focus, contact_details FROM staff";
-        List<Object[]> data = new ArrayList<>();
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            while (rs.next()) {
-                data.add(new Object[]{
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getString("designation"),
-                    rs.getString("area_of_focus"),
-                    rs.getString("contact_details")
-                });
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        List<StaffMember> staff = listStaff();
+        Object[][] rows = new Object[staff.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            StaffMember m = staff.get(i);
+            rows[i] = new Object[]{m.id(), m.name(), m.designation(), m.areaOfFocus(), m.contactDetails()};
         }
-        return data.toArray(new Object[0][]);
+        return rows;
     }
 
+    private static final RowMapper<StaffMember> STAFF_MAPPER = rs -> new StaffMember(
+        rs.getInt("id"),
+        rs.getString("name"),
+        rs.getString("designation"),
+        rs.getString("area_of_focus"),
+        rs.getString("contact_details"),
+        rs.getBoolean("suspended")
+    );
+
     /**
      * Books an appointment
      */
     public static boolean bookAppointment(int patientId, int staffId, String appointmentDateTime, String reason) {
         String query = "INSERT INTO appointments (patient_id, staff_id, appointment_date, reason, status) VALUES (?, ?, STR_TO_DATE(?, '%Y-%m-%d %H:%i'), ?, 'PENDING')";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setInt(1, patientId);
-            pstmt.setInt(2, staffId);
-            pstmt.setString(3, appointmentDateTime);
-            pstmt.setString(4, reason);
-            return pstmt.executeUpdate() > 0;
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setInt(1, patientId);
+                pstmt.setInt(2, staffId);
+                pstmt.setString(3, appointmentDateTime);
+                pstmt.setString(4, reason);
+                if (pstmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                refreshPatientSummary(conn, patientId);
+                conn.commit();
+                recordNewBooking(pstmt, appointmentDateTime);
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -452,13 +659,27 @@ public class DatabaseHelper {
      */
     public static boolean bookAppointmentWithoutStaff(int patientId, String appointmentDateTime, String reason) {
         String q = "INSERT INTO appointments (patient_id, appointment_date, reason, status, created_at) VALUES (?, ?, ?, 'PENDING', ?)";
-        try (Connection conn = getConnection();
-             PreparedStatement p = conn.prepareStatement(q)) {
-            p.setInt(1, patientId);
-            p.setString(2, appointmentDateTime); // expects 'yyyy-MM-dd HH:mm:ss'
-            p.setString(3, reason);
-            p.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
-            return p.executeUpdate() > 0;
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement p = conn.prepareStatement(q, Statement.RETURN_GENERATED_KEYS)) {
+                p.setInt(1, patientId);
+                p.setString(2, appointmentDateTime); // expects 'yyyy-MM-dd HH:mm:ss'
+                p.setString(3, reason);
+                p.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+                if (p.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                refreshPatientSummary(conn, patientId);
+                conn.commit();
+                recordNewBooking(p, appointmentDateTime);
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             System.err.println("ERROR bookAppointmentWithoutStaff: " + e.getMessage());
             e.printStackTrace();
@@ -466,6 +687,52 @@ public class DatabaseHelper {
         return false;
     }
 
+    /**
+     * Adds a just-inserted PENDING appointment to the scheduler's day index.
+     */
+    private static void recordNewBooking(PreparedStatement insert, String appointmentDateTime) throws SQLException {
+        LocalDateTime at = parseDateTime(appointmentDateTime);
+        try (ResultSet keys = insert.getGeneratedKeys()) {
+            if (keys.next()) {
+                AppointmentScheduler.recordBooking(keys.getInt(1), at, "PENDING");
+            } else {
+                AppointmentScheduler.invalidate(at.toLocalDate());
+            }
+        }
+        MONTH_OCCUPANCY_CACHE.invalidateAll();
+    }
+
+    /**
+     * Parses "yyyy-MM-dd HH:mm" or "yyyy-MM-dd HH:mm:ss".
+     */
+    private static LocalDateTime parseDateTime(String dateTime) {
+        return LocalDateTime.parse(dateTime.trim().replace(' ', 'T'));
+    }
+
+    /**
+     * Gets all dashboard counters in one round trip.
+     * Each count is served from an index (users role, appointments status).
+     */
+    public static DashboardStats getDashboardStats() {
+        String q = "SELECT " +
+                   "(SELECT COUNT(*) FROM users WHERE role = 'PATIENT') AS patients, " +
+                   "(SELECT COUNT(*) FROM staff) AS staff, " +
+                   "(SELECT COUNT(*) FROM appointments WHERE status = 'PENDING') AS pending, " +
+                   "(SELECT COUNT(*) FROM appointments) AS total";
+        try (Connection conn = getConnection();
+             PreparedStatement p = conn.prepareStatement(q);
+             ResultSet rs = p.executeQuery()) {
+            if (rs.next()) {
+                return new DashboardStats(rs.getInt("patients"), rs.getInt("staff"),
+                        rs.getInt("pending"), rs.getInt("total"));
+            }
+        } catch (SQLException e) {
+            System.err.println("ERROR getDashboardStats: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return DashboardStats.EMPTY;
+    }
+
     /**
      * Gets patient count for admin dashboard
      */
@@ -530,27 +797,79 @@ public class DatabaseHelper {
         return 0;
     }
 
+    /**
+     * Return all appointments for staff view, newest first
+     */
+    public static List<Appointment> listAllAppointments() {
+        String q = "SELECT a.id, a.patient_id, CONCAT(u.first_name,' ',u.last_name) AS patient, a.reason, a.appointment_date, a.status " +
+                   "FROM appointments a LEFT JOIN users u ON a.patient_id = u.id ORDER BY a.appointment_date DESC";
+        return queryList("listAllAppointments", q, NO_PARAMETERS, rs -> new Appointment(
+            rs.getInt("id"),
+            rs.getInt("patient_id"),
+            rs.getString("patient"),
+            rs.getString("reason"),
+            toLocalDateTime(rs.getTimestamp("appointment_date")),
+            null,
+            rs.getString("status")
+        ));
+    }
+
+    /**
+     * Sorts and filters of the staff appointment list. Keys: "date" (default),
+     * "status" (then date, served by idx_appointments_status_date) and "id".
+     */
+    public static final TableQuery<Appointment> APPOINTMENT_TABLE = new TableQuery<Appointment>(
+            "SELECT a.id, a.patient_id, CONCAT(u.first_name,' ',u.last_name) AS patient, a.reason, a.appointment_date, a.status " +
+            "FROM appointments a LEFT JOIN users u ON a.patient_id = u.id", "a.id", Appointment::id)
+        .sort("date", "a.appointment_date", Appointment::scheduledAt)
+        .sort("status", "a.status", Appointment::status).then("a.appointment_date", Appointment::scheduledAt)
+        .sort("id", "a.id", Appointment::id)
+        .statusFilter("a.status", Appointment::status)
+        .dateFilter("a.appointment_date", Appointment::scheduledAt)
+        .textFilter(List.of("u.first_name", "u.last_name", "a.reason"),
+                a -> withWords(a.patientName(), a.reason()));
+
+    /**
+     * One page of the staff appointment list, sorted and filtered as spec says.
+     * Keyset pagination on the sort columns and id: pass the last row of the previous page, or null for the first page.
+     */
+    public static List<Appointment> listAppointmentsPage(QuerySpec spec, Appointment after, int limit) {
+        return queryList("listAppointmentsPage", APPOINTMENT_TABLE.sql(spec, after != null),
+                p -> APPOINTMENT_TABLE.bind(p, spec, after, limit), APPOINTMENT_ROW_MAPPER);
+    }
+
+    private static final RowMapper<Appointment> APPOINTMENT_ROW_MAPPER = rs -> new Appointment(
+        rs.getInt("id"),
+        rs.getInt("patient_id"),
+        rs.getString("patient"),
+        rs.getString("reason"),
+        toLocalDateTime(rs.getTimestamp("appointment_date")),
+        null,
+        rs.getString("status")
+    );
+
+    /**
+     * Appointments inserted, updated or deleted since the given time, in the
+     * listAppointmentsPage row shape. Returns null on error.
+     */
+    public static ChangeSet<Appointment> listAppointmentChanges(LocalDateTime since) {
+        String q = "SELECT a.id, a.patient_id, CONCAT(u.first_name,' ',u.last_name) AS patient, a.reason, a.appointment_date, a.status " +
+                   "FROM appointments a LEFT JOIN users u ON a.patient_id = u.id " +
+                   "WHERE a.updated_at > ?";
+        return queryChanges("listAppointmentChanges", "appointments", since, q, 1, APPOINTMENT_ROW_MAPPER);
+    }
+
     /**
      * Return all appointments for staff view: id, patient name, reason, date, time, status
      */
     public static Object[][] getAllAppointments() {
-        String q = "SELECT a.id, CONCAT(u.first_name,' ',u.last_name) AS patient, a.reason, DATE_FORMAT(a.appointment_date,'%Y-%m-%d') as appt_date, TIME_FORMAT(a.appointment_date,'%H:%i') as appt_time, a.status FROM appointments a LEFT JOIN users u ON a.patient_id = u.id ORDER BY a.appointment_date DESC";
-        List<Object[]> rows = new ArrayList<>();
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(q)) {
-            while (rs.next()) {
-                rows.add(new Object[]{
-                    rs.getInt("id"),
-                    rs.getString("patient"),
-                    rs.getString("reason"),
-                    rs.getString("appt_date"),
-                    rs.getString("appt_time"),
-                    rs.getString("status")
-                });
-            }
-        } catch (SQLException e) { e.printStackTrace(); }
-        return rows.toArray(new Object[0][]);
+        List<Appointment> appts = listAllAppointments();
+        Object[][] rows = new Object[appts.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            Appointment a = appts.get(i);
+            rows[i] = new Object[]{a.id(), a.patientName(), a.reason(), a.dateText(), a.timeText(), a.status()};
+        }
+        return rows;
     }
 
     /**
@@ -558,83 +877,504 @@ public class DatabaseHelper {
      */
     public static boolean updateAppointmentStatus(int appointmentId, String status) {
         String q = "UPDATE appointments SET status = ? WHERE id = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement p = conn.prepareStatement(q)) {
-            p.setString(1, status);
-            p.setInt(2, appointmentId);
-            return p.executeUpdate() > 0;
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement p = conn.prepareStatement(q)) {
+                p.setString(1, status);
+                p.setInt(2, appointmentId);
+                if (p.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                refreshPatientSummaryForAppointment(conn, appointmentId);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            AppointmentScheduler.recordStatusChange(appointmentId, status);
+            MONTH_OCCUPANCY_CACHE.invalidateAll();
+            return true;
         } catch (SQLException e) { e.printStackTrace(); }
         return false;
     }
 
+    // Patient columns joined to their maintained summary row (patients without appointments have none).
+    // The patient list and its polls call refreshPassedNextAppointments() first, so next_appointment is current.
+    private static final String PATIENT_SELECT =
+        "SELECT u.id, u.first_name, u.last_name, " +
+        "TIMESTAMPDIFF(YEAR, u.date_of_birth, CURDATE()) AS age, " +
+        "IFNULL(u.phone_number,'') AS contact, " +
+        "s.last_visit, s.last_reason AS purpose, COALESCE(s.visit_count, 0) AS visit_count, " +
+        "s.next_appointment " +
+        "FROM users u LEFT JOIN patient_summary s ON s.patient_id = u.id ";
+
     /**
-     * Returns patients rows for staff view:
-     * id, name, age, contact, last_visit (datetime), purpose_of_visit (last reason)
+     * Sets the same status on many appointments in one transaction: the rows are locked,
+     * the status updates, notification outbox events and summary refreshes each go out as
+     * one JDBC batch, and everything commits together. Appointments already in that status
+     * are left alone and their patients aren't notified again.
+     * Approving takes the day locks first, like a booking, and leaves out every appointment
+     * whose hour would overlap an APPROVED one, including one approved earlier in the batch.
+     * Returns null if nothing was saved.
      */
-    public static Object[][] getAllPatientsForStaffView() {
-        String q =
-            "SELECT u.id, CONCAT(u.first_name,' ',u.last_name) AS name, " +
-            "IFNULL(TIMESTAMPDIFF(YEAR, u.date_of_birth, CURDATE()), '') AS age, " +
-            "IFNULL(u.phone_number,'') AS contact, " +
-            "(SELECT DATE_FORMAT(a.appointment_date,'%Y-%m-%d %H:%i') FROM appointments a WHERE a.patient_id = u.id ORDER BY a.appointment_date DESC LIMIT 1) AS last_visit, " +
-            "(SELECT a.reason FROM appointments a WHERE a.patient_id = u.id ORDER BY a.appointment_date DESC LIMIT 1) AS purpose " +
-            "FROM users u WHERE u.role = 'PATIENT' ORDER BY u.last_name, u.first_name";
-        List<Object[]> rows = new ArrayList<>();
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(q)) {
-            while (rs.next()) {
-                rows.add(new Object[]{
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getString("age"),
-                    rs.getString("contact"),
-                    rs.getString("last_visit"),
-                    rs.getString("purpose")
-                });
+    public static StatusUpdateResult updateAppointmentStatuses(Collection<Integer> appointmentIds, String status) {
+        if (appointmentIds.isEmpty()) return new StatusUpdateResult(0, Map.of());
+        boolean approving = "APPROVED".equalsIgnoreCase(status);
+        // Lock in id order so two staff bulk-updating overlapping selections can't deadlock
+        String select = "SELECT id, patient_id, appointment_date, status FROM appointments WHERE id IN (" +
+                        placeholders(appointmentIds.size()) + ") ORDER BY id FOR UPDATE";
+
+        List<Integer> changedIds = new ArrayList<>();
+        Map<Integer, LocalDateTime> conflicts = new LinkedHashMap<>();
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement lock = conn.prepareStatement(select);
+                 PreparedStatement update = conn.prepareStatement("UPDATE appointments SET status = ? WHERE id = ?");
+                 PreparedStatement notify = conn.prepareStatement(NotificationOutbox.ENQUEUE);
+                 PreparedStatement summary = conn.prepareStatement(String.format(PATIENT_SUMMARY_UPSERT, "WHERE p.id = ?"))) {
+                Set<LocalDate> lockedDays = approving ? lockAppointmentDays(conn, appointmentIds) : new HashSet<>();
+                int i = 1;
+                for (int id : appointmentIds) {
+                    lock.setInt(i++, id);
+                }
+                Set<Integer> patients = new HashSet<>();
+                // Approved earlier in this batch: the updates haven't run yet, so the conflict query can't see them
+                List<LocalDateTime> approvedHere = new ArrayList<>();
+                try (ResultSet rs = lock.executeQuery()) {
+                    while (rs.next()) {
+                        if (status.equalsIgnoreCase(rs.getString("status"))) continue;
+                        int id = rs.getInt("id");
+                        int patientId = rs.getInt("patient_id");
+                        LocalDateTime scheduledAt = toLocalDateTime(rs.getTimestamp("appointment_date"));
+
+                        if (approving) {
+                            // Moved to another day since the days were locked
+                            if (lockedDays.add(scheduledAt.toLocalDate())) {
+                                lockAppointmentDay(conn, scheduledAt.toLocalDate());
+                            }
+                            if (overlapsAny(scheduledAt, approvedHere) || hasApprovedConflict(conn, id, scheduledAt)) {
+                                conflicts.put(id, scheduledAt);
+                                continue;
+                            }
+                            approvedHere.add(scheduledAt);
+                        }
+
+                        update.setString(1, status);
+                        update.setInt(2, id);
+                        update.addBatch();
+                        NotificationOutbox.bindEvent(notify, NotificationOutbox.STATUS_CHANGED, patientId, id, status, scheduledAt);
+                        notify.addBatch();
+                        changedIds.add(id);
+                        patients.add(patientId);
+                    }
+                }
+                if (changedIds.isEmpty()) {
+                    conn.rollback();
+                    return new StatusUpdateResult(0, conflicts);
+                }
+                for (int patientId : patients) {
+                    summary.setInt(1, patientId);
+                    summary.addBatch();
+                }
+                update.executeBatch();
+                notify.executeBatch();
+                summary.executeBatch();
+                conn.commit();
+                NotificationOutbox.wake();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-        } catch (SQLException e) { e.printStackTrace(); }
-        return rows.toArray(new Object[0][]);
+        } catch (SQLException e) {
+            System.err.println("ERROR updateAppointmentStatuses: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+
+        for (int id : changedIds) {
+            AppointmentScheduler.recordStatusChange(id, status);
+        }
+        MONTH_OCCUPANCY_CACHE.invalidateAll();
+        return new StatusUpdateResult(changedIds.size(), conflicts);
     }
 
     /**
-     * Returns billing history rows:
-     * billing_id, patient_id, patient_name, contact, amount (as String), status (PAID/UNPAID)
+     * Takes the day lock (lockAppointmentDay) of every day the given appointments are on,
+     * in date order so two bulk approvals can't deadlock. Returns the locked days.
      */
-    public static Object[][] getBillingHistory() {
+    private static Set<LocalDate> lockAppointmentDays(Connection conn, Collection<Integer> appointmentIds) throws SQLException {
+        String q = "SELECT DISTINCT DATE(appointment_date) FROM appointments WHERE id IN (" +
+                   placeholders(appointmentIds.size()) + ")";
+        Set<LocalDate> days = new TreeSet<>();
+        try (PreparedStatement p = conn.prepareStatement(q)) {
+            int i = 1;
+            for (int id : appointmentIds) {
+                p.setInt(i++, id);
+            }
+            try (ResultSet rs = p.executeQuery()) {
+                while (rs.next()) {
+                    days.add(rs.getDate(1).toLocalDate());
+                }
+            }
+        }
+        for (LocalDate day : days) {
+            lockAppointmentDay(conn, day);
+        }
+        return days;
+    }
+
+    private static boolean overlapsAny(LocalDateTime at, List<LocalDateTime> others) {
+        for (LocalDateTime other : others) {
+            if (Math.abs(Duration.between(at, other).toMinutes()) < AppointmentScheduler.SLOT_MINUTES) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Returns patients for staff view with their most recent appointment (last visit + purpose)
+     */
+    public static List<Patient> listPatientsForStaffView() {
+        refreshPassedNextAppointments();
+        String q = PATIENT_SELECT + "WHERE u.role = 'PATIENT' ORDER BY u.last_name, u.first_name";
+        return queryList("listPatientsForStaffView", q, NO_PARAMETERS, PATIENT_MAPPER);
+    }
+
+    private static final RowMapper<Patient> PATIENT_MAPPER = rs -> new Patient(
+        rs.getInt("id"),
+        rs.getString("first_name"),
+        rs.getString("last_name"),
+        getNullableInt(rs, "age"),
+        rs.getString("contact"),
+        toLocalDateTime(rs.getTimestamp("last_visit")),
+        rs.getString("purpose"),
+        rs.getInt("visit_count"),
+        toLocalDateTime(rs.getTimestamp("next_appointment"))
+    );
+
+    /**
+     * Patients whose own row or appointment summary changed since the given time.
+     * Returns null on error.
+     */
+    public static ChangeSet<Patient> listPatientChanges(LocalDateTime since) {
+        // A passed next appointment is recomputed here, which bumps updated_at so this read picks it up
+        refreshPassedNextAppointments();
+        String q = PATIENT_SELECT +
+                   "WHERE u.role = 'PATIENT' AND (u.updated_at > ? " +
+                   "OR u.id IN (SELECT patient_id FROM patient_summary WHERE updated_at > ?))";
+        return queryChanges("listPatientChanges", "users", since, q, 2, PATIENT_MAPPER);
+    }
+
+    private static final int FULLTEXT_MIN_TOKEN = 3;
+    private static final int FULLTEXT_MAX_RESULTS = 50;
+
+    private static final String SEARCH_ENTRY_SELECT =
+        "SELECT id, first_name, last_name, email, phone_number, role FROM users ";
+
+    private static final RowMapper<PatientSearchIndex.Entry> SEARCH_ENTRY_MAPPER = rs -> new PatientSearchIndex.Entry(
+        rs.getInt("id"),
+        rs.getString("first_name"),
+        rs.getString("last_name"),
+        rs.getString("email"),
+        rs.getString("phone_number"),
+        rs.getString("role")
+    );
+
+    /**
+     * Every patient's searchable fields, for loading PatientSearchIndex. Returns null on error.
+     */
+    static List<PatientSearchIndex.Entry> listPatientSearchEntries() {
+        try {
+            return queryListOrThrow(SEARCH_ENTRY_SELECT + "WHERE role = 'PATIENT'", NO_PARAMETERS, SEARCH_ENTRY_MAPPER);
+        } catch (SQLException e) {
+            System.err.println("ERROR listPatientSearchEntries: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Users of any role changed since the given time, so the index can also drop
+     * accounts that stopped being patients. Returns null on error.
+     */
+    static ChangeSet<PatientSearchIndex.Entry> listPatientSearchChanges(LocalDateTime since) {
+        return queryChanges("listPatientSearchChanges", "users", since,
+                SEARCH_ENTRY_SELECT + "WHERE updated_at > ?", 1, SEARCH_ENTRY_MAPPER);
+    }
+
+    /**
+     * Patients matching a search-as-you-type query, best match first. Served from
+     * PatientSearchIndex; while the index is still loading, from the FULLTEXT index.
+     */
+    public static List<Patient> searchPatients(String query) {
+        List<Integer> ids = PatientSearchIndex.search(query);
+        return ids != null ? listPatientsByIds(ids) : searchPatientsFullText(query);
+    }
+
+    /**
+     * Patient rows for the given ids, in the order given, read with one primary key IN lookup.
+     */
+    public static List<Patient> listPatientsByIds(List<Integer> ids) {
+        if (ids.isEmpty()) return List.of();
+        String q = PATIENT_SELECT + "WHERE u.id IN (" + placeholders(ids.size()) + ")";
+        List<Patient> rows = queryList("listPatientsByIds", q, p -> {
+            for (int i = 0; i < ids.size(); i++) {
+                p.setInt(i + 1, ids.get(i));
+            }
+        }, PATIENT_MAPPER);
+        Map<Integer, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rank.put(ids.get(i), i);
+        }
+        rows.sort(Comparator.comparingInt(pt -> rank.get(pt.id())));
+        return rows;
+    }
+
+    /**
+     * Fallback search on ft_users_search (first_name, last_name, email) in boolean
+     * prefix mode, plus a phone prefix. Words shorter than InnoDB's default
+     * minimum token size (3) can't be in the FULLTEXT query; when no word is long
+     * enough, the name columns are matched by prefix instead.
+     */
+    static List<Patient> searchPatientsFullText(String query) {
+        List<String> words = PatientSearchIndex.queryWords(query);
+        if (words.isEmpty()) return List.of();
+        StringBuilder booleanQuery = new StringBuilder();
+        String digits = null;
+        for (String word : words) {
+            if (word.chars().allMatch(Character::isDigit)) {
+                digits = word;
+            } else {
+                // FULLTEXT splits emails at '@' and '.', so each part is its own term
+                for (String part : word.split("[^\\p{L}\\p{N}]+")) {
+                    if (part.length() >= FULLTEXT_MIN_TOKEN) booleanQuery.append(" +").append(part).append('*');
+                }
+            }
+        }
+        String prefix = words.get(0);
+        List<String> where = new ArrayList<>();
+        if (booleanQuery.length() > 0) {
+            where.add("MATCH(u.first_name, u.last_name, u.email) AGAINST (? IN BOOLEAN MODE)");
+        } else if (digits == null) {
+            where.add("(u.last_name LIKE ? OR u.first_name LIKE ?)");
+        }
+        if (digits != null) where.add("u.phone_number LIKE ?");
+        String q = PATIENT_SELECT + "WHERE u.role = 'PATIENT' AND (" + String.join(" OR ", where) + ") " +
+                   "ORDER BY u.last_name, u.first_name LIMIT " + FULLTEXT_MAX_RESULTS;
+        final String phone = digits;
+        return queryList("searchPatientsFullText", q, p -> {
+            int i = 1;
+            if (booleanQuery.length() > 0) {
+                p.setString(i++, booleanQuery.toString().trim());
+            } else if (phone == null) {
+                p.setString(i++, prefix + "%");
+                p.setString(i++, prefix + "%");
+            }
+            if (phone != null) p.setString(i, phone + "%");
+        }, PATIENT_MAPPER);
+    }
+
+    // Recomputes summary rows from appointments; each subquery is one idx_appointments_patient_date lookup.
+    // last_visit/last_reason are the latest appointment of any status, as the Patient Records view always showed;
+    // visit_count counts APPROVED appointments; next_appointment is the earliest active one from the time of the write,
+    // recomputed by refreshPassedNextAppointments() once that time has passed. updated_at is bumped on every refresh
+    // so a change that only moves next_appointment still reaches polling views.
+    private static final String PATIENT_SUMMARY_UPSERT =
+        "INSERT INTO patient_summary (patient_id, last_visit, last_reason, visit_count, next_appointment) " +
+        "SELECT p.id, " +
+        "(SELECT a.appointment_date FROM appointments a WHERE a.patient_id = p.id ORDER BY a.appointment_date DESC LIMIT 1), " +
+        "(SELECT a.reason FROM appointments a WHERE a.patient_id = p.id ORDER BY a.appointment_date DESC LIMIT 1), " +
+        "(SELECT COUNT(*) FROM appointments a WHERE a.patient_id = p.id AND a.status = 'APPROVED'), " +
+        "(SELECT MIN(a.appointment_date) FROM appointments a WHERE a.patient_id = p.id " +
+            "AND a.appointment_date >= NOW() AND a.status IN ('APPROVED', 'PENDING')) " +
+        "FROM users p %s " +
+        "ON DUPLICATE KEY UPDATE last_visit = VALUES(last_visit), last_reason = VALUES(last_reason), " +
+        "visit_count = VALUES(visit_count), next_appointment = VALUES(next_appointment), updated_at = CURRENT_TIMESTAMP";
+
+    /**
+     * Brings one patient's summary row up to date inside the caller's transaction.
+     * Every appointment insert, status change and delete calls this.
+     */
+    private static void refreshPatientSummary(Connection conn, int patientId) throws SQLException {
+        try (PreparedStatement p = conn.prepareStatement(String.format(PATIENT_SUMMARY_UPSERT, "WHERE p.id = ?"))) {
+            p.setInt(1, patientId);
+            p.executeUpdate();
+        }
+    }
+
+    /**
+     * Same as refreshPatientSummary, for the patient who owns the given appointment.
+     */
+    private static void refreshPatientSummaryForAppointment(Connection conn, int appointmentId) throws SQLException {
+        try (PreparedStatement p = conn.prepareStatement(String.format(PATIENT_SUMMARY_UPSERT,
+                "WHERE p.id = (SELECT patient_id FROM appointments WHERE id = ?)"))) {
+            p.setInt(1, appointmentId);
+            p.executeUpdate();
+        }
+    }
+
+    /**
+     * Recomputes the summary rows whose next appointment has passed, found through
+     * idx_patient_summary_next; usually there are none and this is one empty range read.
+     */
+    private static void refreshPassedNextAppointments() {
+        String stale = "SELECT patient_id FROM patient_summary WHERE next_appointment < NOW()";
+        try (Connection conn = getConnection()) {
+            List<Integer> patientIds = new ArrayList<>();
+            try (PreparedStatement p = conn.prepareStatement(stale);
+                 ResultSet rs = p.executeQuery()) {
+                while (rs.next()) {
+                    patientIds.add(rs.getInt(1));
+                }
+            }
+            if (patientIds.isEmpty()) return;
+            try (PreparedStatement p = conn.prepareStatement(String.format(PATIENT_SUMMARY_UPSERT, "WHERE p.id = ?"))) {
+                for (int patientId : patientIds) {
+                    p.setInt(1, patientId);
+                    p.addBatch();
+                }
+                p.executeBatch();
+            }
+        } catch (SQLException e) {
+            System.err.println("ERROR refreshPassedNextAppointments: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Recomputes every patient's summary row. Runs once as a schema migration;
+     * call rebuildPatientSummaries() to repair the table by hand.
+     */
+    static void rebuildPatientSummaries(Connection conn) throws SQLException {
+        try (PreparedStatement p = conn.prepareStatement(String.format(PATIENT_SUMMARY_UPSERT, "WHERE p.role = 'PATIENT'"))) {
+            p.executeUpdate();
+        }
+    }
+
+    public static void rebuildPatientSummaries() {
+        try (Connection conn = getConnection()) {
+            rebuildPatientSummaries(conn);
+        } catch (SQLException e) {
+            System.err.println("ERROR rebuildPatientSummaries: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Returns patients rows for staff view:
+     * id, name, age, contact, last_visit (datetime), purpose_of_visit (last reason)
+     */
+    public static Object[][] getAllPatientsForStaffView() {
+        List<Patient> patients = listPatientsForStaffView();
+        Object[][] rows = new Object[patients.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            Patient pt = patients.get(i);
+            rows[i] = new Object[]{pt.id(), pt.fullName(), pt.age() != null ? pt.age().toString() : "",
+                                   pt.contact(), pt.lastVisitText(), pt.lastPurpose()};
+        }
+        return rows;
+    }
+
+    /**
+     * Returns billing history, newest first. Amounts are in centavos.
+     */
+    public static List<BillingEntry> listBillingHistory() {
         String q = "SELECT b.id AS billing_id, b.patient_id, CONCAT(u.first_name,' ',u.last_name) AS name, " +
-                   "COALESCE(u.phone_number,'') AS contact, CONCAT('₱', FORMAT(b.amount,2)) AS amount, " +
-                   "UPPER(b.status) AS status " +
+                   "COALESCE(u.phone_number,'') AS contact, ROUND(b.amount * 100) AS amount_centavos, " +
+                   "UPPER(b.status) AS status, b.created_at " +
                    "FROM billing b " +
                    "JOIN users u ON b.patient_id = u.id " +
                    "ORDER BY b.created_at DESC";
-        List<Object[]> rows = new ArrayList<>();
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(q)) {
-            System.out.println("DEBUG: Executing getBillingHistory query...");
-            int count = 0;
-            while (rs.next()) {
-                count++;
-                Object[] row = new Object[]{
-                    rs.getInt("billing_id"),
-                    rs.getInt("patient_id"),
-                    rs.getString("name"),
-                    rs.getString("contact"),
-                    rs.getString("amount"),
-                    rs.getString("status")
-                };
-                System.out.println("DEBUG: Row " + count + " - " + row[2] + " (" + row[5] + ")");
-                rows.add(row);
-            }
-            System.out.println("DEBUG: getBillingHistory returned " + count + " rows");
-        } catch (SQLException e) {
-            System.err.println("ERROR in getBillingHistory: " + e.getMessage());
-            e.printStackTrace();
+        return queryList("listBillingHistory", q, NO_PARAMETERS, BILLING_MAPPER);
+    }
+
+    /**
+     * Streams the full billing history (newest first) one row at a time, for exports.
+     * @return number of rows delivered, or -1 on error
+     */
+    public static int streamBillingHistory(Consumer<BillingEntry> sink) {
+        String q = "SELECT b.id AS billing_id, b.patient_id, CONCAT(u.first_name,' ',u.last_name) AS name, " +
+                   "COALESCE(u.phone_number,'') AS contact, ROUND(b.amount * 100) AS amount_centavos, " +
+                   "UPPER(b.status) AS status, b.created_at " +
+                   "FROM billing b " +
+                   "JOIN users u ON b.patient_id = u.id " +
+                   "ORDER BY b.created_at DESC, b.id DESC";
+        return streamQuery("streamBillingHistory", q, NO_PARAMETERS, BILLING_MAPPER, sink);
+    }
+
+    /**
+     * Sorts and filters of the billing history. Keys: "date" (default), "status"
+     * (then date, served by idx_billing_status_created) and "id".
+     */
+    public static final TableQuery<BillingEntry> BILLING_TABLE = new TableQuery<BillingEntry>(
+            "SELECT b.id AS billing_id, b.patient_id, CONCAT(u.first_name,' ',u.last_name) AS name, " +
+            "COALESCE(u.phone_number,'') AS contact, ROUND(b.amount * 100) AS amount_centavos, " +
+            "UPPER(b.status) AS status, b.created_at " +
+            "FROM billing b " +
+            "JOIN users u ON b.patient_id = u.id", "b.id", BillingEntry::id)
+        .sort("date", "b.created_at", BillingEntry::createdAt)
+        .sort("status", "b.status", BillingEntry::status).then("b.created_at", BillingEntry::createdAt)
+        .sort("id", "b.id", BillingEntry::id)
+        .statusFilter("b.status", BillingEntry::status)
+        .dateFilter("b.created_at", BillingEntry::createdAt)
+        .textFilter(List.of("u.first_name", "u.last_name"), b -> withWords(b.patientName()));
+
+    /**
+     * One page of billing history, sorted and filtered as spec says, keyset-paginated
+     * on the sort columns and id. Pass the last entry of the previous page, or null for the first page.
+     */
+    public static List<BillingEntry> listBillingHistoryPage(QuerySpec spec, BillingEntry after, int limit) {
+        return queryList("listBillingHistoryPage", BILLING_TABLE.sql(spec, after != null),
+                p -> BILLING_TABLE.bind(p, spec, after, limit), BILLING_MAPPER);
+    }
+
+    /**
+     * Billing rows inserted, updated or deleted since the given time. Returns null on error.
+     */
+    public static ChangeSet<BillingEntry> listBillingChanges(LocalDateTime since) {
+        String q = "SELECT b.id AS billing_id, b.patient_id, CONCAT(u.first_name,' ',u.last_name) AS name, " +
+                   "COALESCE(u.phone_number,'') AS contact, ROUND(b.amount * 100) AS amount_centavos, " +
+                   "UPPER(b.status) AS status, b.created_at " +
+                   "FROM billing b " +
+                   "JOIN users u ON b.patient_id = u.id " +
+                   "WHERE b.updated_at > ?";
+        return queryChanges("listBillingChanges", "billing", since, q, 1, BILLING_MAPPER);
+    }
+
+    /**
+     * Returns billing history rows:
+     * billing_id, patient_id, patient_name, contact, amount (as String), status (PAID/UNPAID)
+     */
+    public static Object[][] getBillingHistory() {
+        List<BillingEntry> bills = listBillingHistory();
+        Object[][] rows = new Object[bills.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            BillingEntry b = bills.get(i);
+            rows[i] = new Object[]{b.id(), b.patientId(), b.patientName(), b.contact(), b.formattedAmount(), b.status()};
         }
-        return rows.toArray(new Object[0][]);
+        return rows;
     }
 
+    private static final RowMapper<BillingEntry> BILLING_MAPPER = rs -> new BillingEntry(
+        rs.getInt("billing_id"),
+        rs.getInt("patient_id"),
+        rs.getString("name"),
+        rs.getString("contact"),
+        rs.getLong("amount_centavos"),
+        rs.getString("status"),
+        toLocalDateTime(rs.getTimestamp("created_at"))
+    );
+
     /**
      * Update billing status PAID/UNPAID
      */
@@ -665,8 +1405,56 @@ public class DatabaseHelper {
             p.setString(2, designation);
             p.setString(3, areaOfFocus);
             p.setString(4, contactDetails);
-            return p.executeUpdate() > 0;
+            boolean added = p.executeUpdate() > 0;
+            invalidateStaffCaches();
+            return added;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Adds a staff member together with their STAFF login account and links the two,
+     * all in one transaction. Nothing is saved if any step fails (e.g. the email is taken).
+     */
+    public static boolean addStaffWithAccount(String name, String designation, String areaOfFocus,
+                                              String contactDetails, String email, String password) {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int userId;
+                try (PreparedStatement p = conn.prepareStatement(
+                        "INSERT INTO users (first_name, last_name, email, password, role) VALUES (?, ?, ?, ?, 'STAFF')",
+                        Statement.RETURN_GENERATED_KEYS)) {
+                    p.setString(1, name);
+                    p.setString(2, name);
+                    p.setString(3, email);
+                    p.setString(4, password);
+                    p.executeUpdate();
+                    try (ResultSet keys = p.getGeneratedKeys()) {
+                        if (!keys.next()) throw new SQLException("No id generated for new user");
+                        userId = keys.getInt(1);
+                    }
+                }
+                try (PreparedStatement p = conn.prepareStatement(
+                        "INSERT INTO staff (user_id, name, designation, area_of_focus, contact_details) VALUES (?, ?, ?, ?, ?)")) {
+                    p.setInt(1, userId);
+                    p.setString(2, name);
+                    p.setString(3, designation);
+                    p.setString(4, areaOfFocus);
+                    p.setString(5, contactDetails);
+                    p.executeUpdate();
+                }
+                conn.commit();
+                invalidateStaffCaches();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
+            System.err.println("ERROR addStaffWithAccount: " + e.getMessage());
             e.printStackTrace();
         }
         return false;
@@ -716,7 +1504,9 @@ public class DatabaseHelper {
              PreparedStatement p = conn.prepareStatement(q)) {
             p.setInt(1, userId);
             p.setInt(2, staffId);
-            return p.executeUpdate() > 0;
+            boolean linked = p.executeUpdate() > 0;
+            invalidateStaffCaches();
+            return linked;
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -724,31 +1514,24 @@ public class DatabaseHelper {
     }
 
     /**
-     * Gets all staff for admin view with their user account info
+     * Gets all staff for admin view, ordered by name (cached, read-only list)
+     */
+    public static List<StaffMember> listStaffForAdmin() {
+        String q = "SELECT id, name, designation, area_of_focus, contact_details, suspended FROM staff ORDER BY name";
+        return cachedStaffList("listStaffForAdmin", q);
+    }
+
+    /**
+     * Gets all staff for admin view: id, name, designation, contact, ACTIVE/SUSPENDED
      */
     public static Object[][] getAllStaffForAdmin() {
-        String q = "SELECT id, name, designation, contact_details, suspended FROM staff ORDER BY name";
-        List<Object[]> rows = new ArrayList<>();
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(q)) {
-            System.out.println("Executing query: " + q);
-            while (rs.next()) {
-                String status = rs.getBoolean("suspended") ? "SUSPENDED" : "ACTIVE";
-                rows.add(new Object[]{
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getString("designation"),
-                    rs.getString("contact_details"),
-                    status
-                });
-            }
-            System.out.println("Staff rows fetched: " + rows.size());
-        } catch (SQLException e) {
-            System.err.println("Error getting staff: " + e.getMessage());
-            e.printStackTrace();
+        List<StaffMember> staff = listStaffForAdmin();
+        Object[][] rows = new Object[staff.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            StaffMember m = staff.get(i);
+            rows[i] = new Object[]{m.id(), m.name(), m.designation(), m.contactDetails(), m.statusText()};
         }
-        return rows.toArray(new Object[0][]);
+        return rows;
     }
 
     /**
@@ -774,6 +1557,54 @@ public class DatabaseHelper {
         return rows.toArray(new Object[0][]);
     }
 
+    /**
+     * Sorts and filters of the user list. Keys: "created" (default; with a role
+     * filter served by idx_users_role_created), "name" (idx_users_name), "email", "id" and
+     * "role" (then name, idx_users_role_name). Names are NOT NULL, so the keyset cursor
+     * compares them as they are.
+     */
+    public static final TableQuery<UserAccount> USER_TABLE = new TableQuery<UserAccount>(
+            "SELECT id, first_name, last_name, email, role, created_at FROM users", "id", UserAccount::id)
+        .sort("created", "created_at", UserAccount::createdAt)
+        .sort("name", "last_name", UserAccount::lastName)
+            .then("first_name", UserAccount::firstName)
+        .sort("email", "email", UserAccount::email)
+        .sort("id", "id", UserAccount::id)
+        .sort("role", "role", UserAccount::role)
+            .then("last_name", UserAccount::lastName)
+            .then("first_name", UserAccount::firstName)
+        .roleFilter("role", UserAccount::role)
+        .dateFilter("created_at", UserAccount::createdAt)
+        .textFilter(List.of("first_name", "last_name", "email"),
+                u -> Arrays.asList(u.firstName(), u.lastName(), u.email()));
+
+    /**
+     * One page of user accounts, sorted and filtered as spec says, keyset-paginated
+     * on the sort columns and id. Pass the last account of the previous page, or null for the first page.
+     */
+    public static List<UserAccount> listUsersPage(QuerySpec spec, UserAccount after, int limit) {
+        return queryList("listUsersPage", USER_TABLE.sql(spec, after != null),
+                p -> USER_TABLE.bind(p, spec, after, limit), rs -> new UserAccount(
+            rs.getInt("id"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getString("email"),
+            rs.getString("role"),
+            toLocalDateTime(rs.getTimestamp("created_at"))
+        ));
+    }
+
+    private static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+
+    /** The words of a display name, plus any further fields, for prefix text filters. */
+    private static List<String> withWords(String name, String... fields) {
+        List<String> words = new ArrayList<>(Arrays.asList(fields));
+        if (name != null) words.addAll(Arrays.asList(name.trim().split("\\s+")));
+        return words;
+    }
+
     /**
      * Registers a new user (staff or patient)
      */
@@ -781,380 +1612,518 @@ public class DatabaseHelper {
         String q = "INSERT INTO users (first_name, last_name, email, password, role) VALUES (?, ?, ?, ?, ?)";
         try (Connection conn = getConnection();
              PreparedStatement p = conn.prepareStatement(q)) {
-            p.setString(1, firstName);
-            p.setString(2, lastName);
+            p.setString(1, nullToEmpty(firstName));
+            p.setString(2, nullToEmpty(lastName));
             p.setString(3, email);
             p.setString(4, password);
             p.setString(5, role);
-            return p.executeUpdate() > 0;
+            boolean inserted = p.executeUpdate() > 0;
+            PatientSearchIndex.markStale();
+            return inserted;
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return false;
     }
 
+    // Shared SELECT for the appointment history / calendar views
+    private static final String APPOINTMENT_DETAIL_SELECT =
+            "SELECT a.id, a.patient_id, CONCAT(u.first_name,' ',u.last_name) AS patient, a.reason, " +
+            "a.appointment_date, COALESCE(s.name,'Unassigned') AS staff, UPPER(a.status) AS status " +
+            "FROM appointments a " +
+            "LEFT JOIN users u ON a.patient_id = u.id " +
+            "LEFT JOIN staff s ON a.staff_id = s.id ";
+
+    private static final RowMapper<Appointment> APPOINTMENT_DETAIL_MAPPER = rs -> new Appointment(
+        rs.getInt("id"),
+        rs.getInt("patient_id"),
+        rs.getString("patient"),
+        rs.getString("reason"),
+        toLocalDateTime(rs.getTimestamp("appointment_date")),
+        rs.getString("staff"),
+        rs.getString("status")
+    );
+
+    /**
+     * Converts detailed appointments to rows: id, patient_name, reason, yyyy-MM-dd HH:mm, staff_name, status
+     */
+    private static Object[][] toDetailRows(List<Appointment> appts) {
+        Object[][] rows = new Object[appts.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            Appointment a = appts.get(i);
+            rows[i] = new Object[]{a.id(), a.patientName(), a.reason(), a.dateTimeText(), a.staffName(), a.status()};
+        }
+        return rows;
+    }
+
+    /**
+     * Returns appointment history for all dates (ordered by appointment_date ASC)
+     */
+    public static List<Appointment> listAppointmentHistory() {
+        return queryList("listAppointmentHistory",
+                APPOINTMENT_DETAIL_SELECT + "ORDER BY a.appointment_date ASC",
+                NO_PARAMETERS, APPOINTMENT_DETAIL_MAPPER);
+    }
+
     /**
      * Returns appointment history for all dates (ordered by appointment_date ASC):
      * id, patient_name, reason, appointment_date (YYYY-MM-DD HH:mm), staff_name, status
      */
     public static Object[][] getAppointmentHistory() {
-        String q = "SELECT a.id, CONCAT(u.first_name,' ',u.last_name) AS patient, a.reason, " +
-                   "DATE_FORMAT(a.appointment_date, '%Y-%m-%d %H:%i') AS scheduled, " +
-                   "COALESCE(s.name,'Unassigned') AS staff, UPPER(a.status) AS status " +
-                   "FROM appointments a " +
-                   "LEFT JOIN users u ON a.patient_id = u.id " +
-                   "LEFT JOIN staff s ON a.staff_id = s.id " +
-                   "ORDER BY a.appointment_date ASC";
-        List<Object[]> rows = new ArrayList<>();
-        try (Connection conn = getConnection();
-             Statement st = conn.createStatement();
-             ResultSet rs = st.executeQuery(q)) {
-            int count = 0;
-            while (rs.next()) {
-                count++;
-                rows.add(new Object[]{
-                    rs.getInt("id"),
-                    rs.getString("patient"),
-                    rs.getString("reason"),
-                    rs.getString("scheduled"),
-                    rs.getString("staff"),
-                    rs.getString("status")
-                });
-            }
-            System.out.println("DEBUG: DatabaseHelper.getAppointmentHistory -> SQL returned " + count + " rows");
-        } catch (SQLException e) {
-            System.err.println("ERROR getAppointmentHistory: " + e.getMessage());
-            e.printStackTrace();
+        return toDetailRows(listAppointmentHistory());
+    }
+
+    /**
+     * Streams the full appointment history (oldest first) one row at a time, for exports and reports.
+     * @return number of rows delivered, or -1 on error
+     */
+    public static int streamAppointmentHistory(Consumer<Appointment> sink) {
+        return streamQuery("streamAppointmentHistory",
+                APPOINTMENT_DETAIL_SELECT + "ORDER BY a.appointment_date ASC, a.id ASC",
+                NO_PARAMETERS, APPOINTMENT_DETAIL_MAPPER, sink);
+    }
+
+    /**
+     * One page of appointment history (oldest first), keyset-paginated on (appointment_date, id).
+     */
+    public static List<Appointment> listAppointmentHistoryPage(Appointment after, int limit) {
+        return queryList("listAppointmentHistoryPage",
+                APPOINTMENT_DETAIL_SELECT + ascendingKeysetClause(after, null) + "ORDER BY a.appointment_date ASC, a.id ASC LIMIT ?",
+                p -> bindAscendingKeyset(p, after, limit), APPOINTMENT_DETAIL_MAPPER);
+    }
+
+    /**
+     * WHERE clause for ascending (appointment_date, id) keyset pages, optionally with an extra condition.
+     */
+    private static String ascendingKeysetClause(Appointment after, String extraCondition) {
+        List<String> conditions = new ArrayList<>();
+        if (extraCondition != null) conditions.add(extraCondition);
+        if (after != null) conditions.add("(a.appointment_date > ? OR (a.appointment_date = ? AND a.id > ?))");
+        return conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ";
+    }
+
+    private static void bindAscendingKeyset(PreparedStatement p, Appointment after, int limit) throws SQLException {
+        int i = 1;
+        if (after != null) {
+            Timestamp ts = Timestamp.valueOf(after.scheduledAt());
+            p.setTimestamp(i++, ts);
+            p.setTimestamp(i++, ts);
+            p.setInt(i++, after.id());
         }
-        return rows.toArray(new Object[0][]);
+        p.setInt(i, limit);
+    }
+
+    /**
+     * Returns appointment history for a specific date
+     */
+    public static List<Appointment> listAppointmentHistory(LocalDate date) {
+        return queryList("listAppointmentHistoryForDate",
+                APPOINTMENT_DETAIL_SELECT + "WHERE a.appointment_date >= ? AND a.appointment_date < ? ORDER BY a.appointment_date ASC",
+                p -> bindDayRange(p, 1, date), APPOINTMENT_DETAIL_MAPPER);
     }
 
     /**
      * Returns appointment history for a specific date (yyyy-MM-dd)
      */
     public static Object[][] getAppointmentHistory(String yyyyMMdd) {
-        String q = "SELECT a.id, CONCAT(u.first_name,' ',u.last_name) AS patient, a.reason, " +
-                   "DATE_FORMAT(a.appointment_date, '%Y-%m-%d %H:%i') AS scheduled, " +
-                   "COALESCE(s.name,'Unassigned') AS staff, UPPER(a.status) AS status " +
-                   "FROM appointments a " +
-                   "LEFT JOIN users u ON a.patient_id = u.id " +
-                   "LEFT JOIN staff s ON a.staff_id = s.id " +
-                   "WHERE DATE(a.appointment_date) = ? " +
-                   "ORDER BY a.appointment_date ASC";
-        List<Object[]> rows = new ArrayList<>();
-        try (Connection conn = getConnection();
-             PreparedStatement p = conn.prepareStatement(q)) {
-            p.setString(1, yyyyMMdd);
-            ResultSet rs = p.executeQuery();
-            while (rs.next()) {
-                rows.add(new Object[]{
-                    rs.getInt("id"),
-                    rs.getString("patient"),
-                    rs.getString("reason"),
-                    rs.getString("scheduled"),
-                    rs.getString("staff"),
-                    rs.getString("status")
-                });
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return rows.toArray(new Object[0][]);
+        return toDetailRows(listAppointmentHistory(LocalDate.parse(yyyyMMdd)));
     }
 
     /**
-     * Auto-approves or disapproves appointment based on scheduling conflicts.
-     * 1-hour buffer: appointment at 9:30 blocks 9:30-10:30
+     * Auto-approve or disapprove an existing appointment based on the 1-hour conflict rule.
+     * Example: existing appointment at 9:30 blocks 9:30 to 10:30
      * So an appointment at 10:00 should be DISAPPROVED because 10:00 falls within 9:30-10:30
+     * The check, status update and notification are one transaction.
      */
     public static void autoApproveAppointment(int appointmentId) {
         try (Connection conn = getConnection()) {
-            // Get appointment details
-            String getApptQ = "SELECT a.id, a.patient_id, a.appointment_date, a.reason FROM appointments a WHERE a.id = ?";
-            PreparedStatement p1 = conn.prepareStatement(getApptQ);
-            p1.setInt(1, appointmentId);
-            ResultSet rs = p1.executeQuery();
-            
-            if (!rs.next()) {
-                System.out.println("DEBUG: Appointment " + appointmentId + " not found");
-                return;
-            }
-            
-            int patientId = rs.getInt("patient_id");
-            String appointmentDateTime = rs.getString("appointment_date");
-            String reason = rs.getString("reason");
-
-            System.out.println("\n" + "=".repeat(100));
-            System.out.println("DEBUG: ==== AUTO-APPROVE CONFLICT CHECK START ====");
-            System.out.println("DEBUG: New Appointment ID: " + appointmentId);
-            System.out.println("DEBUG: Patient ID: " + patientId);
-            System.out.println("DEBUG: New Appointment Date/Time: " + appointmentDateTime);
-            
-            // Extract date for debugging
-            String dateOnly = appointmentDateTime.substring(0, 10);
-            System.out.println("DEBUG: Date only: " + dateOnly);
-            
-            // Print ALL appointments for this date BEFORE checking conflicts
-            System.out.println("\nDEBUG: All appointments in database for date: " + dateOnly);
-            String checkAllQ = "SELECT id, patient_id, appointment_date, status FROM appointments WHERE DATE(appointment_date) = ? ORDER BY appointment_date ASC";
-            try (PreparedStatement pCheck = conn.prepareStatement(checkAllQ)) {
-                pCheck.setString(1, dateOnly);
-                try (ResultSet rsCheck = pCheck.executeQuery()) {
-                    int appointmentCount = 0;
-                    while (rsCheck.next()) {
-                        appointmentCount++;
-                        System.out.println("  [" + appointmentCount + "] ID: " + rsCheck.getInt("id") + 
-                                         " | Patient: " + rsCheck.getInt("patient_id") + 
-                                         " | Time: " + rsCheck.getString("appointment_date") + 
-                                         " | Status: " + rsCheck.getString("status"));
-                    }
-                    if (appointmentCount == 0) {
-                        System.out.println("  (No appointments found for this date)");
+            conn.setAutoCommit(false);
+            try {
+                int patientId;
+                LocalDateTime scheduledAt;
+                try (PreparedStatement p = conn.prepareStatement(
+                        "SELECT patient_id, appointment_date FROM appointments WHERE id = ?")) {
+                    p.setInt(1, appointmentId);
+                    try (ResultSet rs = p.executeQuery()) {
+                        if (!rs.next()) {
+                            conn.rollback();
+                            System.out.println("DEBUG: Appointment " + appointmentId + " not found");
+                            return;
+                        }
+                        patientId = rs.getInt("patient_id");
+                        scheduledAt = toLocalDateTime(rs.getTimestamp("appointment_date"));
                     }
                 }
+                lockAppointmentDay(conn, scheduledAt.toLocalDate());
+                BookingResult result = decideBooking(conn, appointmentId, patientId, scheduledAt);
+                conn.commit();
+                NotificationOutbox.wake();
+                AppointmentScheduler.recordStatusChange(appointmentId, result.status());
+                MONTH_OCCUPANCY_CACHE.invalidateAll();
+                System.out.println("DEBUG: Appointment " + appointmentId + " status set to: " + result.status());
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
+        } catch (SQLException e) {
+            System.err.println("ERROR autoApproveAppointment: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
 
-            // CORRECTED LOGIC:
-            // Check if the NEW appointment time falls WITHIN an existing APPROVED appointment's 1-hour block
-            // If existing appointment is at 9:30, it blocks 9:30 to 10:30
-            // So new appointment at 10:00 should conflict because 10:00 is >= 9:30 AND 10:00 < 10:30
-            
-            String conflictQ = "SELECT a.id, a.patient_id, a.appointment_date, a.status " +
-                              "FROM appointments a " +
-                              "WHERE a.status = 'APPROVED' " +
-                              "AND a.id != ? " +
-                              "AND DATE(a.appointment_date) = DATE(?) " +
-                              "AND ? >= a.appointment_date " +
-                              "AND ? < DATE_ADD(a.appointment_date, INTERVAL 1 HOUR)";
-            
-            PreparedStatement p2 = conn.prepareStatement(conflictQ);
-            p2.setInt(1, appointmentId);
-            p2.setString(2, appointmentDateTime);
-            p2.setString(3, appointmentDateTime);  // NEW appointment time >= EXISTING appointment time
-            p2.setString(4, appointmentDateTime);  // NEW appointment time < EXISTING appointment time + 1 hour
-            
-            System.out.println("\nDEBUG: Checking if NEW appointment at " + appointmentDateTime);
-            System.out.println("  falls within ANY APPROVED appointment's 1-hour block");
-            System.out.println("  Query: WHERE status='APPROVED' AND date matches");
-            System.out.println("         AND ? >= appointment_date (check if new time >= existing time)");
-            System.out.println("         AND ? < appointment_date + 1 hour (check if new time < existing time + 1hr)");
-            
-            ResultSet rsConflict = p2.executeQuery();
-            
-            boolean hasConflict = false;
-            int conflictCount = 0;
-            while (rsConflict.next()) {
-                conflictCount++;
-                System.out.println("\n⚠️  CONFLICT #" + conflictCount + " DETECTED:");
-                System.out.println("  Existing Appointment ID: " + rsConflict.getInt("id"));
-                System.out.println("  Existing Time: " + rsConflict.getString("appointment_date"));
-                System.out.println("  Existing blocks until: " + rsConflict.getString("appointment_date") + " + 1 hour");
-                System.out.println("  New appointment at " + appointmentDateTime + " falls within this block!");
-                hasConflict = true;
+    /**
+     * Books an appointment (no staff assigned) and approves or disapproves it in one transaction:
+     * insert, conflict check under a range lock, final status and the patient notification
+     * are committed together. Completes exceptionally with the SQLException if the booking failed.
+     */
+    public static CompletableFuture<BookingResult> bookAndApproveAppointment(int patientId, LocalDateTime scheduledAt, String reason) {
+        return DatabaseExecutor.supply(() -> {
+            try {
+                return bookAndApprove(patientId, scheduledAt, reason);
+            } catch (SQLException e) {
+                System.err.println("ERROR bookAndApproveAppointment: " + e.getMessage());
+                e.printStackTrace();
+                throw new CompletionException(e);
             }
-            System.out.println("\nDEBUG: Total conflicts found: " + conflictCount);
+        });
+    }
 
-            String newStatus = hasConflict ? "DISAPPROVED" : "APPROVED";
-            
-            // Update appointment status
-            String updateQ = "UPDATE appointments SET status = ? WHERE id = ?";
-            PreparedStatement p3 = conn.prepareStatement(updateQ);
-            p3.setString(1, newStatus);
-            p3.setInt(2, appointmentId);
-            p3.executeUpdate();
-            
-            System.out.println("\n✓ Appointment " + appointmentId + " status set to: " + newStatus);
-            System.out.println("DEBUG: ==== AUTO-APPROVE CONFLICT CHECK END ====");
-            System.out.println("=".repeat(100) + "\n");
-
-            // If disapproved, notify patient
-            if (hasConflict) {
-                Object[][] availableSlots = getAvailableSlots(appointmentDateTime);
-                String suggestedTimes = "";
-                if (availableSlots != null && availableSlots.length > 0) {
-                    for (int i = 0; i < Math.min(3, availableSlots.length); i++) {
-                        suggestedTimes += "\n  • " + availableSlots[i][0];
+    private static BookingResult bookAndApprove(int patientId, LocalDateTime scheduledAt, String reason) throws SQLException {
+        String insertQ = "INSERT INTO appointments (patient_id, appointment_date, reason, status, created_at) VALUES (?, ?, ?, 'PENDING', ?)";
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                lockAppointmentDay(conn, scheduledAt.toLocalDate());
+                int appointmentId;
+                try (PreparedStatement p = conn.prepareStatement(insertQ, Statement.RETURN_GENERATED_KEYS)) {
+                    p.setInt(1, patientId);
+                    p.setTimestamp(2, Timestamp.valueOf(scheduledAt));
+                    p.setString(3, reason);
+                    p.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+                    p.executeUpdate();
+                    try (ResultSet keys = p.getGeneratedKeys()) {
+                        if (!keys.next()) throw new SQLException("No id generated for new appointment");
+                        appointmentId = keys.getInt(1);
                     }
                 }
-                
-                String message = "Your appointment scheduled for " + appointmentDateTime + " could not be approved.\n" +
-                                "Reason: Time slot is occupied (1-hour appointment duration).\n" +
-                                "Suggested available times:" + suggestedTimes;
-                
-                insertPatientNotification(patientId, "Appointment Status", message);
-                System.out.println("DEBUG: Patient " + patientId + " notified of disapproval");
-            } else {
-                String message = "Your appointment for " + appointmentDateTime + " has been APPROVED.";
-                insertPatientNotification(patientId, "Appointment Approved", message);
-                System.out.println("DEBUG: Patient " + patientId + " notified of approval");
+                BookingResult result = decideBooking(conn, appointmentId, patientId, scheduledAt);
+                conn.commit();
+                NotificationOutbox.wake();
+                AppointmentScheduler.recordBooking(appointmentId, scheduledAt, result.status());
+                MONTH_OCCUPANCY_CACHE.invalidateAll();
+                return result;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
+        }
+    }
 
-        } catch (SQLException e) {
-            System.err.println("ERROR autoApproveAppointment: " + e.getMessage());
-            e.printStackTrace();
+    /**
+     * Takes the exclusive lock on the day's row in appointment_day_locks, creating it on first use.
+     * Every booking decision for a day holds this lock until commit, so two workstations
+     * booking the same hour are decided one after the other instead of both passing the check.
+     * Bookings on different days don't wait for each other.
+     */
+    private static void lockAppointmentDay(Connection conn, LocalDate day) throws SQLException {
+        // ON DUPLICATE KEY UPDATE takes the row's X lock directly; INSERT IGNORE + SELECT FOR UPDATE
+        // would take a shared lock first and deadlock two bookers upgrading at the same time
+        String q = "INSERT INTO appointment_day_locks (day) VALUES (?) " +
+                   "ON DUPLICATE KEY UPDATE last_booking_at = CURRENT_TIMESTAMP";
+        try (PreparedStatement p = conn.prepareStatement(q)) {
+            p.setDate(1, java.sql.Date.valueOf(day));
+            p.executeUpdate();
+        }
+    }
+
+    /**
+     * Sets an appointment's final status inside the caller's transaction.
+     * The caller must hold the day's lock (lockAppointmentDay).
+     */
+    private static BookingResult decideBooking(Connection conn, int appointmentId, int patientId,
+                                               LocalDateTime scheduledAt) throws SQLException {
+        boolean hasConflict = hasApprovedConflict(conn, appointmentId, scheduledAt);
+        String status = hasConflict ? "DISAPPROVED" : "APPROVED";
+        try (PreparedStatement p = conn.prepareStatement("UPDATE appointments SET status = ? WHERE id = ?")) {
+            p.setString(1, status);
+            p.setInt(2, appointmentId);
+            p.executeUpdate();
+        }
+
+        // The notification text (with suggested times for a conflict) is built by the outbox worker
+        NotificationOutbox.enqueue(conn, NotificationOutbox.BOOKING_DECIDED, patientId, appointmentId, status, scheduledAt);
+        refreshPatientSummary(conn, patientId);
+
+        String when = scheduledAt.format(Appointment.DATE_TIME_FORMAT);
+        String message = hasConflict
+            ? "Your appointment scheduled for " + when + " could not be approved.\n" +
+              "Reason: Time slot is occupied (1-hour appointment duration).\n" +
+              "Suggested available times will be sent to your notifications."
+            : "Your appointment for " + when + " has been APPROVED.";
+        return new BookingResult(appointmentId, scheduledAt, status, message);
+    }
+    /**
+     * Whether an APPROVED appointment other than appointmentId starts in
+     * (scheduledAt - 1 hour, scheduledAt + 1 hour) on the same day: its hour and the new
+     * one would overlap. The caller must hold the day's lock (lockAppointmentDay).
+     * The range is read FOR UPDATE so it sees the latest committed rows,
+     * not the transaction's snapshot.
+     */
+    private static boolean hasApprovedConflict(Connection conn, int appointmentId, LocalDateTime scheduledAt) throws SQLException {
+        String conflictQ = "SELECT id FROM appointments " +
+                           "WHERE status = 'APPROVED' AND id != ? " +
+                           "AND appointment_date >= ? AND appointment_date < ? " +
+                           "AND appointment_date > ? AND appointment_date < ? " +
+                           "FOR UPDATE";
+        try (PreparedStatement p = conn.prepareStatement(conflictQ)) {
+            p.setInt(1, appointmentId);
+            p.setTimestamp(2, Timestamp.valueOf(scheduledAt.toLocalDate().atStartOfDay()));
+            p.setTimestamp(3, Timestamp.valueOf(scheduledAt.toLocalDate().plusDays(1).atStartOfDay()));
+            p.setTimestamp(4, Timestamp.valueOf(scheduledAt.minusMinutes(AppointmentScheduler.SLOT_MINUTES)));
+            p.setTimestamp(5, Timestamp.valueOf(scheduledAt.plusMinutes(AppointmentScheduler.SLOT_MINUTES)));
+            try (ResultSet rs = p.executeQuery()) {
+                return rs.next();
+            }
         }
     }
 
     /**
-     * Gets available appointment slots (next 7 days, hourly, no conflicts, 1-hour buffer)
+     * Gets available appointment slots (next 7 days, hourly within business hours, 1-hour buffer)
      */
     public static Object[][] getAvailableSlots(String referenceDateTime) {
+        LocalDateTime dayStart = parseDateTime(referenceDateTime).toLocalDate().atStartOfDay();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = dayStart.isAfter(now) ? dayStart : now;
+
         List<Object[]> slots = new ArrayList<>();
-        try (Connection conn = getConnection()) {
-            // Get available slots: check if 1-hour window is free
-            String q = "WITH RECURSIVE hours AS (" +
-                       "SELECT DATE_ADD(DATE(?), INTERVAL 0 HOUR) as slot_time " +
-                       "UNION ALL " +
-                       "SELECT DATE_ADD(slot_time, INTERVAL 1 HOUR) FROM hours " +
-                       "WHERE DATE(slot_time) <= DATE_ADD(DATE(?), INTERVAL 6 DAY) " +
-                       "AND HOUR(slot_time) < 23" +
-                       ") " +
-                       "SELECT DATE_FORMAT(h.slot_time, '%Y-%m-%d %H:00') as slot " +
-                       "FROM hours h " +
-                       "WHERE h.slot_time > NOW() " +
-                       "AND NOT EXISTS (" +
-                       "  SELECT 1 FROM appointments a " +
-                       "  WHERE a.status = 'APPROVED' " +
-                       "  AND DATE(a.appointment_date) = DATE(h.slot_time) " +
-                       "  AND TIME(a.appointment_date) >= TIME(h.slot_time) " +
-                       "  AND TIME(a.appointment_date) < TIME(DATE_ADD(h.slot_time, INTERVAL 1 HOUR))" +
-                       ") " +
-                       "LIMIT 10";
-            PreparedStatement p = conn.prepareStatement(q);
-            p.setString(1, referenceDateTime);
-            p.setString(2, referenceDateTime);
-            ResultSet rs = p.executeQuery();
-            while (rs.next()) {
-                slots.add(new Object[]{ rs.getString("slot") });
-            }
-            System.out.println("DEBUG: Found " + slots.size() + " available slots");
-        } catch (SQLException e) {
-            System.err.println("ERROR getAvailableSlots: " + e.getMessage());
-            e.printStackTrace();
+        for (LocalDateTime slot : AppointmentScheduler.freeSlots(from, 7, 60, false, 10)) {
+            slots.add(new Object[]{ slot.format(Appointment.DATE_TIME_FORMAT) });
         }
+        System.out.println("DEBUG: Found " + slots.size() + " available slots");
         return slots.toArray(new Object[0][]);
     }
-
     /**
      * Inserts a notification for a patient
      */
     public static void insertPatientNotification(int patientId, String title, String message) {
-        String q = "INSERT INTO notifications (patient_id, title, message, created_at) VALUES (?, ?, ?, NOW())";
-        try (Connection conn = getConnection();
-             PreparedStatement p = conn.prepareStatement(q)) {
-            p.setInt(1, patientId);
-            p.setString(2, title);
-            p.setString(3, message);
-            p.executeUpdate();
-            System.out.println("DEBUG: Notification sent to patient " + patientId);
+        try (Connection conn = getConnection()) {
+            insertPatientNotification(conn, patientId, title, message);
+            notificationsChanged(patientId);
         } catch (SQLException e) {
             System.err.println("ERROR insertPatientNotification: " + e.getMessage());
         }
     }
 
+    static final String NOTIFICATION_INSERT =
+        "INSERT INTO notifications (patient_id, title, message, created_at) VALUES (?, ?, ?, NOW())";
+
+    private static void insertPatientNotification(Connection conn, int patientId, String title, String message) throws SQLException {
+        try (PreparedStatement p = conn.prepareStatement(NOTIFICATION_INSERT)) {
+            bindPatientNotification(p, patientId, title, message);
+            p.executeUpdate();
+            System.out.println("DEBUG: Notification sent to patient " + patientId);
+        }
+    }
+
     /**
-     * Returns APPROVED appointments organized by date
-     * Result: id, patient_name, reason, appointment_date (YYYY-MM-DD HH:mm), staff_name, status
+     * Binds one notification to a statement prepared from NOTIFICATION_INSERT,
+     * for a single insert or as one entry of a batch.
      */
-    public static Object[][] getApprovedAppointmentsByDate(String dateYYYYMMDD) {
-        String q = "SELECT a.id, CONCAT(u.first_name,' ',u.last_name) AS patient, a.reason, " +
-                   "DATE_FORMAT(a.appointment_date, '%Y-%m-%d %H:%i') AS scheduled, " +
-                   "COALESCE(s.name,'Unassigned') AS staff, UPPER(a.status) AS status " +
-                   "FROM appointments a " +
-                   "LEFT JOIN users u ON a.patient_id = u.id " +
-                   "LEFT JOIN staff s ON a.staff_id = s.id " +
-                   "WHERE DATE(a.appointment_date) = ? AND a.status = 'APPROVED' " +
-                   "ORDER BY a.appointment_date ASC";
-        List<Object[]> rows = new ArrayList<>();
-        try (Connection conn = getConnection();
-             PreparedStatement p = conn.prepareStatement(q)) {
-            p.setString(1, dateYYYYMMDD);
-            ResultSet rs = p.executeQuery();
-            while (rs.next()) {
-                rows.add(new Object[]{
-                    rs.getInt("id"),
-                    rs.getString("patient"),
-                    rs.getString("reason"),
-                    rs.getString("scheduled"),
-                    rs.getString("staff"),
-                    rs.getString("status")
-                });
+    static void bindPatientNotification(PreparedStatement p, int patientId, String title, String message) throws SQLException {
+        p.setInt(1, patientId);
+        p.setString(2, title);
+        p.setString(3, message);
+    }
+
+    private static final RowMapper<Notification> NOTIFICATION_MAPPER = rs -> new Notification(
+        rs.getInt("id"),
+        rs.getInt("patient_id"),
+        rs.getString("title"),
+        rs.getString("message"),
+        toLocalDateTime(rs.getTimestamp("created_at")),
+        toLocalDateTime(rs.getTimestamp("read_at"))
+    );
+
+    /**
+     * Returns a patient's notifications newest first, keyset-paged after the given one
+     * (null for the first page). Served by idx_notifications_patient_created.
+     */
+    public static List<Notification> listNotificationsPage(int patientId, Notification after, int limit) {
+        String q = "SELECT id, patient_id, title, message, created_at, read_at FROM notifications " +
+                   "WHERE patient_id = ? " +
+                   (after != null ? "AND (created_at < ? OR (created_at = ? AND id < ?)) " : "") +
+                   "ORDER BY created_at DESC, id DESC LIMIT ?";
+        return queryList("listNotificationsPage", q, p -> {
+            int i = 1;
+            p.setInt(i++, patientId);
+            if (after != null) {
+                Timestamp ts = Timestamp.valueOf(after.createdAt());
+                p.setTimestamp(i++, ts);
+                p.setTimestamp(i++, ts);
+                p.setInt(i++, after.id());
             }
+            p.setInt(i, limit);
+        }, NOTIFICATION_MAPPER);
+    }
+
+    /**
+     * Number of unread notifications for the patient (cached; this workstation's
+     * deliveries and read marks update it at once, NotificationBus picks up the rest).
+     * Returns 0 on error.
+     */
+    public static int getUnreadNotificationCount(int patientId) {
+        try {
+            Integer count = UNREAD_NOTIFICATIONS_CACHE.get(patientId, id -> {
+                try (Connection conn = getConnection();
+                     PreparedStatement p = conn.prepareStatement(
+                         "SELECT COUNT(*) FROM notifications WHERE patient_id = ? AND read_at IS NULL")) {
+                    p.setInt(1, id);
+                    try (ResultSet rs = p.executeQuery()) {
+                        return rs.next() ? rs.getInt(1) : 0;
+                    }
+                }
+            });
+            return count != null ? count : 0;
         } catch (SQLException e) {
-            System.err.println("ERROR getApprovedAppointmentsByDate: " + e.getMessage());
+            System.err.println("ERROR getUnreadNotificationCount: " + e.getMessage());
             e.printStackTrace();
+            return 0;
         }
-        return rows.toArray(new Object[0][]);
     }
 
     /**
-     * Gets all APPROVED and PENDING appointments for conflict checking (returns id, reason, date, time, status)
-     * Used by PatientDashboard to check for system-wide appointment conflicts
-     * Checks both APPROVED (confirmed) and PENDING (being processed) appointments to prevent double-booking
-     * @param dateYYYYMMDD the date to query in format "yyyy-MM-dd"
-     * @return Array of appointments with separated date and time columns
+     * Marks one of the patient's notifications read.
      */
-    public static Object[][] getApprovedAppointmentsByDateForConflictCheck(String dateYYYYMMDD) {
-        String q = "SELECT a.id, a.reason, " +
-                   "DATE(a.appointment_date) AS appointment_date, " +
-                   "TIME_FORMAT(a.appointment_date, '%H:%i') AS appointment_time, " +
-                   "UPPER(a.status) AS status " +
-                   "FROM appointments a " +
-                   "WHERE DATE(a.appointment_date) = ? AND (a.status = 'APPROVED' OR a.status = 'PENDING') " +
-                   "ORDER BY a.appointment_date ASC";
-        List<Object[]> rows = new ArrayList<>();
+    public static boolean markNotificationRead(int patientId, int notificationId) {
+        return markNotificationsRead("markNotificationRead",
+                "UPDATE notifications SET read_at = NOW() WHERE patient_id = ? AND id = ? AND read_at IS NULL",
+                patientId, notificationId);
+    }
+
+    /**
+     * Marks all of the patient's notifications read.
+     */
+    public static boolean markAllNotificationsRead(int patientId) {
+        return markNotificationsRead("markAllNotificationsRead",
+                "UPDATE notifications SET read_at = NOW() WHERE patient_id = ? AND read_at IS NULL",
+                patientId, -1);
+    }
+
+    private static boolean markNotificationsRead(String operation, String q, int patientId, int notificationId) {
         try (Connection conn = getConnection();
              PreparedStatement p = conn.prepareStatement(q)) {
-            p.setString(1, dateYYYYMMDD);
-            ResultSet rs = p.executeQuery();
-            while (rs.next()) {
-                rows.add(new Object[]{
-                    rs.getInt("id"),                  // 0: ID
-                    rs.getString("reason"),           // 1: Reason
-                    rs.getString("appointment_date"), // 2: Date (e.g., 2025-12-21)
-                    rs.getString("appointment_time"), // 3: Time (e.g., 10:00)
-                    rs.getString("status")            // 4: Status
-                });
+            p.setInt(1, patientId);
+            if (notificationId >= 0) {
+                p.setInt(2, notificationId);
             }
+            if (p.executeUpdate() > 0) {
+                notificationsChanged(patientId);
+            }
+            return true;
         } catch (SQLException e) {
-            System.err.println("ERROR getApprovedAppointmentsByDateForConflictCheck: " + e.getMessage());
+            System.err.println("ERROR " + operation + ": " + e.getMessage());
             e.printStackTrace();
         }
-        return rows.toArray(new Object[0][]);
+        return false;
     }
 
     /**
-     * Returns all APPROVED appointments
+     * Drops the patient's cached unread count and tells NotificationBus listeners.
+     * Call after committing new or changed notifications.
      */
-    public static Object[][] getAllApprovedAppointments() {
-        String q = "SELECT a.id, CONCAT(u.first_name,' ',u.last_name) AS patient, a.reason, " +
-                   "DATE_FORMAT(a.appointment_date, '%Y-%m-%d %H:%i') AS scheduled, " +
-                   "COALESCE(s.name,'Unassigned') AS staff, UPPER(a.status) AS status " +
-                   "FROM appointments a " +
-                   "LEFT JOIN users u ON a.patient_id = u.id " +
-                   "LEFT JOIN staff s ON a.staff_id = s.id " +
-                   "WHERE a.status = 'APPROVED' " +
-                   "ORDER BY a.appointment_date ASC";
-        List<Object[]> rows = new ArrayList<>();
+    static void notificationsChanged(int patientId) {
+        UNREAD_NOTIFICATIONS_CACHE.invalidate(patientId);
+        NotificationBus.publish(patientId);
+    }
+
+    /**
+     * Returns APPROVED appointments for one date, earliest first
+     */
+    public static List<Appointment> listApprovedAppointmentsByDate(LocalDate date) {
+        return queryList("listApprovedAppointmentsByDate",
+                APPOINTMENT_DETAIL_SELECT + "WHERE a.status = 'APPROVED' AND a.appointment_date >= ? AND a.appointment_date < ? ORDER BY a.appointment_date ASC",
+                p -> bindDayRange(p, 1, date), APPOINTMENT_DETAIL_MAPPER);
+    }
+
+    /**
+     * Returns the bookings on the calendar grid of one month (see MonthOccupancy),
+     * loaded with one range query and cached per month. On error returns an empty
+     * occupancy, which is not cached.
+     */
+    public static MonthOccupancy getMonthOccupancy(YearMonth month) {
+        try {
+            return MONTH_OCCUPANCY_CACHE.get(month, m -> MonthOccupancy.of(m, queryListOrThrow(
+                    APPOINTMENT_DETAIL_SELECT + "WHERE a.status IN ('APPROVED', 'PENDING') " +
+                    "AND a.appointment_date >= ? AND a.appointment_date < ? ORDER BY a.appointment_date ASC",
+                    p -> {
+                        p.setTimestamp(1, Timestamp.valueOf(MonthOccupancy.gridStart(m).atStartOfDay()));
+                        p.setTimestamp(2, Timestamp.valueOf(MonthOccupancy.gridEnd(m).atStartOfDay()));
+                    }, APPOINTMENT_DETAIL_MAPPER)));
+        } catch (SQLException e) {
+            System.err.println("ERROR getMonthOccupancy: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return MonthOccupancy.empty(month);
+    }
+
+    /**
+     * Returns APPROVED appointments organized by date
+     * Result: id, patient_name, reason, appointment_date (YYYY-MM-DD HH:mm), staff_name, status
+     */
+    public static Object[][] getApprovedAppointmentsByDate(String dateYYYYMMDD) {
+        return toDetailRows(listApprovedAppointmentsByDate(LocalDate.parse(dateYYYYMMDD)));
+    }
+
+    /**
+     * Loads APPROVED and PENDING bookings in [from, toExclusive) for the AppointmentScheduler.
+     * Only id, appointment_date and status are filled in.
+     * @return the bookings, or null if the query failed (so the caller doesn't cache an empty day)
+     */
+    static List<Appointment> listActiveBookings(LocalDate from, LocalDate toExclusive) {
+        String q = "SELECT id, appointment_date, UPPER(status) AS status FROM appointments " +
+                   "WHERE status IN ('APPROVED', 'PENDING') AND appointment_date >= ? AND appointment_date < ?";
+        List<Appointment> rows = new ArrayList<>();
         try (Connection conn = getConnection();
-             Statement st = conn.createStatement();
-             ResultSet rs = st.executeQuery(q)) {
-            while (rs.next()) {
-                rows.add(new Object[]{
-                    rs.getInt("id"),
-                    rs.getString("patient"),
-                    rs.getString("reason"),
-                    rs.getString("scheduled"),
-                    rs.getString("staff"),
-                    rs.getString("status")
-                });
+             PreparedStatement p = conn.prepareStatement(q)) {
+            p.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+            p.setTimestamp(2, Timestamp.valueOf(toExclusive.atStartOfDay()));
+            try (ResultSet rs = p.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new Appointment(rs.getInt("id"), 0, null, null,
+                            toLocalDateTime(rs.getTimestamp("appointment_date")), null, rs.getString("status")));
+                }
             }
-            System.out.println("DEBUG: getAllApprovedAppointments returned " + rows.size() + " rows");
+            return rows;
         } catch (SQLException e) {
-            System.err.println("ERROR getAllApprovedAppointments: " + e.getMessage());
+            System.err.println("ERROR listActiveBookings: " + e.getMessage());
             e.printStackTrace();
+            return null;
         }
-        return rows.toArray(new Object[0][]);
+    }
+    /**
+     * Returns all APPROVED appointments, earliest first
+     */
+    public static List<Appointment> listAllApprovedAppointments() {
+        return queryList("listAllApprovedAppointments",
+                APPOINTMENT_DETAIL_SELECT + "WHERE a.status = 'APPROVED' ORDER BY a.appointment_date ASC",
+                NO_PARAMETERS, APPOINTMENT_DETAIL_MAPPER);
+    }
+
+    /**
+     * Returns all APPROVED appointments
+     */
+    public static Object[][] getAllApprovedAppointments() {
+        return toDetailRows(listAllApprovedAppointments());
+    }
+
+    /**
+     * One page of APPROVED appointments (earliest first), keyset-paginated on (appointment_date, id).
+     */
+    public static List<Appointment> listAllApprovedAppointmentsPage(Appointment after, int limit) {
+        return queryList("listAllApprovedAppointmentsPage",
+                APPOINTMENT_DETAIL_SELECT + ascendingKeysetClause(after, "a.status = 'APPROVED'")
+                        + "ORDER BY a.appointment_date ASC, a.id ASC LIMIT ?",
+                p -> bindAscendingKeyset(p, after, limit), APPOINTMENT_DETAIL_MAPPER);
     }
 
     /**
@@ -1176,17 +2145,50 @@ public class DatabaseHelper {
     }
 
     /**
-     * Deletes an appointment from the database
+     * Deletes an appointment from the database, with its undelivered outbox events
+     * (delivered ones are already gone), so no notification goes out for it afterwards
      */
     public static boolean deleteAppointment(int appointmentId) {
+        String owner = "SELECT patient_id FROM appointments WHERE id = ? FOR UPDATE";
+        String tombstone = "INSERT INTO row_tombstones (table_name, row_id, parent_id) VALUES ('appointments', ?, ?)";
+        String pending = "DELETE FROM notification_outbox WHERE appointment_id = ?";
         String q = "DELETE FROM appointments WHERE id = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement p = conn.prepareStatement(q)) {
-            p.setInt(1, appointmentId);
-            int rowsAffected = p.executeUpdate();
-            if (rowsAffected > 0) {
+        String prune = "DELETE FROM row_tombstones WHERE table_name = 'appointments' AND deleted_at < NOW() - INTERVAL " + TOMBSTONE_RETENTION_DAYS + " DAY";
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement o = conn.prepareStatement(owner);
+                 PreparedStatement t = conn.prepareStatement(tombstone);
+                 PreparedStatement n = conn.prepareStatement(pending);
+                 PreparedStatement p = conn.prepareStatement(q);
+                 PreparedStatement old = conn.prepareStatement(prune)) {
+                int patientId;
+                o.setInt(1, appointmentId);
+                try (ResultSet rs = o.executeQuery()) {
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return false;
+                    }
+                    patientId = rs.getInt(1);
+                }
+                t.setInt(1, appointmentId);
+                t.setInt(2, patientId);
+                t.executeUpdate();
+                n.setInt(1, appointmentId);
+                n.executeUpdate();
+                p.setInt(1, appointmentId);
+                p.executeUpdate();
+                refreshPatientSummary(conn, patientId);
+                old.executeUpdate();
+                conn.commit();
+                AppointmentScheduler.recordRemoval(appointmentId);
+                MONTH_OCCUPANCY_CACHE.invalidateAll();
                 System.out.println("DEBUG: Appointment " + appointmentId + " deleted successfully");
                 return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         } catch (SQLException e) {
             System.err.println("ERROR deleteAppointment: " + e.getMessage());
@@ -1199,10 +2201,10 @@ public class DatabaseHelper {
      * Debug: Print all APPROVED appointments for a specific date
      */
     public static void debugPrintAppointmentsForDate(String dateYYYYMMDD) {
-        String q = "SELECT id, appointment_date, status FROM appointments WHERE DATE(appointment_date) = ? ORDER BY appointment_date ASC";
+        String q = "SELECT id, appointment_date, status FROM appointments WHERE appointment_date >= ? AND appointment_date < ? ORDER BY appointment_date ASC";
         try (Connection conn = getConnection();
              PreparedStatement p = conn.prepareStatement(q)) {
-            p.setString(1, dateYYYYMMDD);
+            bindDayRange(p, 1, LocalDate.parse(dateYYYYMMDD));
             ResultSet rs = p.executeQuery();
             System.out.println("\n==== APPOINTMENTS FOR DATE: " + dateYYYYMMDD + " ====");
             while (rs.next()) {
@@ -1218,10 +2220,10 @@ public class DatabaseHelper {
      * Debug: Print ALL appointments for a specific date (regardless of status)
      */
     public static void debugPrintAllAppointmentsForDate(String dateYYYYMMDD) {
-        String q = "SELECT id, patient_id, appointment_date, status FROM appointments WHERE DATE(appointment_date) = ? ORDER BY appointment_date ASC";
+        String q = "SELECT id, patient_id, appointment_date, status FROM appointments WHERE appointment_date >= ? AND appointment_date < ? ORDER BY appointment_date ASC";
         try (Connection conn = getConnection();
              PreparedStatement p = conn.prepareStatement(q)) {
-            p.setString(1, dateYYYYMMDD);
+            bindDayRange(p, 1, LocalDate.parse(dateYYYYMMDD));
             ResultSet rs = p.executeQuery();
             System.out.println("\n" + "=".repeat(80));
             System.out.println("DEBUG: ALL APPOINTMENTS FOR DATE: " + dateYYYYMMDD);
@@ -1250,6 +2252,7 @@ public class DatabaseHelper {
              PreparedStatement stmt = conn.prepareStatement("UPDATE staff SET suspended = true WHERE id = ?")) {
             stmt.setInt(1, staffId);
             int rowsUpdated = stmt.executeUpdate();
+            invalidateStaffCaches();
             return rowsUpdated > 0;
         } catch (Exception e) {
             System.err.println("Error suspending staff: " + e.getMessage());
@@ -1259,69 +2262,75 @@ public class DatabaseHelper {
     }
 
     /**
-     * Check if staff is suspended by user ID
+     * Check if staff is suspended by user ID (cached; suspendStaff on this workstation
+     * takes effect immediately, elsewhere within hc.cache.ttlMs)
      */
     public static boolean isStaffSuspended(int userId) {
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                 "SELECT suspended FROM staff WHERE user_id = ?")) {
-            stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getBoolean("suspended");
-            }
-            return false;
+        try {
+            Boolean suspended = STAFF_SUSPENSION_CACHE.get(userId, id -> {
+                try (Connection conn = getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(
+                         "SELECT suspended FROM staff WHERE user_id = ?")) {
+                    stmt.setInt(1, id);
+                    ResultSet rs = stmt.executeQuery();
+                    return rs.next() && rs.getBoolean("suspended");
+                }
+            });
+            return Boolean.TRUE.equals(suspended);
         } catch (Exception e) {
             System.err.println("Error checking staff suspension: " + e.getMessage());
             e.printStackTrace();
             return false;
         }
     }
-
     /**
-     * Initialize staff-user links for existing staff with user accounts (STAFF role)
+     * Initialize staff-user links for existing staff with user accounts (STAFF role).
+     * Runs once as a schema migration; call this to re-run the backfill by hand.
      */
     public static void initializeStaffUserLinks() {
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement()) {
-            
-            // Check if user_id column exists in staff table
-            try {
-                stmt.executeQuery("SELECT user_id FROM staff LIMIT 1");
-            } catch (SQLException e) {
-                // Column doesn't exist, skip linking
-                System.out.println("user_id column not yet available in staff table");
-                return;
+        try (Connection conn = getConnection()) {
+            linkStaffToUsers(conn);
+        } catch (SQLException e) {
+            System.err.println("Error initializing staff-user links: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Links staff rows without a user_id to a STAFF user whose name matches.
+     */
+    static void linkStaffToUsers(Connection conn) throws SQLException {
+        List<Object[]> unlinked = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM staff WHERE user_id IS NULL")) {
+            while (rs.next()) {
+                unlinked.add(new Object[]{rs.getInt("id"), rs.getString("name")});
             }
-            
-            // For staff without user_id, try to match by name or assign based on STAFF users
-            ResultSet unlinkedStaff = stmt.executeQuery("SELECT id, name FROM staff WHERE user_id IS NULL");
-            
-            while (unlinkedStaff.next()) {
-                int staffId = unlinkedStaff.getInt("id");
-                String staffName = unlinkedStaff.getString("name");
-                
+        }
+        if (unlinked.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement find = conn.prepareStatement(
+                 "SELECT id FROM users WHERE role = 'STAFF' AND (first_name LIKE ? OR CONCAT(first_name, ' ', last_name) LIKE ?)");
+             PreparedStatement updateStaff = conn.prepareStatement("UPDATE staff SET user_id = ? WHERE id = ?")) {
+            for (Object[] staff : unlinked) {
+                int staffId = (Integer) staff[0];
+                String staffName = (String) staff[1];
+
                 // Try to find a matching STAFF user by name
-                PreparedStatement p = conn.prepareStatement(
-                    "SELECT id FROM users WHERE role = 'STAFF' AND (first_name LIKE ? OR CONCAT(first_name, ' ', last_name) LIKE ?)");
-                p.setString(1, "%" + staffName + "%");
-                p.setString(2, "%" + staffName + "%");
-                ResultSet matchingUser = p.executeQuery();
-                
-                if (matchingUser.next()) {
-                    int userId = matchingUser.getInt("id");
-                    PreparedStatement updateStaff = conn.prepareStatement("UPDATE staff SET user_id = ? WHERE id = ?");
-                    updateStaff.setInt(1, userId);
-                    updateStaff.setInt(2, staffId);
-                    updateStaff.executeUpdate();
-                    System.out.println("Linked staff " + staffId + " to user " + userId);
+                find.setString(1, "%" + staffName + "%");
+                find.setString(2, "%" + staffName + "%");
+                try (ResultSet matchingUser = find.executeQuery()) {
+                    if (matchingUser.next()) {
+                        int userId = matchingUser.getInt("id");
+                        updateStaff.setInt(1, userId);
+                        updateStaff.setInt(2, staffId);
+                        updateStaff.executeUpdate();
+                        System.out.println("Linked staff " + staffId + " to user " + userId);
+                    }
                 }
-                p.close();
             }
-            unlinkedStaff.close();
-            System.out.println("Staff-user links initialized");
-        } catch (SQLException e) {
-            System.err.println("Error initializing staff-user links: " + e.getMessage());
         }
-    }
-}
\ No newline at end of file
+        invalidateStaffCaches();
+        System.out.println("Staff-user links initialized");
+    }}
\ No newline at end of file
@@ -0,0 +1,70 @@
+import javax.swing.SwingUtilities;
+
+/**
+ * Logs when the Swing event dispatch thread is blocked for longer than
+ * hc.edt.stallMs (default 500 ms), together with the EDT's stack at that
+ * moment, so a database call that slipped back onto the EDT is easy to find.
+ * A daemon thread posts a heartbeat to the EDT every CHECK_INTERVAL_MS and
+ * checks how long the last one has been waiting. Each stall is logged once.
+ */
+public final class EdtWatchdog {
+
+    private static final long STALL_THRESHOLD_MS = Long.getLong("hc.edt.stallMs", 500L);
+    private static final long CHECK_INTERVAL_MS = 100L;
+
+    private static Thread watcher;
+    private static volatile Thread edt;
+    // Time the pending heartbeat was posted, 0 when the EDT has picked it up
+    private static volatile long heartbeatPostedAt = 0;
+
+    private EdtWatchdog() {
+    }
+
+    /**
+     * Starts the watchdog. Calling it again is a no-op; -Dhc.edt.stallMs=0 disables it.
+     */
+    public static synchronized void install() {
+        if (watcher != null || STALL_THRESHOLD_MS <= 0) return;
+        watcher = new Thread(EdtWatchdog::watch, "edt-watchdog");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private static void watch() {
+        boolean reported = false;
+        while (true) {
+            try {
+                Thread.sleep(CHECK_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            long postedAt = heartbeatPostedAt;
+            if (postedAt == 0) {
+                reported = false;
+                heartbeatPostedAt = System.currentTimeMillis();
+                SwingUtilities.invokeLater(() -> {
+                    edt = Thread.currentThread();
+                    heartbeatPostedAt = 0;
+                });
+                continue;
+            }
+
+            long blockedMs = System.currentTimeMillis() - postedAt;
+            if (!reported && blockedMs > STALL_THRESHOLD_MS && edt != null) {
+                reported = true;
+                report(blockedMs);
+            }
+        }
+    }
+
+    private static void report(long blockedMs) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("WARNING: EDT blocked for ").append(blockedMs).append(" ms (threshold ")
+          .append(STALL_THRESHOLD_MS).append(" ms), currently at:");
+        for (StackTraceElement frame : edt.getStackTrace()) {
+            sb.append("\n\tat ").append(frame);
+        }
+        System.err.println(sb);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,197 @@
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.TableColumn;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.function.Consumer;
+
+/**
+ * Filter row above a paged table: a text box (prefix search) plus optional
+ * status / role choices and a from–to date range. Clicking a sortable column
+ * header sorts by it ascending, then descending, then back to the initial
+ * sort. Each change builds a new QuerySpec and hands it to the listener, which
+ * reloads the table's pager; typing is debounced by hc.table.filterDelayMs
+ * (default 300).
+ * Must be used from the EDT.
+ */
+public class FilterBar extends JPanel {
+
+    private static final int FILTER_DELAY_MS = Integer.getInteger("hc.table.filterDelayMs", 300);
+    private static final String ANY = "All";
+    private static final Color INVALID_DATE = new Color(255, 220, 220);
+
+    private final QuerySpec initial;
+    private final Consumer<QuerySpec> onChange;
+    private final JTextField textField = new JTextField(14);
+    private final Timer delay;
+    private JComboBox<String> statusBox;
+    private JComboBox<String> roleBox;
+    private JTextField fromField;
+    private JTextField toField;
+    private JTable sortedTable;
+    private String[] sortKeys;
+    private String[] columnNames;
+    private volatile QuerySpec spec;
+
+    /**
+     * @param initial  the spec the table was first loaded with (its sort is shown in the header)
+     * @param onChange called with each new spec
+     */
+    public FilterBar(QuerySpec initial, Consumer<QuerySpec> onChange) {
+        super(new FlowLayout(FlowLayout.LEFT, 8, 6));
+        setOpaque(false);
+        this.spec = initial;
+        this.initial = initial;
+        this.onChange = onChange;
+        this.delay = new Timer(Math.max(FILTER_DELAY_MS, 1), e -> apply());
+        delay.setRepeats(false);
+
+        add(new JLabel("Search:"));
+        textField.setToolTipText("Matches the start of a name");
+        textField.getDocument().addDocumentListener(onEdit());
+        add(textField);
+    }
+
+    public FilterBar addStatusFilter(String... statuses) {
+        statusBox = choices("Status:", statuses);
+        return this;
+    }
+
+    public FilterBar addRoleFilter(String... roles) {
+        roleBox = choices("Role:", roles);
+        return this;
+    }
+
+    /** From and to fields (yyyy-MM-dd, inclusive); a field that doesn't parse is ignored. */
+    public FilterBar addDateRange() {
+        fromField = dateField("From:");
+        toField = dateField("To:");
+        return this;
+    }
+
+    /**
+     * Sorts by header clicks. sortKeys holds each model column's sort key, or
+     * null for a column that can't be sorted server-side.
+     */
+    public void sortOnHeaderClick(JTable table, String... sortKeys) {
+        this.sortedTable = table;
+        this.sortKeys = sortKeys;
+        this.columnNames = new String[sortKeys.length];
+        for (int c = 0; c < sortKeys.length; c++) {
+            columnNames[c] = table.getModel().getColumnName(c);
+        }
+        table.getTableHeader().setReorderingAllowed(false);
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int view = table.getTableHeader().columnAtPoint(e.getPoint());
+                if (view < 0) return;
+                int column = table.convertColumnIndexToModel(view);
+                if (column >= sortKeys.length || sortKeys[column] == null) return;
+                changeTo(nextSort(sortKeys[column]));
+            }
+        });
+        showSortInHeader();
+    }
+
+    private QuerySpec nextSort(String key) {
+        if (!key.equals(spec.sortKey())) return spec.withSort(key, false);
+        if (!spec.descending()) return spec.withSort(key, true);
+        if (key.equals(initial.sortKey())) return spec.withSort(key, false);
+        return spec.withSort(initial.sortKey(), initial.descending());
+    }
+
+    /** The spec currently shown; safe to read from the pager's fetch thread. */
+    public QuerySpec getSpec() {
+        return spec;
+    }
+
+    private JComboBox<String> choices(String label, String... values) {
+        JComboBox<String> box = new JComboBox<>();
+        box.addItem(ANY);
+        for (String value : values) {
+            box.addItem(value);
+        }
+        box.addActionListener(e -> apply());
+        add(new JLabel(label));
+        add(box);
+        return box;
+    }
+
+    private JTextField dateField(String label) {
+        JTextField field = new JTextField(8);
+        field.setToolTipText("yyyy-MM-dd");
+        field.getDocument().addDocumentListener(onEdit());
+        add(new JLabel(label));
+        add(field);
+        return field;
+    }
+
+    private DocumentListener onEdit() {
+        return new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                delay.restart();
+            }
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                delay.restart();
+            }
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                delay.restart();
+            }
+        };
+    }
+
+    private void apply() {
+        QuerySpec next = spec.withText(textField.getText())
+                .withStatus(selected(statusBox))
+                .withRole(selected(roleBox));
+        if (fromField != null) {
+            next = next.withDateRange(parseDate(fromField), parseDate(toField));
+        }
+        changeTo(next);
+    }
+
+    private void changeTo(QuerySpec next) {
+        if (next.equals(spec)) return;
+        spec = next;
+        showSortInHeader();
+        onChange.accept(next);
+    }
+
+    private static String selected(JComboBox<String> box) {
+        if (box == null || ANY.equals(box.getSelectedItem())) return null;
+        return (String) box.getSelectedItem();
+    }
+
+    private static LocalDate parseDate(JTextField field) {
+        String text = field.getText().trim();
+        field.setBackground(Color.WHITE);
+        if (text.isEmpty()) return null;
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            field.setBackground(INVALID_DATE);
+            return null;
+        }
+    }
+
+    // Marks the sorted column with ▲ / ▼
+    private void showSortInHeader() {
+        if (sortedTable == null) return;
+        for (int view = 0; view < sortedTable.getColumnCount(); view++) {
+            TableColumn column = sortedTable.getColumnModel().getColumn(view);
+            int c = column.getModelIndex();
+            if (c >= sortKeys.length) continue;
+            boolean sorted = sortKeys[c] != null && sortKeys[c].equals(spec.sortKey());
+            column.setHeaderValue(sorted ? columnNames[c] + (spec.descending() ? " ▼" : " ▲") : columnNames[c]);
+        }
+        sortedTable.getTableHeader().repaint();
+    }
+}
\ No newline at end of file
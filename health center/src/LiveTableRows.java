@@ -0,0 +1,107 @@
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Applies ChangeSets to the rows shown in a PagedTableModel in place: deleted ids
+ * are removed, updated rows are rewritten (or moved if their sort position
+ * changed) and new rows are inserted where the order puts them. Rows must arrive
+ * sorted by that order. Rows in evicted pages are left to the page's next fetch.
+ * With a filter set, changed rows that no longer pass it are removed like deletes.
+ * Must be used from the EDT.
+ */
+public class LiveTableRows<T> {
+
+    private final PagedTableModel<T> model;
+    private final ToIntFunction<T> idOf;
+    private Comparator<? super T> order;
+    private Predicate<? super T> filter = row -> true;
+
+    /**
+     * idOf and order may be null for a table that is only ever appended to.
+     */
+    public LiveTableRows(PagedTableModel<T> model, ToIntFunction<T> idOf, Comparator<? super T> order) {
+        this.model = model;
+        this.idOf = idOf;
+        this.order = order;
+    }
+
+    /**
+     * Switches to the order and filter of a new query; call before its rows are loaded.
+     */
+    public void setView(Comparator<? super T> order, Predicate<? super T> filter) {
+        this.order = order;
+        this.filter = filter;
+    }
+
+    /** The object shown in the given model row, or null while its page is evicted. */
+    public T get(int modelRow) {
+        return model.get(modelRow);
+    }
+
+    public void clear() {
+        model.clear();
+    }
+
+    /**
+     * Appends a page fetched after the given cursor.
+     */
+    public void addAll(T after, List<T> page) {
+        model.appendPage(after, page);
+    }
+
+    /**
+     * Replaces the whole table.
+     */
+    public void setAll(List<T> all) {
+        model.setAll(all);
+    }
+
+    /**
+     * Applies inserts, updates and deletes to the table.
+     * @param complete false when the table only holds the first rows of a longer,
+     *                 paged result; a new row that sorts after the last loaded one
+     *                 is then left for the pager to bring in
+     */
+    public void apply(ChangeSet<T> changes, boolean complete) {
+        if (idOf == null || order == null) {
+            throw new IllegalStateException("LiveTableRows needs an id and an order to apply changes");
+        }
+        for (int id : changes.deletedIds()) {
+            int i = model.indexOf(idOf, id);
+            if (i >= 0) {
+                model.remove(i);
+            }
+        }
+        for (T row : changes.changed()) {
+            int i = model.indexOf(idOf, idOf.applyAsInt(row));
+            if (!filter.test(row)) {
+                if (i >= 0) {
+                    model.remove(i);
+                }
+                continue;
+            }
+            if (i >= 0) {
+                if (staysAt(i, row)) {
+                    model.set(i, row);
+                    continue;
+                }
+                model.remove(i);
+            }
+            int at = model.insertionPoint(row, order);
+            if (at == model.getRowCount() && !complete) {
+                continue;
+            }
+            model.insert(at, row);
+        }
+    }
+
+    // A neighbour in an evicted page (null) doesn't force a move
+    private boolean staysAt(int i, T row) {
+        T before = i == 0 ? null : model.get(i - 1);
+        T after = i == model.getRowCount() - 1 ? null : model.get(i + 1);
+        return (before == null || order.compare(before, row) <= 0)
+            && (after == null || order.compare(row, after) <= 0);
+    }
+}
\ No newline at end of file
@@ -224,7 +224,7 @@ public class LoginScreen extends JFrame {
         signInButton.setEnabled(false);
         signInButton.setText("Signing In...");
 
-        new Thread(() -> {
+        DatabaseExecutor.run(() -> {
             try {
                 String[] authResult = DatabaseHelper.authenticateUserWithId(email, password);
 
@@ -279,7 +279,7 @@ public class LoginScreen extends JFrame {
                 });
                 ex.printStackTrace();
             }
-        }).start();
+        });
     }
 
     /**
@@ -402,8 +402,13 @@ public class LoginScreen extends JFrame {
     }
 
     public static void main(String[] args) {
+        // Log any stall of the Swing event thread (slow work that belongs in DatabaseExecutor)
+        EdtWatchdog.install();
+
         // Initialize database tables on first run
         DatabaseHelper.initializeDatabase();
+        // Delivers queued patient notifications in the background
+        NotificationOutbox.start();
         
         SwingUtilities.invokeLater(LoginScreen::new);
     }
@@ -0,0 +1,138 @@
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * APPROVED and PENDING bookings for the 6×7 calendar grid of one month (Sunday
+ * first, so it spills into the neighbouring months). For each day it holds the
+ * booking counts, booked minutes within business hours and the number of free
+ * hour slots. It also keeps the APPROVED rows, so clicking a day needs no
+ * further query.
+ * Built by DatabaseHelper.getMonthOccupancy and cached per month.
+ */
+public final class MonthOccupancy {
+
+    public static final int GRID_DAYS = 42;
+    // Hour-long start times on the hour between opening and closing (09:00 ... 17:00)
+    public static final int HOUR_SLOTS = (AppointmentScheduler.CLOSE_MINUTE - AppointmentScheduler.OPEN_MINUTE) / 60;
+    private static final int NEAR_FULL_FREE_SLOTS = Integer.getInteger("hc.calendar.nearFullSlots", 2);
+
+    /**
+     * Load of one day. freeSlots counts the hour starts (09:00 ... 17:00) no
+     * APPROVED or PENDING booking blocks.
+     */
+    public record Day(LocalDate date, int approved, int pending, int bookedMinutes, int freeSlots) {
+
+        public boolean isFull() {
+            return freeSlots == 0;
+        }
+
+        public boolean isNearFull() {
+            return !isFull() && freeSlots <= NEAR_FULL_FREE_SLOTS;
+        }
+
+        /** e.g. "3 approved, 1 pending · 5 of 9 hours free" */
+        public String summaryText() {
+            return approved + " approved, " + pending + " pending · " + freeSlots + " of " + HOUR_SLOTS + " hours free";
+        }
+    }
+
+    private final YearMonth month;
+    private final Map<LocalDate, Day> days;
+    private final Map<LocalDate, List<Appointment>> approvedByDay;
+
+    private MonthOccupancy(YearMonth month, Map<LocalDate, Day> days, Map<LocalDate, List<Appointment>> approvedByDay) {
+        this.month = month;
+        this.days = days;
+        this.approvedByDay = approvedByDay;
+    }
+
+    /** The Sunday on or before the first of the month. */
+    public static LocalDate gridStart(YearMonth month) {
+        LocalDate first = month.atDay(1);
+        return first.minusDays(first.getDayOfWeek().getValue() % 7);
+    }
+
+    public static LocalDate gridEnd(YearMonth month) {
+        return gridStart(month).plusDays(GRID_DAYS);
+    }
+
+    /** An occupancy with no bookings, used when the query fails. */
+    static MonthOccupancy empty(YearMonth month) {
+        return new MonthOccupancy(month, Map.of(), Map.of());
+    }
+
+    /**
+     * Builds the snapshot from the grid's active bookings, sorted by time.
+     */
+    static MonthOccupancy of(YearMonth month, List<Appointment> bookings) {
+        Map<LocalDate, List<Integer>> startsByDay = new HashMap<>();
+        Map<LocalDate, int[]> countsByDay = new HashMap<>();
+        Map<LocalDate, List<Appointment>> approvedByDay = new HashMap<>();
+        for (Appointment a : bookings) {
+            startsByDay.computeIfAbsent(a.date(), d -> new ArrayList<>()).add(a.minuteOfDay());
+            int[] counts = countsByDay.computeIfAbsent(a.date(), d -> new int[2]);
+            if ("APPROVED".equalsIgnoreCase(a.status())) {
+                counts[0]++;
+                approvedByDay.computeIfAbsent(a.date(), d -> new ArrayList<>()).add(a);
+            } else {
+                counts[1]++;
+            }
+        }
+
+        Map<LocalDate, Day> days = new HashMap<>();
+        for (Map.Entry<LocalDate, List<Integer>> e : startsByDay.entrySet()) {
+            List<Integer> starts = e.getValue();
+            int[] counts = countsByDay.get(e.getKey());
+            days.put(e.getKey(), new Day(e.getKey(), counts[0], counts[1], bookedMinutes(starts), freeSlots(starts)));
+        }
+        return new MonthOccupancy(month, days, approvedByDay);
+    }
+
+    public YearMonth month() {
+        return month;
+    }
+
+    /** The day's load; a day without bookings has every slot free. */
+    public Day day(LocalDate date) {
+        Day day = days.get(date);
+        return day != null ? day : new Day(date, 0, 0, 0, HOUR_SLOTS);
+    }
+
+    /** The day's APPROVED appointments, earliest first. */
+    public List<Appointment> approvedOn(LocalDate date) {
+        return approvedByDay.getOrDefault(date, List.of());
+    }
+
+    /** Minutes of business hours covered by at least one booking's hour. */
+    private static int bookedMinutes(List<Integer> sortedStarts) {
+        int booked = 0;
+        int coveredUntil = AppointmentScheduler.OPEN_MINUTE;
+        for (int start : sortedStarts) {
+            int from = Math.max(start, coveredUntil);
+            int to = Math.min(start + AppointmentScheduler.SLOT_MINUTES, AppointmentScheduler.CLOSE_MINUTE);
+            if (to > from) {
+                booked += to - from;
+                coveredUntil = to;
+            }
+        }
+        return booked;
+    }
+
+    /** Hour starts not blocked by a booking starting in (slot - 60, slot]. */
+    private static int freeSlots(List<Integer> sortedStarts) {
+        int free = 0;
+        int i = 0;
+        for (int slot = AppointmentScheduler.OPEN_MINUTE; slot < AppointmentScheduler.CLOSE_MINUTE; slot += 60) {
+            while (i < sortedStarts.size() && sortedStarts.get(i) <= slot - AppointmentScheduler.SLOT_MINUTES) {
+                i++;
+            }
+            boolean blocked = i < sortedStarts.size() && sortedStarts.get(i) <= slot;
+            if (!blocked) free++;
+        }
+        return free;
+    }
+}
\ No newline at end of file
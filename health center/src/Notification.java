@@ -0,0 +1,23 @@
+import java.time.LocalDateTime;
+
+/**
+ * A patient notification (notifications table). readAt is null while unread.
+ */
+public record Notification(int id, int patientId, String title, String message,
+                           LocalDateTime createdAt, LocalDateTime readAt) {
+
+    public boolean isRead() {
+        return readAt != null;
+    }
+
+    public String createdText() {
+        return createdAt != null ? createdAt.format(Appointment.DATE_TIME_FORMAT) : "";
+    }
+
+    /** First line of the message, for list views. */
+    public String preview() {
+        if (message == null) return "";
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline) + " …";
+    }
+}
\ No newline at end of file
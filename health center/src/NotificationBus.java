@@ -0,0 +1,81 @@
+import javax.swing.SwingUtilities;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Tells open dashboards when a patient's unread notification count changes,
+ * so a badge can update without re-reading the notifications table on a timer.
+ * DatabaseHelper publishes after every notification it writes or marks read on
+ * this workstation, which reaches listeners right away. Notifications written
+ * elsewhere (another workstation's outbox worker) are picked up by a watcher
+ * that re-counts only the subscribed patients every hc.inbox.pollMs (default
+ * 15000), an index-only count on idx_notifications_patient_read.
+ */
+public final class NotificationBus {
+
+    private static final long POLL_INTERVAL_MS = Long.getLong("hc.inbox.pollMs", 15_000L);
+
+    private static final Map<Integer, List<IntConsumer>> LISTENERS = new ConcurrentHashMap<>();
+    // Last count handed to each patient's listeners, so unchanged counts aren't re-sent
+    private static final Map<Integer, Integer> LAST_COUNT = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService watcher;
+
+    private NotificationBus() {
+    }
+
+    /**
+     * Calls onUnreadCount on the EDT with the patient's unread count now and after
+     * every change. Returns a handle that unsubscribes.
+     */
+    public static Runnable subscribe(int patientId, IntConsumer onUnreadCount) {
+        LISTENERS.computeIfAbsent(patientId, id -> new CopyOnWriteArrayList<>()).add(onUnreadCount);
+        startWatcher();
+        DatabaseExecutor.run(() -> {
+            int count = DatabaseHelper.getUnreadNotificationCount(patientId);
+            LAST_COUNT.put(patientId, count);
+            SwingUtilities.invokeLater(() -> onUnreadCount.accept(count));
+        });
+        return () -> LISTENERS.computeIfPresent(patientId, (id, listeners) -> {
+            listeners.remove(onUnreadCount);
+            if (!listeners.isEmpty()) return listeners;
+            LAST_COUNT.remove(id);
+            return null;
+        });
+    }
+
+    /**
+     * Re-counts the patient's unread notifications in the background and notifies
+     * listeners if the count changed. A no-op when nobody is subscribed.
+     */
+    static void publish(int patientId) {
+        if (!LISTENERS.containsKey(patientId)) return;
+        DatabaseExecutor.run(() -> {
+            int count = DatabaseHelper.getUnreadNotificationCount(patientId);
+            Integer previous = LAST_COUNT.put(patientId, count);
+            if (previous != null && previous == count) return;
+            List<IntConsumer> listeners = LISTENERS.get(patientId);
+            if (listeners == null) return;
+            SwingUtilities.invokeLater(() -> listeners.forEach(l -> l.accept(count)));
+        });
+    }
+
+    private static synchronized void startWatcher() {
+        if (watcher != null || POLL_INTERVAL_MS <= 0) return;
+        watcher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread t = new Thread(task, "notification-watcher");
+            t.setDaemon(true);
+            return t;
+        });
+        watcher.scheduleWithFixedDelay(() -> {
+            for (Integer patientId : LISTENERS.keySet()) {
+                DatabaseHelper.notificationsChanged(patientId);
+            }
+        }, POLL_INTERVAL_MS, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+}
\ No newline at end of file
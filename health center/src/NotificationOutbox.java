@@ -0,0 +1,416 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox for patient notifications.
+ * Booking and status code only writes a small event row (enqueue) in its own
+ * transaction; a single background worker turns due events into notification
+ * text, including suggested free times for a disapproved booking, and inserts
+ * them into notifications in batches of hc.outbox.batchSize (default 100).
+ * The insert and the removal of the delivered events commit together.
+ * Suggestions are looked up before a batch is claimed, so the worker never
+ * borrows a second connection while it holds the claimed rows.
+ *
+ * The worker polls every hc.outbox.pollMs (default 1000) and is woken right
+ * after a local enqueue commits. A failed event is retried with exponential
+ * backoff (2s, 4s, ... capped at 5 minutes); after hc.outbox.maxAttempts
+ * (default 8) it is parked with next_attempt_at = NULL for a human to look at.
+ * Rows are claimed with FOR UPDATE SKIP LOCKED, so several workstations can
+ * run workers against one database.
+ */
+public final class NotificationOutbox {
+
+    /** A booking was decided by DatabaseHelper.decideBooking (APPROVED or DISAPPROVED on a conflict). */
+    static final String BOOKING_DECIDED = "BOOKING_DECIDED";
+    /** Staff set an appointment's status by hand. */
+    static final String STATUS_CHANGED = "STATUS_CHANGED";
+
+    static final String ENQUEUE =
+        "INSERT INTO notification_outbox (event_type, patient_id, appointment_id, status, scheduled_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final long POLL_INTERVAL_MS = Long.getLong("hc.outbox.pollMs", 1000L);
+    private static final int BATCH_SIZE = Integer.getInteger("hc.outbox.batchSize", 100);
+    private static final int MAX_ATTEMPTS = Integer.getInteger("hc.outbox.maxAttempts", 8);
+    private static final int MAX_BACKOFF_SECONDS = 300;
+
+    private static ScheduledExecutorService worker;
+    // Set while a wake-up drain is queued, so a burst of bookings queues only one
+    private static final AtomicBoolean wakeQueued = new AtomicBoolean();
+
+    private static final AtomicLong delivered = new AtomicLong();
+    private static final AtomicLong retries = new AtomicLong();
+    private static final AtomicLong parked = new AtomicLong();
+    private static final AtomicLong lastLagMillis = new AtomicLong();
+    private static final AtomicLong maxLagMillis = new AtomicLong();
+
+    private NotificationOutbox() {
+    }
+
+    /**
+     * Starts the worker. Calling it again is a no-op.
+     */
+    public static synchronized void start() {
+        if (worker != null) return;
+        worker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread t = new Thread(task, "notification-outbox");
+            t.setDaemon(true);
+            return t;
+        });
+        worker.scheduleWithFixedDelay(NotificationOutbox::drain, 0, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Asks the worker to deliver now instead of at its next poll.
+     * Call after committing a transaction that enqueued events.
+     */
+    public static void wake() {
+        ScheduledExecutorService w;
+        synchronized (NotificationOutbox.class) {
+            w = worker;
+        }
+        if (w != null && wakeQueued.compareAndSet(false, true)) {
+            w.execute(() -> {
+                wakeQueued.set(false);
+                drain();
+            });
+        }
+    }
+
+    /**
+     * Adds an event inside the caller's transaction.
+     */
+    static void enqueue(Connection conn, String eventType, int patientId, int appointmentId,
+                        String status, LocalDateTime scheduledAt) throws SQLException {
+        try (PreparedStatement p = conn.prepareStatement(ENQUEUE)) {
+            bindEvent(p, eventType, patientId, appointmentId, status, scheduledAt);
+            p.executeUpdate();
+        }
+    }
+
+    /**
+     * Binds one event to a statement prepared from ENQUEUE, for a single insert or a batch entry.
+     */
+    static void bindEvent(PreparedStatement p, String eventType, int patientId, int appointmentId,
+                          String status, LocalDateTime scheduledAt) throws SQLException {
+        p.setString(1, eventType);
+        p.setInt(2, patientId);
+        p.setInt(3, appointmentId);
+        p.setString(4, status);
+        p.setTimestamp(5, Timestamp.valueOf(scheduledAt));
+    }
+
+    /**
+     * Queue depth and delivery lag. Reads the outbox table, so call it off the EDT.
+     */
+    public static Stats getStats() {
+        long pending = 0;
+        long parkedRows = 0;
+        long oldestPendingSeconds = 0;
+        String q = "SELECT COUNT(next_attempt_at), COUNT(*) - COUNT(next_attempt_at), " +
+                   "COALESCE(TIMESTAMPDIFF(SECOND, MIN(CASE WHEN next_attempt_at IS NOT NULL THEN created_at END), NOW()), 0) " +
+                   "FROM notification_outbox";
+        try (Connection conn = DatabaseHelper.getConnection();
+             PreparedStatement p = conn.prepareStatement(q);
+             ResultSet rs = p.executeQuery()) {
+            if (rs.next()) {
+                pending = rs.getLong(1);
+                parkedRows = rs.getLong(2);
+                oldestPendingSeconds = rs.getLong(3);
+            }
+        } catch (SQLException e) {
+            System.err.println("ERROR NotificationOutbox.getStats: " + e.getMessage());
+        }
+        return new Stats(pending, parkedRows, oldestPendingSeconds, delivered.get(), retries.get(),
+                         parked.get(), lastLagMillis.get(), maxLagMillis.get());
+    }
+
+    /**
+     * Delivers due events until the outbox has no full batch left.
+     * Never throws: an exception would cancel the scheduled task.
+     */
+    private static void drain() {
+        try {
+            while (deliverDue() == BATCH_SIZE) {
+                // keep going while there is a backlog
+            }
+        } catch (Throwable t) {
+            System.err.println("ERROR NotificationOutbox: " + t.getMessage());
+            t.printStackTrace();
+        }
+    }
+
+    /**
+     * Claims up to BATCH_SIZE due events and delivers them in one transaction.
+     * If the batch insert fails, the events are retried one by one so a single
+     * bad event can't hold back the others. Returns the number claimed.
+     */
+    private static int deliverDue() throws SQLException {
+        Map<LocalDate, String> suggestions = suggestTimesForDue();
+        List<Event> events;
+        try (Connection conn = DatabaseHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                events = claim(conn, BATCH_SIZE);
+                List<Event> sent = events.isEmpty() ? List.of() : deliver(conn, events, suggestions);
+                conn.commit();
+                published(sent);
+                return events.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                System.err.println("ERROR NotificationOutbox batch: " + e.getMessage() + ", retrying events one by one");
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        deliverOneByOne(suggestions);
+        return 0;
+    }
+
+    private static void deliverOneByOne(Map<LocalDate, String> suggestions) throws SQLException {
+        try (Connection conn = DatabaseHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Event> sent = new ArrayList<>();
+                for (Event event : claim(conn, BATCH_SIZE)) {
+                    Savepoint beforeEvent = conn.setSavepoint();
+                    try {
+                        sent.addAll(deliver(conn, List.of(event), suggestions));
+                    } catch (SQLException e) {
+                        conn.rollback(beforeEvent);
+                        scheduleRetry(conn, event, e.getMessage());
+                    }
+                }
+                conn.commit();
+                published(sent);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Suggested free times for the days of the disapproved bookings among the next
+     * due events, read without locking them. Each day's text is the lines that
+     * follow "Suggested available times:".
+     */
+    private static Map<LocalDate, String> suggestTimesForDue() throws SQLException {
+        String q = "SELECT scheduled_at FROM notification_outbox " +
+                   "WHERE next_attempt_at <= NOW() AND event_type = ? AND status <> 'APPROVED' " +
+                   "ORDER BY id LIMIT ?";
+        List<LocalDateTime> times = new ArrayList<>();
+        try (Connection conn = DatabaseHelper.getConnection();
+             PreparedStatement p = conn.prepareStatement(q)) {
+            p.setString(1, BOOKING_DECIDED);
+            p.setInt(2, BATCH_SIZE);
+            try (ResultSet rs = p.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp scheduledAt = rs.getTimestamp(1);
+                    if (scheduledAt != null) times.add(scheduledAt.toLocalDateTime());
+                }
+            }
+        }
+
+        // Suggestions reflect the schedule at delivery time, a moment after the booking
+        Map<LocalDate, String> suggestions = new HashMap<>();
+        for (LocalDateTime at : times) {
+            if (suggestions.containsKey(at.toLocalDate())) continue;
+            Object[][] availableSlots = DatabaseHelper.getAvailableSlots(at.format(Appointment.DATE_TIME_FORMAT));
+            StringBuilder suggestedTimes = new StringBuilder();
+            for (int i = 0; i < Math.min(3, availableSlots.length); i++) {
+                suggestedTimes.append("\n  • ").append(availableSlots[i][0]);
+            }
+            suggestions.put(at.toLocalDate(), suggestedTimes.toString());
+        }
+        return suggestions;
+    }
+
+    private static List<Event> claim(Connection conn, int limit) throws SQLException {
+        String q = "SELECT id, event_type, patient_id, status, scheduled_at, attempts, created_at " +
+                   "FROM notification_outbox WHERE next_attempt_at <= NOW() ORDER BY id LIMIT ? " +
+                   "FOR UPDATE SKIP LOCKED";
+        List<Event> events = new ArrayList<>();
+        try (PreparedStatement p = conn.prepareStatement(q)) {
+            p.setInt(1, limit);
+            try (ResultSet rs = p.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp scheduledAt = rs.getTimestamp("scheduled_at");
+                    events.add(new Event(
+                        rs.getLong("id"),
+                        rs.getString("event_type"),
+                        rs.getInt("patient_id"),
+                        rs.getString("status"),
+                        scheduledAt != null ? scheduledAt.toLocalDateTime() : null,
+                        rs.getInt("attempts"),
+                        rs.getTimestamp("created_at").getTime()));
+                }
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Composes and inserts the notifications and removes the events, as batches.
+     * An event whose text can't be built is rescheduled instead. A disapproved booking
+     * that came due after the suggestions were looked up is left for the next round.
+     * Returns the events sent.
+     */
+    private static List<Event> deliver(Connection conn, List<Event> events,
+                                       Map<LocalDate, String> suggestions) throws SQLException {
+        List<Event> sent = new ArrayList<>();
+        try (PreparedStatement insert = conn.prepareStatement(DatabaseHelper.NOTIFICATION_INSERT);
+             PreparedStatement remove = conn.prepareStatement("DELETE FROM notification_outbox WHERE id = ?")) {
+            for (Event event : events) {
+                if (needsSuggestions(event) && !suggestions.containsKey(event.scheduledAt.toLocalDate())) {
+                    continue;
+                }
+                String[] notification;
+                try {
+                    notification = compose(event, suggestions);
+                } catch (RuntimeException e) {
+                    scheduleRetry(conn, event, String.valueOf(e));
+                    continue;
+                }
+                DatabaseHelper.bindPatientNotification(insert, event.patientId, notification[0], notification[1]);
+                insert.addBatch();
+                remove.setLong(1, event.id);
+                remove.addBatch();
+                sent.add(event);
+            }
+            if (sent.isEmpty()) return sent;
+            insert.executeBatch();
+            remove.executeBatch();
+        }
+
+        long now = System.currentTimeMillis();
+        for (Event event : sent) {
+            long lag = now - event.createdAtMillis;
+            lastLagMillis.set(lag);
+            maxLagMillis.accumulateAndGet(lag, Math::max);
+        }
+        delivered.addAndGet(sent.size());
+        return sent;
+    }
+
+    /**
+     * Updates inbox counters for the patients whose notifications were just committed.
+     */
+    private static void published(List<Event> sent) {
+        sent.stream().mapToInt(e -> e.patientId).distinct().forEach(DatabaseHelper::notificationsChanged);
+    }
+
+    private static void scheduleRetry(Connection conn, Event event, String error) throws SQLException {
+        int attempts = event.attempts + 1;
+        boolean giveUp = attempts >= MAX_ATTEMPTS;
+        String q = "UPDATE notification_outbox SET attempts = ?, last_error = ?, " +
+                   "next_attempt_at = " + (giveUp ? "NULL" : "NOW() + INTERVAL ? SECOND") + " WHERE id = ?";
+        try (PreparedStatement p = conn.prepareStatement(q)) {
+            int i = 1;
+            p.setInt(i++, attempts);
+            p.setString(i++, error != null && error.length() > 255 ? error.substring(0, 255) : error);
+            if (!giveUp) {
+                p.setInt(i++, (int) Math.min(1L << Math.min(attempts, 16), MAX_BACKOFF_SECONDS));
+            }
+            p.setLong(i, event.id);
+            p.executeUpdate();
+        }
+        if (giveUp) {
+            parked.incrementAndGet();
+            System.err.println("ERROR NotificationOutbox: giving up on event " + event.id + " after " + attempts + " attempts: " + error);
+        } else {
+            retries.incrementAndGet();
+        }
+    }
+
+    private static boolean needsSuggestions(Event event) {
+        return BOOKING_DECIDED.equals(event.eventType) && !"APPROVED".equals(event.status) && event.scheduledAt != null;
+    }
+
+    /**
+     * Returns {title, message} for an event.
+     */
+    private static String[] compose(Event event, Map<LocalDate, String> suggestions) {
+        String when = event.scheduledAt.format(Appointment.DATE_TIME_FORMAT);
+        if (needsSuggestions(event)) {
+            return new String[]{"Appointment Status",
+                "Your appointment scheduled for " + when + " could not be approved.\n" +
+                "Reason: Time slot is occupied (1-hour appointment duration).\n" +
+                "Suggested available times:" + suggestions.get(event.scheduledAt.toLocalDate())};
+        }
+        if ("APPROVED".equals(event.status)) {
+            return new String[]{"Appointment Approved", "Your appointment for " + when + " has been APPROVED."};
+        }
+        return new String[]{"Appointment Status", "Your appointment for " + when + " has been " + event.status + "."};
+    }
+
+    private static final class Event {
+        final long id;
+        final String eventType;
+        final int patientId;
+        final String status;
+        final LocalDateTime scheduledAt;
+        final int attempts;
+        final long createdAtMillis;
+
+        Event(long id, String eventType, int patientId, String status,
+              LocalDateTime scheduledAt, int attempts, long createdAtMillis) {
+            this.id = id;
+            this.eventType = eventType;
+            this.patientId = patientId;
+            this.status = status;
+            this.scheduledAt = scheduledAt;
+            this.attempts = attempts;
+            this.createdAtMillis = createdAtMillis;
+        }
+    }
+
+    /**
+     * Outbox depth (from the table) and this process's delivery counters.
+     */
+    public static final class Stats {
+        public final long pending;
+        public final long parked;
+        public final long oldestPendingSeconds;
+        public final long delivered;
+        public final long retries;
+        public final long parkedByThisProcess;
+        public final long lastLagMillis;
+        public final long maxLagMillis;
+
+        Stats(long pending, long parked, long oldestPendingSeconds, long delivered, long retries,
+              long parkedByThisProcess, long lastLagMillis, long maxLagMillis) {
+            this.pending = pending;
+            this.parked = parked;
+            this.oldestPendingSeconds = oldestPendingSeconds;
+            this.delivered = delivered;
+            this.retries = retries;
+            this.parkedByThisProcess = parkedByThisProcess;
+            this.lastLagMillis = lastLagMillis;
+            this.maxLagMillis = maxLagMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "outbox: pending=" + pending + ", parked=" + parked + ", oldestPending=" + oldestPendingSeconds + "s"
+                    + ", delivered=" + delivered + ", retries=" + retries + ", parkedByThisProcess=" + parkedByThisProcess
+                    + ", lastLag=" + lastLagMillis + "ms, maxLag=" + maxLagMillis + "ms";
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,360 @@
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Table model that keeps its rows in pages, as ScrollPager fetches them, and
+ * turns each row object into cells once. Adding a page or replacing the rows
+ * fires one event for the whole range instead of one per row.
+ *
+ * When a page reloader is set, at most hc.table.maxLoadedPages pages (default 20)
+ * keep their rows. The least recently painted pages beyond that are evicted down
+ * to their keyset cursor and boundary rows. An evicted page still counts towards
+ * getRowCount. Its cells read as LOADING until the reloader has fetched the rows
+ * again via replacePage, so a table that has been scrolled through 100k rows
+ * holds only the pages near the viewport. Must be used from the EDT.
+ */
+public class PagedTableModel<T> extends AbstractTableModel {
+
+    public static final String LOADING = "…";
+
+    private static final int MAX_LOADED_PAGES = Integer.getInteger("hc.table.maxLoadedPages", 20);
+
+    private final String[] columns;
+    private final Function<T, Object[]> toRow;
+    private final List<Page<T>> pages = new ArrayList<>();
+    private int rowCount = 0;
+    // First row of each page; rebuilt lazily after rows are inserted or removed
+    private int[] pageStarts = new int[0];
+    private boolean pageStartsStale = false;
+    private long accessTick = 0;
+    private IntConsumer pageReloader;
+
+    public PagedTableModel(String[] columns, Function<T, Object[]> toRow) {
+        this.columns = columns;
+        this.toRow = toRow;
+    }
+
+    /**
+     * Turns on eviction; reloader is called with the index of an evicted page
+     * that needs its rows again, and should answer with replacePage.
+     */
+    public void setPageReloader(IntConsumer reloader) {
+        this.pageReloader = reloader;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int p = pageOf(row);
+        Page<T> page = pages.get(p);
+        page.lastAccess = ++accessTick;
+        if (page.rows == null) {
+            requestReload(p);
+            return column == 0 ? LOADING : "";
+        }
+        return page.cells.get(row - pageStarts[p])[column];
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        int p = pageOf(row);
+        Page<T> page = pages.get(p);
+        if (page.rows == null) return;
+        page.cells.get(row - pageStarts[p])[column] = value;
+        fireTableCellUpdated(row, column);
+    }
+
+    /** The object shown in the given row, or null while its page is evicted. */
+    public T get(int row) {
+        int p = pageOf(row);
+        Page<T> page = pages.get(p);
+        return page.rows == null ? null : page.rows.get(row - pageStarts[p]);
+    }
+
+    public int pageCount() {
+        return pages.size();
+    }
+
+    /** Cursor the page was fetched after (the previous page's last row), null for the first. */
+    public T pageCursor(int pageIndex) {
+        return pages.get(pageIndex).before;
+    }
+
+    /** Rows the page held when it was last loaded or changed. */
+    public int pageSize(int pageIndex) {
+        return pages.get(pageIndex).size;
+    }
+
+    /** The next page's first row, which a reloaded page must sort before; null for the last page. */
+    public T nextPageFirst(int pageIndex) {
+        return pageIndex + 1 < pages.size() ? pages.get(pageIndex + 1).first() : null;
+    }
+
+    public void clear() {
+        pages.clear();
+        rowCount = 0;
+        pageStarts = new int[0];
+        pageStartsStale = false;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Replaces every row with one unevictable page, firing a single event.
+     */
+    public void setAll(List<T> rows) {
+        pages.clear();
+        Page<T> page = new Page<>(null, cellsOf(rows), new ArrayList<>(rows));
+        page.pinned = true;
+        pages.add(page);
+        rowCount = rows.size();
+        pageStartsStale = true;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Appends a fetched page (after = the cursor it was fetched with), firing one insert event.
+     */
+    public void appendPage(T after, List<T> rows) {
+        if (rows.isEmpty()) return;
+        int first = rowCount;
+        Page<T> page = new Page<>(after, cellsOf(rows), new ArrayList<>(rows));
+        page.lastAccess = ++accessTick;
+        pages.add(page);
+        rowCount += rows.size();
+        pageStartsStale = true;
+        fireTableRowsInserted(first, rowCount - 1);
+        evictColdPages();
+    }
+
+    /**
+     * Puts re-fetched rows back into an evicted (or stale) page. The page may
+     * come back shorter or longer than it was if rows changed meanwhile.
+     */
+    public void replacePage(int pageIndex, List<T> rows) {
+        if (pageIndex >= pages.size()) return;
+        Page<T> page = pages.get(pageIndex);
+        page.loading = false;
+        int start = pageStarts()[pageIndex];
+        int oldSize = page.size;
+        page.rows = new ArrayList<>(rows);
+        page.cells = cellsOf(rows);
+        page.size = rows.size();
+        page.lastAccess = ++accessTick;
+        rowCount += page.size - oldSize;
+        pageStartsStale = true;
+
+        int common = Math.min(oldSize, page.size);
+        if (common > 0) fireTableRowsUpdated(start, start + common - 1);
+        if (page.size > oldSize) fireTableRowsInserted(start + oldSize, start + page.size - 1);
+        if (page.size < oldSize) fireTableRowsDeleted(start + page.size, start + oldSize - 1);
+        evictColdPages();
+    }
+
+    /** Row of the loaded object with this id, or -1 (rows in evicted pages aren't found). */
+    public int indexOf(ToIntFunction<T> idOf, int id) {
+        int[] starts = pageStarts();
+        for (int p = 0; p < pages.size(); p++) {
+            List<T> rows = pages.get(p).rows;
+            if (rows == null) continue;
+            for (int i = 0; i < rows.size(); i++) {
+                if (idOf.applyAsInt(rows.get(i)) == id) {
+                    return starts[p] + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * First row whose object sorts after the given one. Evicted pages are
+     * skipped by their boundary rows; a row landing inside one goes to its start.
+     */
+    public int insertionPoint(T row, Comparator<? super T> order) {
+        int[] starts = pageStarts();
+        for (int p = 0; p < pages.size(); p++) {
+            Page<T> page = pages.get(p);
+            T last = page.last();
+            if (last != null && order.compare(last, row) <= 0) continue;
+            if (page.rows == null) return starts[p];
+            int lo = 0;
+            int hi = page.rows.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (order.compare(page.rows.get(mid), row) <= 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return starts[p] + lo;
+        }
+        return rowCount;
+    }
+
+    /**
+     * Replaces the object in a loaded row; fires an update only if a cell changed.
+     */
+    public void set(int row, T value) {
+        int p = pageOf(row);
+        Page<T> page = pages.get(p);
+        if (page.rows == null) return;
+        int i = row - pageStarts[p];
+        page.rows.set(i, value);
+        Object[] cells = toRow.apply(value);
+        if (!Arrays.equals(cells, page.cells.get(i))) {
+            page.cells.set(i, cells);
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    /**
+     * Inserts a row. Into an evicted page only its size grows; the row shows
+     * once the page is fetched again.
+     */
+    public void insert(int row, T value) {
+        int p = pages.isEmpty() ? -1 : row == rowCount ? pages.size() - 1 : pageOf(row);
+        if (p < 0) {
+            pages.add(new Page<>(null, new ArrayList<>(), new ArrayList<>()));
+            p = 0;
+        }
+        Page<T> page = pages.get(p);
+        if (page.rows != null) {
+            int i = row - pageStarts()[p];
+            page.rows.add(i, value);
+            page.cells.add(i, toRow.apply(value));
+        }
+        page.size++;
+        rowCount++;
+        pageStartsStale = true;
+        fireTableRowsInserted(row, row);
+    }
+
+    public void remove(int row) {
+        int p = pageOf(row);
+        Page<T> page = pages.get(p);
+        if (page.rows != null) {
+            int i = row - pageStarts[p];
+            page.rows.remove(i);
+            page.cells.remove(i);
+        }
+        page.size--;
+        rowCount--;
+        pageStartsStale = true;
+        fireTableRowsDeleted(row, row);
+    }
+
+    private List<Object[]> cellsOf(List<T> rows) {
+        List<Object[]> cells = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            cells.add(toRow.apply(row));
+        }
+        return cells;
+    }
+
+    private void requestReload(int pageIndex) {
+        Page<T> page = pages.get(pageIndex);
+        if (page.loading || pageReloader == null) return;
+        page.loading = true;
+        pageReloader.accept(pageIndex);
+    }
+
+    /** Drops the rows of the least recently painted pages beyond the limit. */
+    private void evictColdPages() {
+        if (pageReloader == null) return;
+        List<Page<T>> loaded = new ArrayList<>();
+        for (Page<T> page : pages) {
+            if (page.rows != null && !page.pinned && !page.loading) loaded.add(page);
+        }
+        if (loaded.size() <= MAX_LOADED_PAGES) return;
+        loaded.sort(Comparator.comparingLong(page -> page.lastAccess));
+        for (int i = 0; i < loaded.size() - MAX_LOADED_PAGES; i++) {
+            loaded.get(i).evict();
+        }
+    }
+
+    private int pageOf(int row) {
+        int[] starts = pageStarts();
+        int lo = 0;
+        int hi = starts.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (starts[mid] <= row) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private int[] pageStarts() {
+        if (pageStartsStale || pageStarts.length != pages.size()) {
+            pageStarts = new int[pages.size()];
+            int start = 0;
+            for (int p = 0; p < pages.size(); p++) {
+                pageStarts[p] = start;
+                start += pages.get(p).size;
+            }
+            pageStartsStale = false;
+        }
+        return pageStarts;
+    }
+
+    /**
+     * One fetched page. An evicted page keeps its cursor, size and first and
+     * last row so it can be fetched again and sorted against.
+     */
+    private static final class Page<T> {
+        final T before;
+        List<T> rows;
+        List<Object[]> cells;
+        int size;
+        T firstRow;
+        T lastRow;
+        long lastAccess;
+        boolean loading;
+        boolean pinned;
+
+        Page(T before, List<Object[]> cells, List<T> rows) {
+            this.before = before;
+            this.cells = cells;
+            this.rows = rows;
+            this.size = rows.size();
+        }
+
+        T first() {
+            return rows != null && !rows.isEmpty() ? rows.get(0) : firstRow;
+        }
+
+        T last() {
+            return rows != null && !rows.isEmpty() ? rows.get(rows.size() - 1) : lastRow;
+        }
+
+        void evict() {
+            firstRow = first();
+            lastRow = last();
+            rows = null;
+            cells = null;
+        }
+    }
+}
\ No newline at end of file
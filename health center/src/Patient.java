@@ -0,0 +1,23 @@
+import java.time.LocalDateTime;
+
+/**
+ * Patient row for the staff Patient Records view.
+ * age is null when no date of birth is on file; lastVisit/lastPurpose are null
+ * for patients without appointments, nextAppointment when none is coming up.
+ * visitCount is the number of APPROVED appointments.
+ */
+public record Patient(int id, String firstName, String lastName, Integer age, String contact,
+                      LocalDateTime lastVisit, String lastPurpose, int visitCount, LocalDateTime nextAppointment) {
+
+    public String fullName() {
+        return ((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "")).trim();
+    }
+
+    public String lastVisitText() {
+        return lastVisit != null ? lastVisit.format(Appointment.DATE_TIME_FORMAT) : null;
+    }
+
+    public String nextAppointmentText() {
+        return nextAppointment != null ? nextAppointment.format(Appointment.DATE_TIME_FORMAT) : null;
+    }
+}
\ No newline at end of file
@@ -2,6 +2,7 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.sql.ResultSet;
 import javax.swing.filechooser.FileNameExtensionFilter;
@@ -12,6 +13,12 @@ import javax.swing.table.DefaultTableModel;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Calendar;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Patient Dashboard - Display patient profile, appointments, and staff information
@@ -20,6 +27,7 @@ public class PatientDashboard extends JFrame {
     private static final Color PRIMARY_BLUE = new Color(0, 102, 204);
     private static final Color SIDEBAR_GRAY = new Color(240, 240, 240);
     private static final Color LIGHT_GRAY = new Color(245, 245, 245);
+    private static final DateTimeFormatter MONTH_YEAR_FORMAT = DateTimeFormatter.ofPattern("MMMM yyyy");
     private static final Font BUTTON_FONT = new Font("Inter", Font.BOLD, 14);
     private static final Font TITLE_FONT = new Font("Inter", Font.BOLD, 18);
     private static final Font LABEL_FONT = new Font("Inter", Font.BOLD, 12);
@@ -32,6 +40,17 @@ public class PatientDashboard extends JFrame {
 
     private JLabel profilePicLabel; // new
     private String profilePicPath;  // new
+    private final DatabaseExecutor.ViewLoader appointmentsLoader = new DatabaseExecutor.ViewLoader();
+    private final DatabaseExecutor.ViewLoader profileLoader = new DatabaseExecutor.ViewLoader();
+    private final DatabaseExecutor.ViewLoader staffLoader = new DatabaseExecutor.ViewLoader();
+    private JButton notificationsNavButton;
+    private ScrollPager<Notification> notificationsPager;
+    private JScrollPane notificationsScroll;
+    private Runnable inboxSubscription;
+    private int unreadCount = 0;
+
+    /** Contact details and appointments shown on the profile page, loaded together. */
+    private record ProfileData(String[] details, List<Appointment> appointments) {}
 
     public PatientDashboard(int userId, String email) {
         this.patientId = userId;
@@ -46,6 +65,9 @@ public class PatientDashboard extends JFrame {
         mainPanel.add(createContent(), BorderLayout.CENTER);
 
         add(mainPanel);
+
+        // Badge on the Notifications button; refreshes the open inbox when new ones arrive
+        inboxSubscription = NotificationBus.subscribe(patientId, this::showUnreadCount);
         
         pack();  // Call pack FIRST
         setLocationRelativeTo(null);  // Then center
@@ -73,6 +95,9 @@ public class PatientDashboard extends JFrame {
         sidebar.add(createNavButton("📅 Appointments", e -> showAppointments()));
         sidebar.add(Box.createVerticalStrut(10));
         sidebar.add(createNavButton("👨‍⚕️ Staff Info", e -> showStaffInfo()));
+        sidebar.add(Box.createVerticalStrut(10));
+        notificationsNavButton = createNavButton("🔔 Notifications", e -> showNotifications());
+        sidebar.add(notificationsNavButton);
         sidebar.add(Box.createVerticalStrut(30));
         sidebar.add(Box.createVerticalGlue());
         sidebar.add(createNavButton("🚪 Logout", e -> logout()));
@@ -202,7 +227,7 @@ public class PatientDashboard extends JFrame {
      * Loads patient data from database
      */
     private void loadPatientData() {
-        new Thread(() -> {
+        DatabaseExecutor.run(() -> {
             try {
                 System.out.println("Loading patient data for ID: " + patientId);
                 // now returns first, last, dob, profile_pic_path
@@ -241,12 +266,13 @@ public class PatientDashboard extends JFrame {
                 System.err.println("Error loading patient data: " + e.getMessage());
                 e.printStackTrace();
             }
-        }).start();
+        });
     }
 
     /**
      * Creates patient details panel
      * now includes appointments table identical to the Appointments view
+     * Shows placeholders and fills in once the details are loaded in the background
      */
     private JPanel createPatientDetailsPanel() {
         JPanel panel = new JPanel();
@@ -260,18 +286,11 @@ public class PatientDashboard extends JFrame {
         panel.add(titleLabel);
         panel.add(Box.createVerticalStrut(15));
 
-        String[] details = DatabaseHelper.getPatientDetails(patientId);
-        if (details != null) {
-            panel.add(createDetailRow("Email:", details[0]));
-            panel.add(Box.createVerticalStrut(8));
-            panel.add(createDetailRow("Phone:", details[1]));
-            panel.add(Box.createVerticalStrut(8));
-            panel.add(createDetailRow("Address:", details[2]));
-            panel.add(Box.createVerticalStrut(8));
-            panel.add(createDetailRow("Occupation:", details[3]));
-            panel.add(Box.createVerticalStrut(8));
-            panel.add(createDetailRow("Civil Status:", details[4]));
-        }
+        JPanel detailRows = new JPanel();
+        detailRows.setLayout(new BoxLayout(detailRows, BoxLayout.Y_AXIS));
+        detailRows.setOpaque(false);
+        detailRows.add(createPlaceholderLabel("Loading patient information..."));
+        panel.add(detailRows);
 
         // Appointments section — show same table used in Appointments tab
         panel.add(Box.createVerticalStrut(15));
@@ -284,24 +303,59 @@ public class PatientDashboard extends JFrame {
         panel.add(appointmentsTitle);
         panel.add(Box.createVerticalStrut(10));
 
-        Object[][] appointmentData = DatabaseHelper.getPatientAppointments(patientId);
-        if (appointmentData != null && appointmentData.length > 0) {
-            String[] columns = {"ID", "Reason", "Date", "Time", "Status"};
-            JTable appointmentsTable = new JTable(appointmentData, columns);
-            appointmentsTable.setRowHeight(25);
-            JScrollPane scrollPane = new JScrollPane(appointmentsTable);
-            scrollPane.setPreferredSize(new Dimension(700, 150));
-            panel.add(scrollPane);
-        } else {
-            JLabel noApptLabel = new JLabel("No appointments scheduled");
-            noApptLabel.setFont(new Font("Inter", Font.ITALIC, 12));
-            noApptLabel.setForeground(new Color(150, 150, 150));
-            panel.add(noApptLabel);
-        }
+        JPanel appointmentsArea = new JPanel(new BorderLayout());
+        appointmentsArea.setOpaque(false);
+        appointmentsArea.add(createPlaceholderLabel("Loading appointments..."), BorderLayout.CENTER);
+        panel.add(appointmentsArea);
+
+        profileLoader.load(() -> new ProfileData(DatabaseHelper.getPatientDetails(patientId),
+                                                 DatabaseHelper.listPatientAppointments(patientId)), data -> {
+            detailRows.removeAll();
+            String[] details = data.details();
+            if (details != null) {
+                detailRows.add(createDetailRow("Email:", details[0]));
+                detailRows.add(Box.createVerticalStrut(8));
+                detailRows.add(createDetailRow("Phone:", details[1]));
+                detailRows.add(Box.createVerticalStrut(8));
+                detailRows.add(createDetailRow("Address:", details[2]));
+                detailRows.add(Box.createVerticalStrut(8));
+                detailRows.add(createDetailRow("Occupation:", details[3]));
+                detailRows.add(Box.createVerticalStrut(8));
+                detailRows.add(createDetailRow("Civil Status:", details[4]));
+            }
+
+            appointmentsArea.removeAll();
+            if (!data.appointments().isEmpty()) {
+                String[] columns = {"ID", "Reason", "Date", "Time", "Status"};
+                Object[][] appointmentData = new Object[data.appointments().size()][];
+                for (int i = 0; i < appointmentData.length; i++) {
+                    Appointment a = data.appointments().get(i);
+                    appointmentData[i] = new Object[]{a.id(), a.reason(), a.dateText(), a.timeText(), a.status()};
+                }
+                JTable appointmentsTable = new JTable(appointmentData, columns);
+                appointmentsTable.setRowHeight(25);
+                JScrollPane scrollPane = new JScrollPane(appointmentsTable);
+                scrollPane.setPreferredSize(new Dimension(700, 150));
+                appointmentsArea.add(scrollPane, BorderLayout.CENTER);
+            } else {
+                appointmentsArea.add(createPlaceholderLabel("No appointments scheduled"), BorderLayout.CENTER);
+            }
+            panel.revalidate();
+            panel.repaint();
+        });
 
         return panel;
     }
 
+    /**
+     * Grey italic label used for "loading" and "nothing here" states
+     */
+    private JLabel createPlaceholderLabel(String text) {
+        JLabel label = new JLabel(text);
+        label.setFont(new Font("Inter", Font.ITALIC, 12));
+        label.setForeground(new Color(150, 150, 150));
+        return label;
+    }
     /**
      * Helper to create detail row
      */
@@ -324,9 +378,27 @@ public class PatientDashboard extends JFrame {
     }
 
     /**
-     * Opens edit profile dialog — now includes first/last name and change picture capability
+     * Loads the current profile in the background, then opens the edit dialog
      */
     private void openEditProfileDialog() {
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        DatabaseExecutor.supply(() -> new String[][]{
+                DatabaseHelper.getPatientDetails(patientId),
+                DatabaseHelper.getPatientNameComponents(patientId)})
+            .whenComplete((data, error) -> SwingUtilities.invokeLater(() -> {
+                setCursor(Cursor.getDefaultCursor());
+                if (error != null) {
+                    JOptionPane.showMessageDialog(this, "Error loading profile", "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                openEditProfileDialog(data[0], data[1]);
+            }));
+    }
+
+    /**
+     * Opens edit profile dialog — now includes first/last name and change picture capability
+     */
+    private void openEditProfileDialog(String[] details, String[] nameData) {
         JDialog editDialog = new JDialog(this, "Edit Profile", true);
         editDialog.setSize(520, 560);
         editDialog.setLocationRelativeTo(this);
@@ -335,10 +407,6 @@ public class PatientDashboard extends JFrame {
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
         panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
 
-        // Get current data
-        String[] details = DatabaseHelper.getPatientDetails(patientId);
-        String[] nameData = DatabaseHelper.getPatientNameComponents(patientId); // new helper: first,last
-
         JLabel firstLabel = new JLabel("First Name:");
         firstLabel.setFont(LABEL_FONT);
         JTextField firstField = new JTextField(nameData != null ? nameData[0] : "");
@@ -420,24 +488,29 @@ public class PatientDashboard extends JFrame {
         saveBtn.setBackground(PRIMARY_BLUE);
         saveBtn.setForeground(Color.WHITE);
         saveBtn.addActionListener(e -> {
-            boolean ok = DatabaseHelper.updatePatientProfileExtended(
-                patientId,
-                firstField.getText().trim(),
-                lastField.getText().trim(),
-                phoneField.getText().trim(),
-                addressField.getText().trim(),
-                occupationField.getText().trim(),
-                (String) civilCombo.getSelectedItem(),
-                picPathField.getText().trim()
-            );
-            if (ok) {
-                JOptionPane.showMessageDialog(editDialog, "Profile updated successfully!");
-                editDialog.dispose();
-                loadPatientData(); // reload name + picture
-                showProfile();
-            } else {
-                JOptionPane.showMessageDialog(editDialog, "Error updating profile", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            String first = firstField.getText().trim();
+            String last = lastField.getText().trim();
+            String phone = phoneField.getText().trim();
+            String address = addressField.getText().trim();
+            String occupation = occupationField.getText().trim();
+            String civilStatus = (String) civilCombo.getSelectedItem();
+            String picPath = picPathField.getText().trim();
+            saveBtn.setEnabled(false);
+            saveBtn.setText("Saving...");
+            DatabaseExecutor.supply(() -> DatabaseHelper.updatePatientProfileExtended(
+                    patientId, first, last, phone, address, occupation, civilStatus, picPath))
+                .whenComplete((ok, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error == null && ok) {
+                        JOptionPane.showMessageDialog(editDialog, "Profile updated successfully!");
+                        editDialog.dispose();
+                        loadPatientData(); // reload name + picture
+                        showProfile();
+                    } else {
+                        saveBtn.setEnabled(true);
+                        saveBtn.setText("Save");
+                        JOptionPane.showMessageDialog(editDialog, "Error updating profile", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }));
         });
 
         JButton cancelBtn = new JButton("Cancel");
@@ -508,13 +581,17 @@ public class PatientDashboard extends JFrame {
                 JOptionPane.YES_NO_OPTION);
 
             if (confirm == JOptionPane.YES_OPTION) {
-                boolean success = DatabaseHelper.deleteAppointment(apptId);
-                if (success) {
-                    JOptionPane.showMessageDialog(this, "Appointment cancelled successfully.");
-                    showAppointments(); // Refresh
-                } else {
-                    JOptionPane.showMessageDialog(this, "Error cancelling appointment.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                removeBtn.setEnabled(false);
+                DatabaseExecutor.supply(() -> DatabaseHelper.deleteAppointment(apptId))
+                    .whenComplete((success, error) -> SwingUtilities.invokeLater(() -> {
+                        removeBtn.setEnabled(true);
+                        if (error == null && success) {
+                            JOptionPane.showMessageDialog(this, "Appointment cancelled successfully.");
+                            showAppointments(); // Refresh
+                        } else {
+                            JOptionPane.showMessageDialog(this, "Error cancelling appointment.", "Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    }));
             }
         });
         apptActions.add(removeBtn);
@@ -529,17 +606,12 @@ public class PatientDashboard extends JFrame {
     }
 
     private void loadAppointments(DefaultTableModel model) {
-        new Thread(() -> {
-            Object[][] rows = DatabaseHelper.getPatientAppointments(this.patientId);
-            SwingUtilities.invokeLater(() -> {
-                model.setRowCount(0);
-                if (rows != null) {
-                    for (Object[] r : rows) {
-                        model.addRow(new Object[]{r[0], r[1], r[2], r[3], r[4]});
-                    }
-                }
-            });
-        }).start();
+        appointmentsLoader.load(() -> DatabaseHelper.listPatientAppointments(this.patientId), rows -> {
+            model.setRowCount(0);
+            for (Appointment a : rows) {
+                model.addRow(new Object[]{a.id(), a.reason(), a.dateText(), a.timeText(), a.status()});
+            }
+        });
     }
 
     /**
@@ -629,33 +701,39 @@ public class PatientDashboard extends JFrame {
             String appointmentDateTime = fmt.format(selectedCal.getTime());
             String appointmentDate = new SimpleDateFormat("yyyy-MM-dd").format(selectedCal.getTime());
 
-            // Check for appointment conflicts
-            String[] conflictInfo = checkAppointmentConflict(appointmentDate, hour, minute);
-            if (conflictInfo != null) {
-                // Conflict detected
-                String conflictMessage = "Not allowed. " + conflictInfo[0] + "\nSuggested time: " + conflictInfo[1];
-                JOptionPane.showMessageDialog(bookDialog, conflictMessage, "Time Conflict", JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-
-            boolean success = DatabaseHelper.bookAppointmentWithoutStaff(this.patientId, appointmentDateTime, reason);
-            if (success) {
-                int apptId = DatabaseHelper.getLatestAppointmentIdForPatient(this.patientId);
-                if (apptId > 0) {
-                    DatabaseHelper.autoApproveAppointment(apptId);
-                    // Add a small delay to ensure database update completes
-                    try {
-                        Thread.sleep(500);
-                    } catch (InterruptedException ex) {
-                        ex.printStackTrace();
+            // Check for appointment conflicts, then insert, re-check, set status and notify in one transaction
+            bookBtn.setEnabled(false);
+            bookBtn.setText("Booking...");
+            DatabaseExecutor.supply(() -> checkAppointmentConflict(appointmentDate, hour, minute))
+                .thenCompose(conflictInfo -> {
+                    if (conflictInfo == null) {
+                        return DatabaseHelper.bookAndApproveAppointment(this.patientId, LocalDateTime.parse(appointmentDateTime.replace(' ', 'T')), reason);
                     }
-                }
-                JOptionPane.showMessageDialog(bookDialog, "Appointment requested successfully!\nStatus will be updated shortly.");
-                bookDialog.dispose();
-                showAppointments();
-            } else {
-                JOptionPane.showMessageDialog(bookDialog, "Error booking appointment. Try again.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+                    // Conflict detected
+                    String conflictMessage = "Not allowed. " + conflictInfo[0] + "\nSuggested time: " + conflictInfo[1];
+                    SwingUtilities.invokeLater(() -> {
+                        bookBtn.setEnabled(true);
+                        bookBtn.setText("Book Appointment");
+                        JOptionPane.showMessageDialog(bookDialog, conflictMessage, "Time Conflict", JOptionPane.WARNING_MESSAGE);
+                    });
+                    return CompletableFuture.<BookingResult>completedFuture(null);
+                })
+                .whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error == null && result == null) return; // conflict already shown
+                    if (error != null) {
+                        bookBtn.setEnabled(true);
+                        bookBtn.setText("Book Appointment");
+                        JOptionPane.showMessageDialog(bookDialog, "Error booking appointment. Try again.", "Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    if (result.isApproved()) {
+                        JOptionPane.showMessageDialog(bookDialog, "Appointment booked and approved!");
+                    } else {
+                        JOptionPane.showMessageDialog(bookDialog, result.message(), "Appointment Not Approved", JOptionPane.WARNING_MESSAGE);
+                    }
+                    bookDialog.dispose();
+                    showAppointments();
+                }));
         });
 
         JButton cancelBtn = new JButton("Cancel");
@@ -678,11 +756,10 @@ public class PatientDashboard extends JFrame {
         JPanel panel = new JPanel();
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
         panel.setBackground(Color.WHITE);
-        panel.setBorder(BorderFactory.createLineBorder(new Color(200, 200, 200), 1));
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        Calendar currentCal = Calendar.getInstance();
-        currentCal.add(Calendar.DAY_OF_MONTH, 1); // Start from tomorrow
+        CalendarGrid grid = new CalendarGrid(new Font("Inter", Font.PLAIN, 12), new Font("Inter", Font.BOLD, 11));
+        DatabaseExecutor.ViewLoader occupancyLoader = new DatabaseExecutor.ViewLoader();
 
         // Month/Year label
         JLabel monthYearLabel = new JLabel();
@@ -701,111 +778,33 @@ public class PatientDashboard extends JFrame {
         nextBtn.setFont(new Font("Arial", Font.BOLD, 14));
         prevBtn.setFocusPainted(false);
         nextBtn.setFocusPainted(false);
+        prevBtn.addActionListener(e -> grid.showPreviousMonth());
+        nextBtn.addActionListener(e -> grid.showNextMonth());
         navPanel.add(prevBtn);
         navPanel.add(nextBtn);
         panel.add(navPanel);
         panel.add(Box.createVerticalStrut(10));
 
-        // Day headers
-        JPanel dayHeaderPanel = new JPanel(new GridLayout(1, 7, 5, 5));
-        dayHeaderPanel.setBackground(Color.WHITE);
-        String[] days = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
-        for (String day : days) {
-            JLabel dayLabel = new JLabel(day);
-            dayLabel.setFont(new Font("Inter", Font.BOLD, 11));
-            dayLabel.setForeground(PRIMARY_BLUE);
-            dayLabel.setHorizontalAlignment(JLabel.CENTER);
-            dayHeaderPanel.add(dayLabel);
-        }
-        panel.add(dayHeaderPanel);
-        panel.add(Box.createVerticalStrut(5));
-
-        // Calendar grid
-        JPanel gridPanel = new JPanel(new GridLayout(6, 7, 5, 5));
-        gridPanel.setBackground(Color.WHITE);
-
-        final int[] lastSelectedDay = {-1}; // Track last selected day for highlighting
-
-        final Runnable[] populateCalendarRef = new Runnable[1];
-
-        populateCalendarRef[0] = new Runnable() {
-            @Override
-            public void run() {
-                SimpleDateFormat fmt = new SimpleDateFormat("MMMM yyyy");
-                monthYearLabel.setText(fmt.format(currentCal.getTime()));
-
-                gridPanel.removeAll();
-
-                Calendar firstDay = (Calendar) currentCal.clone();
-                firstDay.set(Calendar.DAY_OF_MONTH, 1);
-                int startDay = firstDay.get(Calendar.DAY_OF_WEEK) - 1;
-                int daysInMonth = currentCal.getActualMaximum(Calendar.DAY_OF_MONTH);
-
-                for (int i = 0; i < 42; i++) {
-                    JButton dayBtn = new JButton();
-                    dayBtn.setFont(new Font("Inter", Font.PLAIN, 12));
-                    dayBtn.setFocusPainted(false);
-                    dayBtn.setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220), 1));
-
-                    if (i < startDay || i >= startDay + daysInMonth) {
-                        dayBtn.setText("");
-                        dayBtn.setEnabled(false);
-                        dayBtn.setBackground(new Color(245, 245, 245));
-                    } else {
-                        int day = i - startDay + 1;
-                        dayBtn.setText(String.valueOf(day));
-                        dayBtn.setEnabled(true);
-                        dayBtn.setBackground(Color.WHITE);
-
-                        // Check if this is today
-                        Calendar today = Calendar.getInstance();
-                        if (currentCal.get(Calendar.YEAR) == today.get(Calendar.YEAR) &&
-                            currentCal.get(Calendar.MONTH) == today.get(Calendar.MONTH) &&
-                            day == today.get(Calendar.DAY_OF_MONTH)) {
-                            dayBtn.setBackground(PRIMARY_BLUE);
-                            dayBtn.setForeground(Color.WHITE);
-                        } else if (day == lastSelectedDay[0]) {
-                            // Highlight previously selected day
-                            dayBtn.setBackground(new Color(100, 150, 255));
-                            dayBtn.setForeground(Color.WHITE);
-                        }
-
-                        final int selectedDay = day;
-                        dayBtn.addActionListener(e -> {
-                            // Update selectedCal with year, month, and day
-                            selectedCal.set(Calendar.YEAR, currentCal.get(Calendar.YEAR));
-                            selectedCal.set(Calendar.MONTH, currentCal.get(Calendar.MONTH));
-                            selectedCal.set(Calendar.DAY_OF_MONTH, selectedDay);
-                            
-                            lastSelectedDay[0] = selectedDay;
-                            
-                            System.out.println("DEBUG: Date selected = " + new SimpleDateFormat("yyyy-MM-dd").format(selectedCal.getTime()));
-
-                            // Refresh calendar to show selection
-                            populateCalendarRef[0].run();
-                        });
-                    }
-
-                    gridPanel.add(dayBtn);
-                }
-
-                gridPanel.revalidate();
-                gridPanel.repaint();
-            }
-        };
-
-        prevBtn.addActionListener(e -> {
-            currentCal.add(Calendar.MONTH, -1);
-            populateCalendarRef[0].run();
+        // Full and nearly full days are shaded once the month's occupancy is in
+        grid.addMonthChangeListener(month -> {
+            monthYearLabel.setText(month.format(MONTH_YEAR_FORMAT));
+            occupancyLoader.load(() -> DatabaseHelper.getMonthOccupancy(month), grid::showOccupancy);
         });
+        grid.addDateSelectionListener(date -> {
+            // Update selectedCal with year, month, and day
+            selectedCal.set(Calendar.YEAR, date.getYear());
+            selectedCal.set(Calendar.MONTH, date.getMonthValue() - 1);
+            selectedCal.set(Calendar.DAY_OF_MONTH, date.getDayOfMonth());
 
-        nextBtn.addActionListener(e -> {
-            currentCal.add(Calendar.MONTH, 1);
-            populateCalendarRef[0].run();
+            System.out.println("DEBUG: Date selected = " + new SimpleDateFormat("yyyy-MM-dd").format(selectedCal.getTime()));
         });
 
-        panel.add(gridPanel);
-        populateCalendarRef[0].run();
+        // Start from tomorrow's month
+        grid.setMonth(YearMonth.from(LocalDate.now().plusDays(1)));
+        monthYearLabel.setText(grid.getMonth().format(MONTH_YEAR_FORMAT));
+        occupancyLoader.load(() -> DatabaseHelper.getMonthOccupancy(grid.getMonth()), grid::showOccupancy);
+
+        panel.add(grid);
         return panel;
     }
 
@@ -907,139 +906,131 @@ public class PatientDashboard extends JFrame {
         content.add(Box.createVerticalStrut(20));
 
         // Staff table
-        Object[][] staffData = DatabaseHelper.getAllStaff();
-        if (staffData != null && staffData.length > 0) {
-            String[] columns = {"Id", "Name", "Role", "Area of Focus", "Contact"};
-            JTable staffTable = new JTable(staffData, columns);
-            staffTable.setRowHeight(25);
-            JScrollPane scrollPane = new JScrollPane(staffTable);
-            content.add(scrollPane);
-        } else {
-            JLabel noStaffLabel = new JLabel("No staff information available");
-            noStaffLabel.setFont(new Font("Inter", Font.ITALIC, 12));
-            noStaffLabel.setForeground(new Color(150, 150, 150));
-            content.add(noStaffLabel);
-        }
+        JLabel loadingLabel = createPlaceholderLabel("Loading staff...");
+        content.add(loadingLabel);
+        staffLoader.load(DatabaseHelper::getAllStaff, staffData -> {
+            content.remove(loadingLabel);
+            if (staffData != null && staffData.length > 0) {
+                String[] columns = {"Id", "Name", "Role", "Area of Focus", "Contact"};
+                JTable staffTable = new JTable(staffData, columns);
+                staffTable.setRowHeight(25);
+                JScrollPane scrollPane = new JScrollPane(staffTable);
+                content.add(scrollPane);
+            } else {
+                content.add(createPlaceholderLabel("No staff information available"));
+            }
+            content.revalidate();
+            content.repaint();
+        });
 
         mainContentPanel.add(new JScrollPane(content), BorderLayout.CENTER);
         mainContentPanel.revalidate();
         mainContentPanel.repaint();
     }
-
     /**
      * Checks for appointment conflicts on the selected date and time
      * Checks against ALL APPROVED and PENDING appointments in the system (not just current patient's)
      * This prevents double-booking across all patients
-     * Only blocks times AT and AFTER existing appointments (1-hour buffer after only)
+     * Blocks any start within 1 hour before or after an existing appointment, since the two hours would overlap
      * @param appointmentDate the appointment date in format "yyyy-MM-dd"
      * @param hour the appointment hour (0-23)
      * @param minute the appointment minute (0-59)
      * @return Array with conflict info [conflict message, suggested time] or null if no conflict
      */
     private String[] checkAppointmentConflict(String appointmentDate, int hour, int minute) {
-        // Get all APPROVED and PENDING appointments for this date (system-wide check)
-        Object[][] appointmentData = DatabaseHelper.getApprovedAppointmentsByDateForConflictCheck(appointmentDate);
-        
-        if (appointmentData == null || appointmentData.length == 0) {
-            return null; // No existing appointments, no conflict
+        LocalDate date = LocalDate.parse(appointmentDate);
+        if (!AppointmentScheduler.hasConflict(date.atTime(hour, minute), -1, true)) {
+            return null; // No conflict
         }
-
-        // Convert selected time to minutes for easier calculation
-        int selectedMinutes = hour * 60 + minute;
-        
-        for (Object[] appt : appointmentData) {
-            if (appt.length >= 4) {
-                String apptDate = appt[2].toString(); // Date column
-                String apptTime = appt[3].toString(); // Time column
-                
-                // Only check conflicts on the same date
-                if (apptDate.equals(appointmentDate)) {
-                    // Parse existing appointment time
-                    String[] timeParts = apptTime.split(":");
-                    if (timeParts.length >= 2) {
-                        int existingHour = Integer.parseInt(timeParts[0]);
-                        int existingMinute = Integer.parseInt(timeParts[1]);
-                        int existingMinutes = existingHour * 60 + existingMinute;
-                        
-                        // Check if selected time is AT or AFTER existing appointment
-                        // and within 1 hour after (60 minutes)
-                        if (selectedMinutes >= existingMinutes && selectedMinutes < existingMinutes + 60) {
-                            // Conflict found! Find suggested times
-                            // Convert array to list for the findSuggestedTime method
-                            java.util.List<Object[]> appointmentList = new java.util.ArrayList<>();
-                            for (Object[] a : appointmentData) {
-                                appointmentList.add(a);
-                            }
-                            String suggestedTime = findSuggestedTime(appointmentDate, appointmentList);
-                            return new String[]{"Appointment conflicts with existing appointment (1-hour buffer).", suggestedTime};
-                        }
-                    }
-                }
-            }
-        }
-        
-        return null; // No conflict
+        String suggestedTime = findSuggestedTime(date);
+        return new String[]{"Appointment conflicts with existing appointment (1-hour buffer).", suggestedTime};
     }
-
     /**
      * Finds suggested available times on the given date
-     * Respects 1-hour buffer AFTER existing appointments only
-     * @param appointmentDate the date to find available times for
-     * @param allAppointments list of existing appointments data
+     * Keeps 1 hour clear on both sides of existing appointments
+     * @param date the date to find available times for
      * @return suggested time in format "HH:mm"
      */
-    private String findSuggestedTime(String appointmentDate, java.util.List<Object[]> allAppointments) {
-        // Collect all booked times with 1-hour buffer AFTER on this date
-        java.util.Set<Integer> blockedMinutes = new java.util.HashSet<>();
-        
-        for (Object[] appt : allAppointments) {
-            if (appt.length >= 4) {
-                String apptDate = appt[2].toString();
-                String apptTime = appt[3].toString();
-                
-                if (apptDate.equals(appointmentDate)) {
-                    // Parse appointment time
-                    String[] timeParts = apptTime.split(":");
-                    if (timeParts.length >= 2) {
-                        int existingHour = Integer.parseInt(timeParts[0]);
-                        int existingMinute = Integer.parseInt(timeParts[1]);
-                        int existingMinutes = existingHour * 60 + existingMinute;
-                        
-                        // Block from appointment time to 1 hour after (but NOT before)
-                        for (int i = existingMinutes; i < existingMinutes + 60; i++) {
-                            blockedMinutes.add(i);
-                        }
-                    }
-                }
-            }
+    private String findSuggestedTime(LocalDate date) {
+        // Next available slot on 30-minute intervals from opening, then 15-minute intervals as fallback
+        LocalTime slot = AppointmentScheduler.nextFreeSlot(date, AppointmentScheduler.OPEN_MINUTE, 30, true);
+        if (slot == null) {
+            slot = AppointmentScheduler.nextFreeSlot(date, AppointmentScheduler.OPEN_MINUTE, 15, true);
         }
-        
-        // Find next available slot (30-minute intervals, starting from 9:00 AM)
-        for (int hour = 9; hour <= 17; hour++) { // Business hours 9 AM to 5 PM
-            for (int minute = 0; minute < 60; minute += 30) {
-                int totalMinutes = hour * 60 + minute;
-                
-                // Skip if this time is blocked
-                if (blockedMinutes.contains(totalMinutes)) {
-                    continue;
-                }
-                
-                // Return first available time
-                return String.format("%02d:%02d", hour, minute);
-            }
-        }
-        
-        // If no slot found in business hours, try early morning next available
-        for (int hour = 9; hour <= 17; hour++) {
-            for (int minute = 0; minute < 60; minute += 15) { // Try 15-minute intervals as fallback
-                int totalMinutes = hour * 60 + minute;
-                if (!blockedMinutes.contains(totalMinutes)) {
-                    return String.format("%02d:%02d", hour, minute);
+        return slot != null ? slot.format(Appointment.TIME_FORMAT) : "09:00";
+    }
+    /**
+     * Shows the notification inbox, newest first. Double-click a row to read it in full.
+     */
+    private void showNotifications() {
+        mainContentPanel.removeAll();
+
+        JPanel content = new JPanel(new BorderLayout());
+        content.setBackground(Color.WHITE);
+        content.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+        JLabel titleLabel = new JLabel("Notifications");
+        titleLabel.setFont(TITLE_FONT);
+        titleLabel.setForeground(PRIMARY_BLUE);
+        content.add(titleLabel, BorderLayout.NORTH);
+
+        PagedTableModel<Notification> notificationsModel = new PagedTableModel<>(
+            new String[]{"", "Date", "Title", "Message"},
+            n -> new Object[]{n.isRead() ? "" : "●", n.createdText(), n.title(), n.preview()});
+        JTable notificationsTable = new JTable(notificationsModel);
+        notificationsTable.setRowHeight(25);
+        notificationsTable.getColumnModel().getColumn(0).setMaxWidth(30);
+        notificationsScroll = new JScrollPane(notificationsTable);
+        notificationsPager = new ScrollPager<>(notificationsModel, notificationsScroll,
+                (after, limit) -> DatabaseHelper.listNotificationsPage(patientId, after, limit),
+                Notification::id,
+                Comparator.comparing(Notification::createdAt).thenComparingInt(Notification::id).reversed(),
+                DatabaseHelper.DEFAULT_PAGE_SIZE);
+
+        notificationsTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = notificationsTable.getSelectedRow();
+                if (e.getClickCount() != 2 || row < 0) return;
+                Notification n = notificationsPager.rowAt(notificationsTable.convertRowIndexToModel(row));
+                if (n == null) return; // page still loading
+                JOptionPane.showMessageDialog(PatientDashboard.this, n.message(), n.title(), JOptionPane.INFORMATION_MESSAGE);
+                if (!n.isRead()) {
+                    Notification read = new Notification(n.id(), n.patientId(), n.title(), n.message(), n.createdAt(), LocalDateTime.now());
+                    notificationsPager.applyChanges(new ChangeSet<>(List.of(read), List.of(), null));
+                    DatabaseExecutor.run(() -> DatabaseHelper.markNotificationRead(patientId, n.id()));
                 }
             }
+        });
+
+        JPanel actions = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
+        actions.setBackground(Color.WHITE);
+        JButton markAllBtn = new JButton("✓ Mark All as Read");
+        markAllBtn.addActionListener(e -> DatabaseExecutor.supply(() -> DatabaseHelper.markAllNotificationsRead(patientId))
+            .whenComplete((ok, error) -> SwingUtilities.invokeLater(() -> {
+                if (error == null && ok) notificationsPager.reload();
+            })));
+        actions.add(markAllBtn);
+
+        content.add(notificationsScroll, BorderLayout.CENTER);
+        content.add(actions, BorderLayout.SOUTH);
+        mainContentPanel.add(content);
+        notificationsPager.reload();
+        mainContentPanel.revalidate();
+        mainContentPanel.repaint();
+    }
+
+    /**
+     * NotificationBus callback (on the EDT): updates the badge, and reloads the
+     * inbox if it is open and new notifications came in.
+     */
+    private void showUnreadCount(int unread) {
+        boolean increased = unread > unreadCount;
+        unreadCount = unread;
+        notificationsNavButton.setText(unread > 0 ? "🔔 Notifications (" + unread + ")" : "🔔 Notifications");
+        if (increased && notificationsScroll != null && notificationsScroll.isShowing()) {
+            notificationsPager.reload();
         }
-        
-        return "09:00";
     }
 
     /**
@@ -1052,6 +1043,7 @@ public class PatientDashboard extends JFrame {
             JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
+            inboxSubscription.run();
             new LoginScreen().setVisible(true);
             this.dispose();
         }
@@ -0,0 +1,320 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory search over patients' first and last names, email and phone.
+ * Every name word, the email (whole and its local part) and the phone digits
+ * are tokens in a sorted map, so a prefix is one subMap range. Name and email
+ * tokens are also indexed by their trigrams; a query word that is 3 or more
+ * characters long also matches tokens that share enough trigrams with it
+ * (Dice ≥ hc.search.fuzzyMin, default 0.5), so "crus" finds "cruz". Every
+ * query word has to match; exact tokens rank above prefixes, prefixes above
+ * fuzzy matches.
+ *
+ * The index loads in the background on first use. Until then search returns
+ * null and DatabaseHelper.searchPatients falls back to the FULLTEXT index.
+ * It stays in sync like the live tables: rows whose users.updated_at moved
+ * (and users tombstones) are applied at most every hc.search.refreshMs
+ * (default 5000), and right away on the next search after a local write
+ * (markStale).
+ */
+public final class PatientSearchIndex {
+
+    /** The indexed fields of one user row; rows whose role isn't PATIENT are dropped. */
+    public record Entry(int id, String firstName, String lastName, String email, String phone, String role) {
+    }
+
+    private static final int MAX_RESULTS = Integer.getInteger("hc.search.maxResults", 50);
+    private static final long REFRESH_INTERVAL_MS = Long.getLong("hc.search.refreshMs", 5000L);
+    private static final double FUZZY_MIN = Double.parseDouble(System.getProperty("hc.search.fuzzyMin", "0.5"));
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final double EXACT_SCORE = 3;
+    private static final double PREFIX_SCORE = 2;
+
+    private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // One loader/refresher at a time; searches that find it busy use what is there
+    private static final ReentrantLock refreshLock = new ReentrantLock();
+    private static final Map<Integer, Entry> entries = new HashMap<>();
+    // "last first", lowercased: the tiebreak between equal scores
+    private static final Map<Integer, String> sortNames = new HashMap<>();
+    private static final TreeMap<String, Set<Integer>> tokens = new TreeMap<>();
+    private static final Map<String, Set<String>> trigrams = new HashMap<>();
+
+    private static volatile boolean loaded = false;
+    private static volatile boolean stale = false;
+    private static volatile long lastRefreshMillis = 0;
+    private static LocalDateTime highWater;
+
+    private PatientSearchIndex() {
+    }
+
+    /**
+     * Ids of the best matching patients, best first (at most hc.search.maxResults),
+     * or null while the index is still loading. Blank queries match nothing.
+     */
+    public static List<Integer> search(String query) {
+        if (!loaded) {
+            loadInBackground();
+            return null;
+        }
+        if (stale || System.currentTimeMillis() - lastRefreshMillis >= REFRESH_INTERVAL_MS) {
+            refresh();
+        }
+
+        List<String> words = queryWords(query);
+        if (words.isEmpty()) return List.of();
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = null;
+            for (String word : words) {
+                Map<Integer, Double> matches = matchesOf(word);
+                if (scores == null) {
+                    scores = matches;
+                } else {
+                    Map<Integer, Double> both = new HashMap<>();
+                    for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+                        Double score = matches.get(e.getKey());
+                        if (score != null) both.put(e.getKey(), e.getValue() + score);
+                    }
+                    scores = both;
+                }
+                if (scores.isEmpty()) return List.of();
+            }
+
+            final Map<Integer, Double> ranked = scores;
+            Comparator<Integer> byScore = Comparator.comparingDouble(id -> -ranked.get(id));
+            Comparator<Integer> byName = Comparator.comparing(sortNames::get);
+            List<Integer> ids = new ArrayList<>(ranked.keySet());
+            ids.sort(byScore.thenComparing(byName).thenComparing(Comparator.naturalOrder()));
+            return ids.size() > MAX_RESULTS ? new ArrayList<>(ids.subList(0, MAX_RESULTS)) : ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Call after writing a users row; the next search applies the change first.
+     */
+    public static void markStale() {
+        stale = true;
+    }
+
+    /** e.g. "12034 patients, 61210 tokens, 48733 trigrams" */
+    public static String getStats() {
+        lock.readLock().lock();
+        try {
+            return loaded
+                ? entries.size() + " patients, " + tokens.size() + " tokens, " + trigrams.size() + " trigrams"
+                : "not loaded";
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void loadInBackground() {
+        if (refreshLock.isLocked()) return;
+        DatabaseExecutor.run(() -> {
+            if (!refreshLock.tryLock()) return;
+            try {
+                if (loaded) return;
+                // Take the mark first, so writes during the load come in with the first refresh
+                ChangeSet<Entry> mark = DatabaseHelper.listPatientSearchChanges(null);
+                List<Entry> all = DatabaseHelper.listPatientSearchEntries();
+                if (mark == null || all == null) return;
+                lock.writeLock().lock();
+                try {
+                    all.forEach(PatientSearchIndex::put);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                highWater = mark.highWater();
+                lastRefreshMillis = System.currentTimeMillis();
+                loaded = true;
+            } finally {
+                refreshLock.unlock();
+            }
+        });
+    }
+
+    // Runs on the searching thread; a failed read keeps the old mark and is retried next time
+    private static void refresh() {
+        if (!refreshLock.tryLock()) return;
+        try {
+            stale = false;
+            ChangeSet<Entry> changes = DatabaseHelper.listPatientSearchChanges(highWater);
+            lastRefreshMillis = System.currentTimeMillis();
+            if (changes == null) return;
+            lock.writeLock().lock();
+            try {
+                for (int id : changes.deletedIds()) {
+                    remove(id);
+                }
+                for (Entry e : changes.changed()) {
+                    remove(e.id());
+                    if ("PATIENT".equalsIgnoreCase(e.role())) put(e);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            highWater = changes.highWater();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private static void put(Entry e) {
+        entries.put(e.id(), e);
+        sortNames.put(e.id(), sortName(e));
+        for (String token : tokensOf(e)) {
+            tokens.computeIfAbsent(token, t -> new HashSet<>()).add(e.id());
+            if (!isDigits(token)) {
+                for (String gram : trigramsOf(token)) {
+                    trigrams.computeIfAbsent(gram, g -> new HashSet<>()).add(token);
+                }
+            }
+        }
+    }
+
+    private static void remove(int id) {
+        Entry e = entries.remove(id);
+        if (e == null) return;
+        sortNames.remove(id);
+        for (String token : tokensOf(e)) {
+            Set<Integer> ids = tokens.get(token);
+            if (ids == null) continue;
+            ids.remove(id);
+            if (!ids.isEmpty()) continue;
+            tokens.remove(token);
+            if (isDigits(token)) continue;
+            for (String gram : trigramsOf(token)) {
+                Set<String> withGram = trigrams.get(gram);
+                if (withGram == null) continue;
+                withGram.remove(token);
+                if (withGram.isEmpty()) trigrams.remove(gram);
+            }
+        }
+    }
+
+    /** Best score of each patient matching one query word. */
+    private static Map<Integer, Double> matchesOf(String word) {
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Set<Integer>> e : tokens.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+            double score = e.getKey().equals(word) ? EXACT_SCORE : PREFIX_SCORE;
+            for (int id : e.getValue()) {
+                scores.merge(id, score, Math::max);
+            }
+        }
+        if (word.length() < MIN_FUZZY_LENGTH || isDigits(word) || scores.size() >= MAX_RESULTS) {
+            return scores;
+        }
+
+        Set<String> grams = trigramsOf(word);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            for (String token : trigrams.getOrDefault(gram, Set.of())) {
+                shared.merge(token, 1, Integer::sum);
+            }
+        }
+        for (Map.Entry<String, Integer> e : shared.entrySet()) {
+            double dice = 2.0 * e.getValue() / (grams.size() + gramCount(e.getKey()));
+            if (dice < FUZZY_MIN) continue;
+            for (int id : tokens.getOrDefault(e.getKey(), Set.of())) {
+                scores.merge(id, dice, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private static Set<String> tokensOf(Entry e) {
+        Set<String> out = new LinkedHashSet<>();
+        addWords(out, e.firstName());
+        addWords(out, e.lastName());
+        if (e.email() != null && !e.email().isBlank()) {
+            String email = e.email().trim().toLowerCase();
+            out.add(email);
+            int at = email.indexOf('@');
+            if (at > 0) out.add(email.substring(0, at));
+        }
+        out.addAll(phoneTokens(e.phone()));
+        return out;
+    }
+
+    private static void addWords(Collection<String> out, String text) {
+        if (text == null) return;
+        for (String word : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) out.add(word);
+        }
+    }
+
+    /**
+     * The phone as digits, plus the subscriber number without the 0 / 63
+     * prefix, so "0917...", "63917..." and "917..." all find it.
+     */
+    static List<String> phoneTokens(String phone) {
+        if (phone == null) return List.of();
+        String digits = phone.replaceAll("\\D", "");
+        if (digits.isEmpty()) return List.of();
+        List<String> out = new ArrayList<>();
+        out.add(digits);
+        if (digits.startsWith("63") && digits.length() > 10) {
+            out.add(digits.substring(2));
+            out.add("0" + digits.substring(2));
+        } else if (digits.startsWith("0") && digits.length() > 1) {
+            out.add(digits.substring(1));
+        }
+        return out;
+    }
+
+    // Lowercased words; an email (or a part with a dot) stays whole, a phone number keeps only its digits
+    static List<String> queryWords(String query) {
+        List<String> words = new ArrayList<>();
+        if (query == null) return words;
+        for (String part : query.trim().toLowerCase().split("\\s+")) {
+            if (part.isEmpty()) continue;
+            if (part.contains("@") || part.contains(".")) {
+                words.add(part);
+            } else if (part.matches("[+()\\d-]+")) {
+                String digits = part.replaceAll("\\D", "");
+                if (!digits.isEmpty()) words.add(digits);
+            } else {
+                addWords(words, part);
+            }
+        }
+        return words;
+    }
+
+    // "$ju", "jua", "uan" for "juan": the marker lets a word's start weigh in
+    private static Set<String> trigramsOf(String token) {
+        String padded = "$" + token;
+        Set<String> out = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            out.add(padded.substring(i, i + 3));
+        }
+        if (out.isEmpty()) out.add(padded);
+        return out;
+    }
+
+    // Size of trigramsOf(token) without building it (repeated trigrams are rare in names)
+    private static int gramCount(String token) {
+        return Math.max(1, token.length() - 1);
+    }
+
+    private static boolean isDigits(String s) {
+        return !s.isEmpty() && s.chars().allMatch(Character::isDigit);
+    }
+
+    private static String sortName(Entry e) {
+        return ((e.lastName() != null ? e.lastName() : "") + " " + (e.firstName() != null ? e.firstName() : "")).toLowerCase();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,451 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-operation timing for everything that goes through DatabaseHelper.getConnection().
+ * The operation is the data-access method that borrowed the connection (for example
+ * DatabaseHelper.listAppointmentsPage), found by walking the stack past the shared
+ * query helpers. For each operation it keeps call, statement, row and error counts
+ * and latency histograms for the whole call, each statement and the connection wait.
+ * Rows are the update counts plus the rows DatabaseHelper's query helpers report
+ * through countRows; ResultSets are handed out unwrapped.
+ *
+ * A statement slower than hc.metrics.slowQueryMs (default 200) is appended as one
+ * JSON line to hc.metrics.slowLog (default slow-queries.log, empty for stderr),
+ * with its SQL and bind values redacted down to their type (numbers are kept, as
+ * they are ids and limits). -Dhc.metrics.enabled=false turns all of it off.
+ */
+public final class QueryMetrics {
+
+    /**
+     * Borrows a connection; DatabaseHelper passes its pool here.
+     */
+    @FunctionalInterface
+    public interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("hc.metrics.enabled", "true"));
+    private static final long SLOW_QUERY_MS = Long.getLong("hc.metrics.slowQueryMs", 200L);
+    private static final String SLOW_LOG = System.getProperty("hc.metrics.slowLog", "slow-queries.log");
+
+    // Shared helpers that are never the operation themselves; lambdas and cache frames are skipped too
+    private static final Set<String> HELPER_METHODS = Set.of(
+            "getConnection", "queryList", "queryListOrThrow", "queryChanges", "cachedStaffList",
+            "streamQuery", "markNotificationsRead");
+    private static final Set<String> PLUMBING_CLASSES = Set.of(
+            "QueryMetrics", "ConnectionPool", "TtlCache");
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private static final Map<String, OperationStats> OPERATIONS = new ConcurrentHashMap<>();
+    private static final AtomicLong slowQueries = new AtomicLong();
+
+    private QueryMetrics() {
+    }
+
+    /**
+     * Borrows a connection from source, recording the wait, and returns it wrapped
+     * so its statements are timed. The lease ends when the caller closes it.
+     */
+    public static Connection acquire(ConnectionSource source) throws SQLException {
+        if (!ENABLED) return source.get();
+        OperationStats stats = stats(callerOperation());
+        long start = System.nanoTime();
+        Connection conn;
+        try {
+            conn = source.get();
+        } catch (SQLException e) {
+            stats.errors.incrementAndGet();
+            throw e;
+        }
+        long acquired = System.nanoTime();
+        stats.acquire.record(acquired - start);
+        stats.calls.incrementAndGet();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(conn, stats, acquired));
+    }
+
+    /**
+     * Adds rows read over a connection from acquire() to its operation's row count.
+     */
+    public static void countRows(Connection conn, long rows) {
+        if (rows > 0 && Proxy.isProxyClass(conn.getClass())
+                && Proxy.getInvocationHandler(conn) instanceof ConnectionHandler handler) {
+            handler.stats.rows.addAndGet(rows);
+        }
+    }
+
+    /**
+     * Snapshot of every operation seen so far, slowest p95 first.
+     */
+    public static List<Snapshot> snapshot() {
+        List<Snapshot> rows = new ArrayList<>();
+        for (OperationStats stats : OPERATIONS.values()) {
+            rows.add(stats.snapshot());
+        }
+        rows.sort(Comparator.comparingLong((Snapshot s) -> s.p95Micros).reversed());
+        return rows;
+    }
+
+    public static long slowQueryCount() {
+        return slowQueries.get();
+    }
+
+    public static void reset() {
+        OPERATIONS.clear();
+        slowQueries.set(0);
+    }
+
+    /**
+     * Writes the current snapshot, plus pool, cache and outbox stats, to target as
+     * plain text. Returns the number of operations written.
+     */
+    public static int dumpTo(File target) throws IOException {
+        List<Snapshot> rows = snapshot();
+        try (PrintWriter w = new PrintWriter(new FileWriter(target))) {
+            w.println("# Query metrics at " + LocalDateTime.now() + " (latencies in microseconds)");
+            w.println("# slow queries (> " + SLOW_QUERY_MS + " ms): " + slowQueries.get());
+            w.printf("%-48s %8s %8s %8s %10s %9s %9s %9s %9s %9s %9s%n", "operation", "calls", "stmts",
+                    "errors", "rows", "p50", "p95", "p99", "max", "stmt p95", "acq p95");
+            for (Snapshot s : rows) {
+                w.printf("%-48s %8d %8d %8d %10d %9d %9d %9d %9d %9d %9d%n",
+                        s.operation, s.calls, s.statements, s.errors, s.rows, s.p50Micros, s.p95Micros,
+                        s.p99Micros, s.maxMicros, s.statementP95Micros, s.acquireP95Micros);
+            }
+            w.println();
+            w.println("# " + DatabaseHelper.getPoolStats());
+            for (TtlCache.Stats cache : DatabaseHelper.getCacheStats()) {
+                w.println("# cache " + cache);
+            }
+            w.println("# " + NotificationOutbox.getStats());
+        }
+        return rows.size();
+    }
+
+    private static OperationStats stats(String operation) {
+        return OPERATIONS.computeIfAbsent(operation, OperationStats::new);
+    }
+
+    /** First frame on the stack that isn't pool, cache, lambda or shared-helper plumbing. */
+    private static String callerOperation() {
+        return WALKER.walk(frames -> frames
+                .filter(f -> !isPlumbing(f.getClassName(), f.getMethodName()))
+                .findFirst()
+                .map(f -> simpleName(f.getClassName()) + "." + f.getMethodName())
+                .orElse("unknown"));
+    }
+
+    private static boolean isPlumbing(String className, String method) {
+        String simple = simpleName(className);
+        return PLUMBING_CLASSES.contains(simple)
+                || method.startsWith("lambda$")
+                || ("DatabaseHelper".equals(simple) && HELPER_METHODS.contains(method));
+    }
+
+    private static String simpleName(String className) {
+        int dot = className.lastIndexOf('.');
+        int dollar = className.indexOf('$', dot + 1);
+        return className.substring(dot + 1, dollar < 0 ? className.length() : dollar);
+    }
+
+    private static synchronized void logSlowQuery(String operation, String sql, Object[] binds,
+                                                  int batchSize, long nanos, long rows) {
+        slowQueries.incrementAndGet();
+        StringBuilder line = new StringBuilder(256);
+        line.append("{\"ts\":\"").append(LocalDateTime.now())
+            .append("\",\"op\":\"").append(escape(operation))
+            .append("\",\"ms\":").append(String.format("%.1f", nanos / 1_000_000.0));
+        if (rows >= 0) line.append(",\"rows\":").append(rows);
+        if (batchSize > 0) line.append(",\"batch\":").append(batchSize);
+        line.append(",\"sql\":\"").append(escape(sql == null ? "" : sql.replaceAll("\\s+", " ").trim()))
+            .append("\",\"binds\":[");
+        if (binds != null) {
+            for (int i = 1; i < binds.length; i++) {
+                if (i > 1) line.append(',');
+                line.append('"').append(escape(redact(binds[i]))).append('"');
+            }
+        }
+        line.append("]}");
+
+        if (SLOW_LOG.isEmpty()) {
+            System.err.println("SLOW QUERY " + line);
+            return;
+        }
+        try (Writer w = new FileWriter(SLOW_LOG, true)) {
+            w.write(line.append(System.lineSeparator()).toString());
+        } catch (IOException e) {
+            System.err.println("SLOW QUERY " + line + " (could not write " + SLOW_LOG + ": " + e.getMessage() + ")");
+        }
+    }
+
+    /** Keeps numbers and flags (ids, limits); anything else is reduced to its type. */
+    static String redact(Object value) {
+        if (value == null) return "null";
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Boolean) {
+            return value.toString();
+        }
+        if (value instanceof CharSequence) return "str(" + ((CharSequence) value).length() + ")";
+        return value.getClass().getSimpleName();
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Counters and histograms for one operation.
+     */
+    private static final class OperationStats {
+        final String operation;
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong statements = new AtomicLong();
+        final AtomicLong rows = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final Histogram latency = new Histogram();
+        final Histogram statementLatency = new Histogram();
+        final Histogram acquire = new Histogram();
+
+        OperationStats(String operation) {
+            this.operation = operation;
+        }
+
+        Snapshot snapshot() {
+            return new Snapshot(operation, calls.get(), statements.get(), rows.get(), errors.get(),
+                    latency.percentile(0.50), latency.percentile(0.95), latency.percentile(0.99), latency.maxMicros(),
+                    statementLatency.percentile(0.95), acquire.percentile(0.95));
+        }
+    }
+
+    /**
+     * Log-linear latency histogram in microseconds: four buckets per power of two,
+     * so a percentile is accurate to within about 20%. Lock-free.
+     */
+    static final class Histogram {
+        private static final int SUB_BUCKETS = 4;
+        private static final int BUCKETS = 40 * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long nanos) {
+            long micros = Math.max(0, nanos / 1000);
+            counts.incrementAndGet(index(micros));
+            count.incrementAndGet();
+            max.accumulateAndGet(micros, Math::max);
+        }
+
+        long maxMicros() {
+            return max.get();
+        }
+
+        /** Upper bound of the bucket holding the p-th value, capped at the max seen. */
+        long percentile(double p) {
+            long total = count.get();
+            if (total == 0) return 0;
+            long target = (long) Math.ceil(p * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= target) {
+                    return Math.min(lowerBound(i + 1) - 1, max.get());
+                }
+            }
+            return max.get();
+        }
+
+        static int index(long micros) {
+            if (micros < SUB_BUCKETS) return (int) micros;
+            int exp = 63 - Long.numberOfLeadingZeros(micros);
+            int sub = (int) ((micros >> (exp - 2)) & (SUB_BUCKETS - 1));
+            return Math.min(BUCKETS - 1, (exp - 1) * SUB_BUCKETS + sub);
+        }
+
+        static long lowerBound(int index) {
+            if (index < SUB_BUCKETS) return index;
+            int exp = index / SUB_BUCKETS + 1;
+            int sub = index % SUB_BUCKETS;
+            return (long) (SUB_BUCKETS + sub) << (exp - 2);
+        }
+    }
+
+    /**
+     * Times the lease and wraps every statement it creates.
+     */
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final OperationStats stats;
+        private final long acquiredAt;
+        private boolean closed = false;
+
+        ConnectionHandler(Connection target, OperationStats stats, long acquiredAt) {
+            this.target = target;
+            this.stats = stats;
+            this.acquiredAt = acquiredAt;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name) && !closed) {
+                closed = true;
+                stats.latency.record(System.nanoTime() - acquiredAt);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement && !(result instanceof java.sql.CallableStatement)) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                Class<?> type = result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                        new StatementHandler((Statement) result, stats, sql));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Times execute* calls, counts updated rows and remembers bind values for the slow-query log.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final OperationStats stats;
+        private final String sql;
+        private Object[] binds;
+        private int batchSize = 0;
+
+        StatementHandler(Statement target, OperationStats stats, String sql) {
+            this.target = target;
+            this.stats = stats;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                    && target instanceof PreparedStatement) {
+                bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if ("clearParameters".equals(name)) {
+                binds = null;
+            } else if ("addBatch".equals(name)) {
+                batchSize++;
+            } else if ("clearBatch".equals(name)) {
+                batchSize = 0;
+            } else if (name.startsWith("execute")) {
+                return timed(method, args, name);
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private Object timed(Method method, Object[] args, String name) throws Throwable {
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                stats.errors.incrementAndGet();
+                throw e.getCause();
+            }
+            long nanos = System.nanoTime() - start;
+            stats.statements.incrementAndGet();
+            stats.statementLatency.record(nanos);
+
+            long rows = -1;
+            if (result instanceof Integer || result instanceof Long) {
+                rows = ((Number) result).longValue();
+            } else if (result instanceof int[]) {
+                rows = Arrays.stream((int[]) result).filter(n -> n > 0).asLongStream().sum();
+            } else if (result instanceof long[]) {
+                rows = Arrays.stream((long[]) result).filter(n -> n > 0).sum();
+            }
+            if (rows > 0) stats.rows.addAndGet(rows);
+            int batch = name.startsWith("executeBatch") || name.startsWith("executeLargeBatch") ? batchSize : 0;
+            if (batch > 0) batchSize = 0;
+
+            if (nanos >= SLOW_QUERY_MS * 1_000_000L) {
+                String text = sql != null ? sql : args != null && args.length > 0 ? String.valueOf(args[0]) : null;
+                logSlowQuery(stats.operation, text, binds, batch, nanos, rows);
+            }
+            return result;
+        }
+
+        private void bind(int index, Object value) {
+            if (binds == null || binds.length <= index) {
+                binds = binds == null ? new Object[index + 1] : Arrays.copyOf(binds, index + 1);
+            }
+            binds[index] = value;
+        }
+    }
+
+    /**
+     * Point-in-time figures for one operation (latencies in microseconds).
+     * p50/p95/p99/max are for the whole call, from borrowing the connection to closing it.
+     */
+    public static final class Snapshot {
+        public final String operation;
+        public final long calls;
+        public final long statements;
+        public final long rows;
+        public final long errors;
+        public final long p50Micros;
+        public final long p95Micros;
+        public final long p99Micros;
+        public final long maxMicros;
+        public final long statementP95Micros;
+        public final long acquireP95Micros;
+
+        Snapshot(String operation, long calls, long statements, long rows, long errors,
+                 long p50Micros, long p95Micros, long p99Micros, long maxMicros,
+                 long statementP95Micros, long acquireP95Micros) {
+            this.operation = operation;
+            this.calls = calls;
+            this.statements = statements;
+            this.rows = rows;
+            this.errors = errors;
+            this.p50Micros = p50Micros;
+            this.p95Micros = p95Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+            this.statementP95Micros = statementP95Micros;
+            this.acquireP95Micros = acquireP95Micros;
+        }
+
+        @Override
+        public String toString() {
+            return operation + ": calls=" + calls + ", statements=" + statements + ", rows=" + rows
+                    + ", errors=" + errors + ", p50=" + p50Micros + "us, p95=" + p95Micros + "us, p99=" + p99Micros
+                    + "us, max=" + maxMicros + "us, statementP95=" + statementP95Micros + "us, acquireP95=" + acquireP95Micros + "us";
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+import java.time.LocalDate;
+
+/**
+ * What a paged table shows: a sort key and direction plus optional filters.
+ * A null filter matches everything; a text filter matches by prefix. Which sort
+ * keys and filters a table understands is up to its TableQuery; anything else is ignored.
+ */
+public record QuerySpec(String sortKey, boolean descending, String status, String role,
+                        LocalDate from, LocalDate to, String text) {
+
+    public static QuerySpec sortedBy(String sortKey, boolean descending) {
+        return new QuerySpec(sortKey, descending, null, null, null, null, null);
+    }
+
+    public QuerySpec withSort(String sortKey, boolean descending) {
+        return new QuerySpec(sortKey, descending, status, role, from, to, text);
+    }
+
+    public QuerySpec withStatus(String status) {
+        return new QuerySpec(sortKey, descending, blankToNull(status), role, from, to, text);
+    }
+
+    public QuerySpec withRole(String role) {
+        return new QuerySpec(sortKey, descending, status, blankToNull(role), from, to, text);
+    }
+
+    /** Inclusive range; either end may be null. */
+    public QuerySpec withDateRange(LocalDate from, LocalDate to) {
+        return new QuerySpec(sortKey, descending, status, role, from, to, text);
+    }
+
+    public QuerySpec withText(String text) {
+        return new QuerySpec(sortKey, descending, status, role, from, to, blankToNull(text));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
\ No newline at end of file
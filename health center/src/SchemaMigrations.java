@@ -0,0 +1,317 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Versioned schema migrations.
+ * Applied versions are recorded in the schema_version table. Startup reads the
+ * highest recorded version with a single query and only runs newer migrations,
+ * so an up-to-date database costs one round trip. When several workstations
+ * start against an outdated database, one migrates and the others wait for it.
+ * To change the schema, append a new Migration with the next version number,
+ * never edit one that has already shipped.
+ */
+public class SchemaMigrations {
+
+    // MySQL error codes that mean "already done" for a DDL statement
+    private static final int ER_TABLE_EXISTS = 1050;
+    private static final int ER_DUP_FIELDNAME = 1060;
+    private static final int ER_DUP_KEYNAME = 1061;
+    private static final int ER_NO_SUCH_TABLE = 1146;
+
+    // Named lock held while migrating, so workstations starting together migrate one at a time
+    private static final String LOCK_NAME = "hc_schema_migrations";
+    private static final int LOCK_TIMEOUT_SECONDS = Integer.getInteger("hc.migrations.lockTimeoutSeconds", 120);
+
+    /**
+     * Data step of a migration that can't be written as plain DDL.
+     */
+    @FunctionalInterface
+    interface Step {
+        void run(Connection conn) throws SQLException;
+    }
+
+    /**
+     * One schema change: a version number, a description for the log, and its DDL statements.
+     */
+    static final class Migration {
+        final int version;
+        final String description;
+        final String[] statements;
+        final Step step;
+
+        Migration(int version, String description, String... statements) {
+            this(version, description, null, statements);
+        }
+
+        Migration(int version, String description, Step step, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+            this.statements = statements;
+        }
+    }
+
+    private static final List<Migration> MIGRATIONS = List.of(
+        new Migration(1, "Users, staff and appointments tables",
+            "CREATE TABLE IF NOT EXISTS users (" +
+                "id INT AUTO_INCREMENT PRIMARY KEY," +
+                "email VARCHAR(255) UNIQUE NOT NULL," +
+                "password VARCHAR(255) NOT NULL," +
+                "first_name VARCHAR(255)," +
+                "last_name VARCHAR(255)," +
+                "role VARCHAR(20) NOT NULL DEFAULT 'PATIENT'," +
+                "staff_id INT," +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP" +
+            ")",
+            "CREATE TABLE IF NOT EXISTS staff (" +
+                "id INT AUTO_INCREMENT PRIMARY KEY," +
+                "user_id INT," +
+                "name VARCHAR(255) NOT NULL," +
+                "designation VARCHAR(255) NOT NULL," +
+                "area_of_focus VARCHAR(255)," +
+                "contact_details VARCHAR(255)," +
+                "suspended BOOLEAN DEFAULT FALSE," +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP" +
+            ")",
+            "CREATE TABLE IF NOT EXISTS appointments (" +
+                "id INT AUTO_INCREMENT PRIMARY KEY," +
+                "patient_id INT NOT NULL," +
+                "staff_id INT," +
+                "appointment_date DATETIME NOT NULL," +
+                "reason VARCHAR(255)," +
+                "status VARCHAR(20) NOT NULL DEFAULT 'PENDING'," +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP," +
+                "FOREIGN KEY (patient_id) REFERENCES users(id)," +
+                "FOREIGN KEY (staff_id) REFERENCES staff(id)" +
+            ")",
+            // Columns added after the first release; databases created before them need the ALTERs
+            "ALTER TABLE users ADD COLUMN staff_id INT",
+            "ALTER TABLE staff ADD COLUMN suspended BOOLEAN DEFAULT FALSE",
+            "ALTER TABLE staff ADD COLUMN user_id INT"),
+
+        new Migration(2, "Appointment indexes for status/date, per-patient history and keyset paging",
+            "CREATE INDEX idx_appointments_status_date ON appointments (status, appointment_date)",
+            "CREATE INDEX idx_appointments_patient_date ON appointments (patient_id, appointment_date)",
+            "CREATE INDEX idx_appointments_date_id ON appointments (appointment_date, id)"),
+
+        new Migration(3, "User and staff lookup indexes",
+            "CREATE INDEX idx_users_role_name ON users (role, last_name, first_name)",
+            "CREATE INDEX idx_users_created_id ON users (created_at, id)",
+            "CREATE INDEX idx_staff_user_id ON staff (user_id)",
+            "CREATE INDEX idx_staff_name ON staff (name)"),
+
+        new Migration(4, "Billing and notifications tables with their indexes",
+            "CREATE TABLE IF NOT EXISTS billing (" +
+                "id INT AUTO_INCREMENT PRIMARY KEY," +
+                "patient_id INT NOT NULL," +
+                "amount DECIMAL(10,2) NOT NULL DEFAULT 0," +
+                "status VARCHAR(20) NOT NULL DEFAULT 'UNPAID'," +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "FOREIGN KEY (patient_id) REFERENCES users(id)" +
+            ")",
+            "CREATE TABLE IF NOT EXISTS notifications (" +
+                "id INT AUTO_INCREMENT PRIMARY KEY," +
+                "patient_id INT NOT NULL," +
+                "title VARCHAR(255)," +
+                "message TEXT," +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "FOREIGN KEY (patient_id) REFERENCES users(id)" +
+            ")",
+            "CREATE INDEX idx_billing_created_id ON billing (created_at, id)",
+            "CREATE INDEX idx_billing_patient_created ON billing (patient_id, created_at)",
+            "CREATE INDEX idx_notifications_patient_created ON notifications (patient_id, created_at)"),
+
+        new Migration(5, "Link existing staff rows to STAFF user accounts",
+            DatabaseHelper::linkStaffToUsers),
+
+        new Migration(6, "Per-day lock rows that serialize booking decisions",
+            "CREATE TABLE IF NOT EXISTS appointment_day_locks (" +
+                "day DATE PRIMARY KEY," +
+                "last_booking_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")"),
+
+        new Migration(7, "Change tracking for incremental table refresh",
+            "ALTER TABLE billing ADD COLUMN updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP",
+            "CREATE INDEX idx_appointments_updated ON appointments (updated_at)",
+            "CREATE INDEX idx_users_updated ON users (updated_at)",
+            "CREATE INDEX idx_billing_updated ON billing (updated_at)",
+            // Deleted rows, so polling clients can drop them; parent_id is the owning patient
+            "CREATE TABLE IF NOT EXISTS row_tombstones (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                "table_name VARCHAR(64) NOT NULL," +
+                "row_id INT NOT NULL," +
+                "parent_id INT," +
+                "deleted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "INDEX idx_tombstones_table_deleted (table_name, deleted_at)" +
+            ")"),
+
+        new Migration(8, "Per-patient appointment summary for the staff Patient Records view",
+            DatabaseHelper::rebuildPatientSummaries,
+            "CREATE TABLE IF NOT EXISTS patient_summary (" +
+                "patient_id INT PRIMARY KEY," +
+                "last_visit DATETIME," +
+                "last_reason VARCHAR(255)," +
+                "visit_count INT NOT NULL DEFAULT 0," +
+                "next_appointment DATETIME," +
+                "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP," +
+                "INDEX idx_patient_summary_updated (updated_at)," +
+                "FOREIGN KEY (patient_id) REFERENCES users(id)" +
+            ")"),
+
+        new Migration(9, "Notification outbox drained by NotificationOutbox",
+            // next_attempt_at is NULL once an event has used up its retries
+            "CREATE TABLE IF NOT EXISTS notification_outbox (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                "event_type VARCHAR(32) NOT NULL," +
+                "patient_id INT NOT NULL," +
+                "appointment_id INT," +
+                "status VARCHAR(20)," +
+                "scheduled_at DATETIME," +
+                "attempts INT NOT NULL DEFAULT 0," +
+                "next_attempt_at TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP," +
+                "last_error VARCHAR(255)," +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "INDEX idx_outbox_due (next_attempt_at, id)" +
+            ")"),
+
+        new Migration(10, "Read flag for the patient notification inbox",
+            "ALTER TABLE notifications ADD COLUMN read_at TIMESTAMP NULL",
+            "CREATE INDEX idx_notifications_patient_read ON notifications (patient_id, read_at)"),
+
+        new Migration(11, "Indexes for status- and role-filtered table pages",
+            "CREATE INDEX idx_billing_status_created ON billing (status, created_at)",
+            "CREATE INDEX idx_users_role_created ON users (role, created_at)"),
+
+        new Migration(12, "FULLTEXT index for patient search while PatientSearchIndex loads",
+            "CREATE FULLTEXT INDEX ft_users_search ON users (first_name, last_name, email)"),
+
+        new Migration(13, "Next appointment is read per row instead of stored in patient_summary",
+            "ALTER TABLE patient_summary DROP COLUMN next_appointment"),
+
+        new Migration(14, "NOT NULL user names, so name sorts run on the plain indexed columns",
+            "UPDATE users SET first_name = '' WHERE first_name IS NULL",
+            "UPDATE users SET last_name = '' WHERE last_name IS NULL",
+            "ALTER TABLE users MODIFY first_name VARCHAR(255) NOT NULL DEFAULT '', " +
+                "MODIFY last_name VARCHAR(255) NOT NULL DEFAULT ''",
+            "CREATE INDEX idx_users_name ON users (last_name, first_name)"),
+
+        new Migration(15, "Stored next appointment again, refreshed on read once it has passed",
+            DatabaseHelper::rebuildPatientSummaries,
+            "ALTER TABLE patient_summary ADD COLUMN next_appointment DATETIME",
+            "CREATE INDEX idx_patient_summary_next ON patient_summary (next_appointment)")
+    );
+
+    /**
+     * Highest version this build knows about.
+     */
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    /**
+     * Applies every migration newer than the recorded schema version.
+     * An up-to-date database is detected without locking. Otherwise the migrations
+     * run under GET_LOCK('hc_schema_migrations'), waiting up to
+     * hc.migrations.lockTimeoutSeconds (default 120), and the version is read again
+     * once the lock is held, so a client that waited skips what the other one applied.
+     * @return number of migrations applied
+     */
+    public static int migrate(Connection conn) throws SQLException {
+        if (readOrCreateVersion(conn) >= latestVersion()) {
+            return 0;
+        }
+
+        lock(conn);
+        try {
+            int current = readOrCreateVersion(conn);
+            int applied = 0;
+            for (Migration m : MIGRATIONS) {
+                if (m.version <= current) continue;
+                apply(conn, m);
+                applied++;
+            }
+            return applied;
+        } finally {
+            try (PreparedStatement p = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                p.setString(1, LOCK_NAME);
+                p.executeQuery().close();
+            }
+        }
+    }
+
+    private static void lock(Connection conn) throws SQLException {
+        try (PreparedStatement p = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            p.setString(1, LOCK_NAME);
+            p.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = p.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out after " + LOCK_TIMEOUT_SECONDS
+                            + " s waiting for another client to finish migrating the schema");
+                }
+            }
+        }
+    }
+
+    /**
+     * currentVersion, creating the schema_version table (version 0) if it is missing.
+     */
+    private static int readOrCreateVersion(Connection conn) throws SQLException {
+        try {
+            return currentVersion(conn);
+        } catch (SQLException e) {
+            if (e.getErrorCode() != ER_NO_SUCH_TABLE) throw e;
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS schema_version (" +
+                        "version INT PRIMARY KEY," +
+                        "description VARCHAR(255) NOT NULL," +
+                        "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                        ")");
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the highest applied version, or 0 if none has been recorded yet.
+     * Throws if the schema_version table does not exist.
+     */
+    public static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void apply(Connection conn, Migration m) throws SQLException {
+        System.out.println("Applying schema migration " + m.version + ": " + m.description);
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : m.statements) {
+                try {
+                    stmt.executeUpdate(sql);
+                } catch (SQLException e) {
+                    // MySQL has no CREATE INDEX IF NOT EXISTS; an existing object means this step already ran
+                    int code = e.getErrorCode();
+                    if (code != ER_TABLE_EXISTS && code != ER_DUP_FIELDNAME && code != ER_DUP_KEYNAME) {
+                        throw e;
+                    }
+                }
+            }
+        }
+        if (m.step != null) {
+            m.step.run(conn);
+        }
+        try (PreparedStatement p = conn.prepareStatement(
+                "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+            p.setInt(1, m.version);
+            p.setString(2, m.description);
+            p.executeUpdate();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,158 @@
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Loads a table page by page as the user scrolls.
+ * Each page is fetched with a keyset cursor (the last row of the previous page),
+ * so deep pages cost the same as the first one.
+ * Pagers built with an id and a sort order can also take ChangeSets from a
+ * ChangePoller, which update the loaded rows in place.
+ * Pages the model evicts are fetched again from their cursor when they
+ * scroll back into view.
+ */
+public class ScrollPager<T> {
+
+    /**
+     * Fetches up to limit rows that sort after the given row (null for the first page).
+     */
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        List<T> fetch(T after, int limit);
+    }
+
+    // Start loading the next page when the viewport is this close to the bottom
+    private static final int PREFETCH_MARGIN_PX = 200;
+    // Extra rows asked for when refetching an evicted page, to cover rows inserted meanwhile
+    private static final int REFETCH_SLACK = 20;
+
+    private final JScrollPane scrollPane;
+    private final PageFetcher<T> fetcher;
+    private final PagedTableModel<T> model;
+    private final LiveTableRows<T> rows;
+    private final int pageSize;
+
+    // Superseded pages (after a reload) are dropped by the loader
+    private final DatabaseExecutor.ViewLoader loader = new DatabaseExecutor.ViewLoader();
+    private T lastRow;
+    private boolean exhausted = false;
+    // Bumped by reload() so refetches of the previous result's pages are dropped
+    private int generation = 0;
+    private Comparator<? super T> order;
+
+    public ScrollPager(PagedTableModel<T> model, JScrollPane scrollPane, PageFetcher<T> fetcher, int pageSize) {
+        this(model, scrollPane, fetcher, null, null, pageSize);
+    }
+
+    /**
+     * @param idOf  row id, used to match changed and deleted rows
+     * @param order the same order the fetcher's query sorts by
+     */
+    public ScrollPager(PagedTableModel<T> model, JScrollPane scrollPane, PageFetcher<T> fetcher,
+                       ToIntFunction<T> idOf, Comparator<? super T> order, int pageSize) {
+        this.scrollPane = scrollPane;
+        this.fetcher = fetcher;
+        this.model = model;
+        this.rows = new LiveTableRows<>(model, idOf, order);
+        this.order = order;
+        this.pageSize = pageSize;
+        model.setPageReloader(this::refetchPage);
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                loadMoreIfNeeded();
+            }
+        });
+    }
+
+    /**
+     * Clears the table and loads the first page again.
+     */
+    public void reload() {
+        loader.cancel();
+        generation++;
+        lastRow = null;
+        exhausted = false;
+        rows.clear();
+        loadNextPage();
+    }
+
+    /**
+     * Reloads after the fetcher's query changed its sort or filter, e.g. for a new
+     * QuerySpec; order and filter must match that query so polled changes land right.
+     */
+    public void reload(Comparator<? super T> order, Predicate<? super T> filter) {
+        this.order = order;
+        rows.setView(order, filter);
+        reload();
+    }
+
+    /**
+     * The object shown in the given model row, or null while its page is evicted.
+     */
+    public T rowAt(int modelRow) {
+        return rows.get(modelRow);
+    }
+
+    /**
+     * Applies polled changes to the rows loaded so far.
+     */
+    public void applyChanges(ChangeSet<T> changes) {
+        rows.apply(changes, exhausted);
+    }
+
+    private void loadMoreIfNeeded() {
+        if (loader.isLoading() || exhausted) return;
+        JScrollBar bar = scrollPane.getVerticalScrollBar();
+        int bottom = bar.getValue() + bar.getModel().getExtent();
+        if (bar.getMaximum() - bottom <= PREFETCH_MARGIN_PX) {
+            loadNextPage();
+        }
+    }
+
+    private void loadNextPage() {
+        final T after = lastRow;
+        loader.load(() -> fetcher.fetch(after, pageSize), page -> {
+            rows.addAll(after, page);
+            if (!page.isEmpty()) {
+                lastRow = page.get(page.size() - 1);
+            }
+            exhausted = page.size() < pageSize;
+            // Keep going until the viewport is filled
+            SwingUtilities.invokeLater(this::loadMoreIfNeeded);
+        });
+    }
+
+    /**
+     * Fetches an evicted page again from its cursor. A little more than the page
+     * held is asked for, and anything from the next page's first row on is cut
+     * off, so rows inserted or deleted meanwhile come out right.
+     */
+    private void refetchPage(int pageIndex) {
+        final int fetchedIn = generation;
+        final T after = model.pageCursor(pageIndex);
+        final T nextFirst = model.nextPageFirst(pageIndex);
+        final int limit = model.pageSize(pageIndex) + (order != null ? REFETCH_SLACK : 0);
+        DatabaseExecutor.supply(() -> fetcher.fetch(after, limit)).whenComplete((page, error) -> {
+            if (error != null) {
+                // The page keeps showing as loading until the next reload()
+                error.printStackTrace();
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (fetchedIn != generation || pageIndex >= model.pageCount()) return;
+                List<T> kept = page;
+                if (order != null && nextFirst != null) {
+                    kept = new ArrayList<>();
+                    for (T row : page) {
+                        if (order.compare(row, nextFirst) >= 0) break;
+                        kept.add(row);
+                    }
+                }
+                model.replacePage(pageIndex, kept);
+            });
+        });
+    }
+}
\ No newline at end of file
@@ -3,10 +3,12 @@ import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableModel;
 import java.awt.*;
 import java.awt.event.ActionListener;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
-import java.util.Calendar;
 import java.util.function.Consumer;
 
 /**
@@ -17,18 +19,37 @@ public class StaffDashboard extends JFrame {
     private static final Color PRIMARY_BLUE = new Color(0, 102, 204);
     private static final Color SIDEBAR_GRAY = new Color(240, 240, 240);
     private static final Color LIGHT_GRAY = new Color(245, 245, 245);
+    private static final DateTimeFormatter MONTH_YEAR_FORMAT = DateTimeFormatter.ofPattern("MMMM yyyy");
+    private static final DateTimeFormatter SELECTED_DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy");
     private static final Color DATE_HEADER_BLUE = new Color(230, 240, 250);
     private static final Font BUTTON_FONT = new Font("Inter", Font.BOLD, 14);
     private static final Font TITLE_FONT = new Font("Inter", Font.BOLD, 18);
     private static final Font LABEL_FONT = new Font("Inter", Font.BOLD, 12);
     private static final Font DATE_HEADER_FONT = new Font("Inter", Font.BOLD, 14);
 
+    // Newest first until a header click picks another sort
+    private static final QuerySpec NEWEST_FIRST = QuerySpec.sortedBy("date", true);
+    // Same order as the patient query, so polled rows land where a reload would put them
+    private static final Comparator<Patient> PATIENT_ORDER =
+        Comparator.comparing(Patient::lastName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(Patient::firstName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+            .thenComparingInt(Patient::id);
+
     private JPanel mainContentPanel;
     private JLabel totalAppointmentsLabel;
     private JLabel totalPatientsLabel;
-    private DefaultTableModel appointmentsModel;
-    private DefaultTableModel patientsModel;
-    private DefaultTableModel billingModel;
+    private PagedTableModel<Appointment> appointmentsModel;
+    private PagedTableModel<Patient> patientsModel;
+    private PagedTableModel<BillingEntry> billingModel;
+    private ScrollPager<Appointment> appointmentsPager;
+    private ScrollPager<BillingEntry> billingPager;
+    private LiveTableRows<Patient> patientRows;
+    private ChangePoller<Appointment> appointmentsPoller;
+    private ChangePoller<Patient> patientsPoller;
+    private ChangePoller<BillingEntry> billingPoller;
+    private final DatabaseExecutor.ViewLoader countsLoader = new DatabaseExecutor.ViewLoader();
+    private final DatabaseExecutor.ViewLoader patientsLoader = new DatabaseExecutor.ViewLoader();
+    private final DatabaseExecutor.ViewLoader historyLoader = new DatabaseExecutor.ViewLoader();
 
     public StaffDashboard() {
         setTitle("Barangay Health Center - Staff Dashboard");
@@ -156,14 +177,23 @@ public class StaffDashboard extends JFrame {
         JLabel titleLabel = new JLabel("Manage Appointments");
         titleLabel.setFont(TITLE_FONT);
         titleLabel.setForeground(PRIMARY_BLUE);
-        content.add(titleLabel, BorderLayout.NORTH);
 
-        appointmentsModel = new DefaultTableModel(new Object[]{"ID","Patient","Reason","Date","Time","Status"}, 0) {
-            @Override public boolean isCellEditable(int row, int col) { return false; }
-        };
+        appointmentsModel = new PagedTableModel<>(new String[]{"ID","Patient","Reason","Date","Time","Status"},
+                a -> new Object[]{a.id(), a.patientName(), a.reason(), a.dateText(), a.timeText(), a.status()});
         JTable appointmentsTable = new JTable(appointmentsModel);
         appointmentsTable.setRowHeight(25);
         JScrollPane apptScroll = new JScrollPane(appointmentsTable);
+        FilterBar filterBar = new FilterBar(NEWEST_FIRST, spec -> appointmentsPager.reload(
+                DatabaseHelper.APPOINTMENT_TABLE.order(spec), DatabaseHelper.APPOINTMENT_TABLE.filter(spec)))
+            .addStatusFilter("PENDING", "APPROVED", "DISAPPROVED")
+            .addDateRange();
+        filterBar.sortOnHeaderClick(appointmentsTable, "id", null, null, "date", null, "status");
+        appointmentsPager = new ScrollPager<>(appointmentsModel, apptScroll,
+                (after, limit) -> DatabaseHelper.listAppointmentsPage(filterBar.getSpec(), after, limit),
+                Appointment::id, DatabaseHelper.APPOINTMENT_TABLE.order(NEWEST_FIRST), DatabaseHelper.DEFAULT_PAGE_SIZE);
+        content.add(titledFilterBar(titleLabel, filterBar), BorderLayout.NORTH);
+        appointmentsPoller = new ChangePoller<>(apptScroll, DatabaseHelper::listAppointmentChanges,
+                appointmentsPager::applyChanges);
 
         JPanel centerPanel = new JPanel(new BorderLayout());
         centerPanel.add(apptScroll, BorderLayout.CENTER);
@@ -175,29 +205,10 @@ public class StaffDashboard extends JFrame {
         apptActions.add(disapproveBtn);
         centerPanel.add(apptActions, BorderLayout.SOUTH);
 
-        approveBtn.addActionListener(e -> {
-            int sel = appointmentsTable.getSelectedRow();
-            if (sel == -1) { JOptionPane.showMessageDialog(this, "Select an appointment first."); return; }
-            int modelRow = appointmentsTable.convertRowIndexToModel(sel);
-            Object idObj = appointmentsModel.getValueAt(modelRow, 0);
-            if (idObj == null) return;
-            int apptId = Integer.parseInt(idObj.toString());
-            boolean ok = DatabaseHelper.updateAppointmentStatus(apptId, "APPROVED");
-            if (ok) { JOptionPane.showMessageDialog(this, "Appointment approved."); loadAppointments(); loadCounts(); }
-            else JOptionPane.showMessageDialog(this, "Error updating appointment.", "Error", JOptionPane.ERROR_MESSAGE);
-        });
-
-        disapproveBtn.addActionListener(e -> {
-            int sel = appointmentsTable.getSelectedRow();
-            if (sel == -1) { JOptionPane.showMessageDialog(this, "Select an appointment first."); return; }
-            int modelRow = appointmentsTable.convertRowIndexToModel(sel);
-            Object idObj = appointmentsModel.getValueAt(modelRow, 0);
-            if (idObj == null) return;
-            int apptId = Integer.parseInt(idObj.toString());
-            boolean ok = DatabaseHelper.updateAppointmentStatus(apptId, "DISAPPROVED");
-            if (ok) { JOptionPane.showMessageDialog(this, "Appointment disapproved."); loadAppointments(); loadCounts(); }
-            else JOptionPane.showMessageDialog(this, "Error updating appointment.", "Error", JOptionPane.ERROR_MESSAGE);
-        });
+        // Ctrl/Shift-click to select several rows; each button updates the whole selection at once
+        appointmentsTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        approveBtn.addActionListener(e -> updateAppointmentStatuses(selectedAppointmentIds(appointmentsTable), "APPROVED", "approved"));
+        disapproveBtn.addActionListener(e -> updateAppointmentStatuses(selectedAppointmentIds(appointmentsTable), "DISAPPROVED", "disapproved"));
 
         content.add(centerPanel, BorderLayout.CENTER);
         mainContentPanel.add(content);
@@ -219,14 +230,19 @@ public class StaffDashboard extends JFrame {
         JLabel titleLabel = new JLabel("Patient Records");
         titleLabel.setFont(TITLE_FONT);
         titleLabel.setForeground(PRIMARY_BLUE);
-        content.add(titleLabel, BorderLayout.NORTH);
+        // Searches names, email and phone as you type; clearing it shows everyone again
+        FilterBar searchBar = new FilterBar(QuerySpec.sortedBy(null, false), spec -> searchPatients(spec.text()));
+        content.add(titledFilterBar(titleLabel, searchBar), BorderLayout.NORTH);
 
-        patientsModel = new DefaultTableModel(new Object[]{"ID","Name","Age","Contact","Last Visit"}, 0) {
-            @Override public boolean isCellEditable(int row, int col) { return false; }
-        };
+        patientsModel = new PagedTableModel<>(new String[]{"ID","Name","Age","Contact","Last Visit","Visits","Next Appointment"},
+                pt -> new Object[]{pt.id(), pt.fullName(), pt.age() != null ? pt.age() : "", pt.contact(), pt.lastVisitText(),
+                             pt.visitCount(), pt.nextAppointmentText()});
         JTable patientsTable = new JTable(patientsModel);
         patientsTable.setRowHeight(25);
         JScrollPane scrollPane = new JScrollPane(patientsTable);
+        patientRows = new LiveTableRows<>(patientsModel, Patient::id, PATIENT_ORDER);
+        patientsPoller = new ChangePoller<>(scrollPane, DatabaseHelper::listPatientChanges,
+                changes -> patientRows.apply(changes, true));
         content.add(scrollPane, BorderLayout.CENTER);
 
         mainContentPanel.add(content);
@@ -276,36 +292,28 @@ public class StaffDashboard extends JFrame {
         rightPanel.add(tableScroll, BorderLayout.CENTER);
 
         // Calendar panel
-        JPanel calendarPanel = createCalendarPanel((selectedCal) -> {
-            SimpleDateFormat fmt = new SimpleDateFormat("MMM dd, yyyy");
-            selectedDateLabel.setText("Appointments for: " + fmt.format(selectedCal.getTime()));
-
-            SimpleDateFormat dbFmt = new SimpleDateFormat("yyyy-MM-dd");
-            String selectedDate = dbFmt.format(selectedCal.getTime());
-
-            new Thread(() -> {
-                Object[][] appts = DatabaseHelper.getApprovedAppointmentsByDate(selectedDate);
-                SwingUtilities.invokeLater(() -> {
-                    appointmentsModel.setRowCount(0);
-                    if (appts != null && appts.length > 0) {
-                        for (Object[] appt : appts) {
-                            String time = "";
-                            if (appt.length > 3 && appt[3] != null) {
-                                String full = appt[3].toString();
-                                int idx = full.indexOf(' ');
-                                time = (idx >= 0 && idx + 1 < full.length()) ? full.substring(idx + 1) : full;
-                            }
-                            appointmentsModel.addRow(new Object[]{appt[0], appt[1], appt[2], time, appt[4], appt[5]});
-                        }
-                    }
-                });
-            }).start();
+        JPanel calendarPanel = createCalendarPanel(selectedDate -> {
+            selectedDateLabel.setText("Appointments for: " + selectedDate.format(SELECTED_DATE_FORMAT));
+
+            historyLoader.load(() -> DatabaseHelper.getMonthOccupancy(YearMonth.from(selectedDate)).approvedOn(selectedDate), appts -> {
+                appointmentsModel.setRowCount(0);
+                for (Appointment a : appts) {
+                    appointmentsModel.addRow(new Object[]{a.id(), a.patientName(), a.reason(), a.timeText(), a.staffName(), a.status()});
+                }
+            });
         });
 
         topPanel.add(calendarPanel, BorderLayout.WEST);
         topPanel.add(rightPanel, BorderLayout.CENTER);
         content.add(topPanel, BorderLayout.CENTER);
 
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
+        buttonPanel.setBackground(Color.WHITE);
+        JButton exportBtn = new JButton("⬇ Export Full History (CSV)");
+        exportBtn.addActionListener(e -> CsvExporter.exportWithChooser(this, "appointment_history.csv", CsvExporter::exportAppointmentHistory));
+        buttonPanel.add(exportBtn);
+        content.add(buttonPanel, BorderLayout.SOUTH);
+
         mainContentPanel.add(content);
         mainContentPanel.revalidate();
         mainContentPanel.repaint();
@@ -314,17 +322,17 @@ public class StaffDashboard extends JFrame {
     /**
      * Creates a calendar panel for date selection with callback
      */
-    private JPanel createCalendarPanel(DateSelectionCallback callback) {
+    private JPanel createCalendarPanel(Consumer<LocalDate> callback) {
         JPanel calendarPanel = new JPanel();
         calendarPanel.setLayout(new BoxLayout(calendarPanel, BoxLayout.Y_AXIS));
         calendarPanel.setBackground(Color.WHITE);
-        calendarPanel.setBorder(BorderFactory.createLineBorder(new Color(200, 200, 200), 1));
         calendarPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        Calendar currentCal = Calendar.getInstance();
+        CalendarGrid grid = new CalendarGrid(new Font("Inter", Font.PLAIN, 12), new Font("Inter", Font.BOLD, 11));
+        DatabaseExecutor.ViewLoader occupancyLoader = new DatabaseExecutor.ViewLoader();
 
         // Month/Year label
-        JLabel monthYearLabel = new JLabel();
+        JLabel monthYearLabel = new JLabel(grid.getMonth().format(MONTH_YEAR_FORMAT));
         monthYearLabel.setFont(new Font("Inter", Font.BOLD, 14));
         monthYearLabel.setForeground(PRIMARY_BLUE);
         monthYearLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -340,128 +348,25 @@ public class StaffDashboard extends JFrame {
         nextBtn.setFont(new Font("Arial", Font.BOLD, 14));
         prevBtn.setFocusPainted(false);
         nextBtn.setFocusPainted(false);
+        prevBtn.addActionListener(e -> grid.showPreviousMonth());
+        nextBtn.addActionListener(e -> grid.showNextMonth());
         navPanel.add(prevBtn);
         navPanel.add(nextBtn);
         calendarPanel.add(navPanel);
         calendarPanel.add(Box.createVerticalStrut(10));
 
-        // Day headers
-        JPanel dayHeaderPanel = new JPanel(new GridLayout(1, 7, 5, 5));
-        dayHeaderPanel.setBackground(Color.WHITE);
-        String[] days = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
-        for (String day : days) {
-            JLabel dayLabel = new JLabel(day);
-            dayLabel.setFont(new Font("Inter", Font.BOLD, 11));
-            dayLabel.setForeground(PRIMARY_BLUE);
-            dayLabel.setHorizontalAlignment(JLabel.CENTER);
-            dayHeaderPanel.add(dayLabel);
-        }
-        calendarPanel.add(dayHeaderPanel);
-        calendarPanel.add(Box.createVerticalStrut(5));
-
-        // Calendar grid
-        JPanel gridPanel = new JPanel(new GridLayout(6, 7, 5, 5));
-        gridPanel.setBackground(Color.WHITE);
-
-        // Array to hold the Runnable (allows self-reference)
-        final Runnable[] populateCalendarRef = new Runnable[1];
-
-        // Populate calendar
-        populateCalendarRef[0] = new Runnable() {
-            @Override
-            public void run() {
-                SimpleDateFormat fmt = new SimpleDateFormat("MMMM yyyy");
-                monthYearLabel.setText(fmt.format(currentCal.getTime()));
-
-                // Clear all buttons first
-                gridPanel.removeAll();
-
-                Calendar firstDay = (Calendar) currentCal.clone();
-                firstDay.set(Calendar.DAY_OF_MONTH, 1);
-                int startDay = firstDay.get(Calendar.DAY_OF_WEEK) - 1;
-                int daysInMonth = currentCal.getActualMaximum(Calendar.DAY_OF_MONTH);
-
-                for (int i = 0; i < 42; i++) {
-                    JButton dayBtn = new JButton();
-                    dayBtn.setFont(new Font("Inter", Font.PLAIN, 12));
-                    dayBtn.setFocusPainted(false);
-                    dayBtn.setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220), 1));
-
-                    if (i < startDay || i >= startDay + daysInMonth) {
-                        dayBtn.setText("");
-                        dayBtn.setEnabled(false);
-                        dayBtn.setBackground(new Color(245, 245, 245));
-                    } else {
-                        int day = i - startDay + 1;
-                        dayBtn.setText(String.valueOf(day));
-                        dayBtn.setEnabled(true);
-                        dayBtn.setBackground(Color.WHITE);
-
-                        // Check if today
-                        Calendar today = Calendar.getInstance();
-                        if (currentCal.get(Calendar.YEAR) == today.get(Calendar.YEAR) &&
-                            currentCal.get(Calendar.MONTH) == today.get(Calendar.MONTH) &&
-                            day == today.get(Calendar.DAY_OF_MONTH)) {
-                            dayBtn.setBackground(PRIMARY_BLUE);
-                            dayBtn.setForeground(Color.WHITE);
-                        }
-
-                        // Add action listener with proper closure
-                        final int selectedDay = day;
-                        final Calendar selectedCal = (Calendar) currentCal.clone();
-                        dayBtn.addActionListener(e -> {
-                            selectedCal.set(Calendar.DAY_OF_MONTH, selectedDay);
-                            callback.onDateSelected(selectedCal);
-
-                            // Highlight selected date - refresh entire calendar
-                            populateCalendarRef[0].run();
-
-                            // Re-highlight the selected button
-                            for (Component comp : gridPanel.getComponents()) {
-                                if (comp instanceof JButton) {
-                                    JButton b = (JButton) comp;
-                                    if (b.getText().equals(String.valueOf(selectedDay))) {
-                                        b.setBackground(new Color(100, 150, 255));
-                                        b.setForeground(Color.WHITE);
-                                    }
-                                }
-                            }
-                        });
-                    }
-
-                    gridPanel.add(dayBtn);
-                }
-
-                gridPanel.revalidate();
-                gridPanel.repaint();
-            }
-        };
-
-        // Previous month
-        prevBtn.addActionListener(e -> {
-            currentCal.add(Calendar.MONTH, -1);
-            populateCalendarRef[0].run();
-        });
-
-        // Next month
-        nextBtn.addActionListener(e -> {
-            currentCal.add(Calendar.MONTH, 1);
-            populateCalendarRef[0].run();
+        // Full and nearly full days are shaded once the month's occupancy is in
+        grid.addMonthChangeListener(month -> {
+            monthYearLabel.setText(month.format(MONTH_YEAR_FORMAT));
+            occupancyLoader.load(() -> DatabaseHelper.getMonthOccupancy(month), grid::showOccupancy);
         });
+        grid.addDateSelectionListener(callback);
+        occupancyLoader.load(() -> DatabaseHelper.getMonthOccupancy(grid.getMonth()), grid::showOccupancy);
 
-        calendarPanel.add(gridPanel);
-        populateCalendarRef[0].run();
+        calendarPanel.add(grid);
         return calendarPanel;
     }
 
-    /**
-     * Functional interface for date selection callback
-     */
-    @FunctionalInterface
-    private interface DateSelectionCallback {
-        void onDateSelected(Calendar selectedDate);
-    }
-
     /**
      * Shows billing history tab
      */
@@ -475,14 +380,23 @@ public class StaffDashboard extends JFrame {
         JLabel titleLabel = new JLabel("Billing History");
         titleLabel.setFont(TITLE_FONT);
         titleLabel.setForeground(PRIMARY_BLUE);
-        content.add(titleLabel, BorderLayout.NORTH);
 
-        billingModel = new DefaultTableModel(new Object[]{"PATIENT_ID","NAME","CONTACT","BILL","STATUS"}, 0) {
-            @Override public boolean isCellEditable(int row, int col) { return false; }
-        };
+        billingModel = new PagedTableModel<>(new String[]{"PATIENT_ID","NAME","CONTACT","BILL","STATUS"},
+                b -> new Object[]{b.patientId(), b.patientName(), b.contact(), b.formattedAmount(), b.status()});
         JTable billingTable = new JTable(billingModel);
         billingTable.setRowHeight(25);
         JScrollPane scrollPane = new JScrollPane(billingTable);
+        FilterBar filterBar = new FilterBar(NEWEST_FIRST, spec -> billingPager.reload(
+                DatabaseHelper.BILLING_TABLE.order(spec), DatabaseHelper.BILLING_TABLE.filter(spec)))
+            .addStatusFilter("PAID", "UNPAID")
+            .addDateRange();
+        filterBar.sortOnHeaderClick(billingTable, null, null, null, null, "status");
+        billingPager = new ScrollPager<>(billingModel, scrollPane,
+                (after, limit) -> DatabaseHelper.listBillingHistoryPage(filterBar.getSpec(), after, limit),
+                BillingEntry::id, DatabaseHelper.BILLING_TABLE.order(NEWEST_FIRST), DatabaseHelper.DEFAULT_PAGE_SIZE);
+        content.add(titledFilterBar(titleLabel, filterBar), BorderLayout.NORTH);
+        billingPoller = new ChangePoller<>(scrollPane, DatabaseHelper::listBillingChanges,
+                billingPager::applyChanges);
         content.add(scrollPane, BorderLayout.CENTER);
 
         mainContentPanel.add(content);
@@ -491,57 +405,102 @@ public class StaffDashboard extends JFrame {
         mainContentPanel.repaint();
     }
 
-    private void loadCounts() {
-        new Thread(() -> {
-            int apptCount = DatabaseHelper.getTotalAppointmentsCount();
-            int patientCount = DatabaseHelper.getPatientCount();
-            SwingUtilities.invokeLater(() -> {
-                totalAppointmentsLabel.setText("Appointments: " + apptCount);
-                totalPatientsLabel.setText("Patients: " + patientCount);
-            });
-        }).start();
+    /**
+     * Stacks a tab's title over its filter bar.
+     */
+    private JPanel titledFilterBar(JLabel titleLabel, FilterBar filterBar) {
+        JPanel header = new JPanel(new BorderLayout());
+        header.setOpaque(false);
+        header.add(titleLabel, BorderLayout.NORTH);
+        header.add(filterBar, BorderLayout.SOUTH);
+        return header;
     }
 
-    private void loadAppointments() {
-        new Thread(() -> {
-            Object[][] rows = DatabaseHelper.getAllAppointments();
-            SwingUtilities.invokeLater(() -> {
-                appointmentsModel.setRowCount(0);
-                if (rows != null) {
-                    for (Object[] r : rows) {
-                        appointmentsModel.addRow(new Object[]{r[0], r[1], r[2], r[3], r[4], r[5]});
+    /**
+     * Returns the appointment ids of the selected rows.
+     */
+    private List<Integer> selectedAppointmentIds(JTable table) {
+        List<Integer> ids = new ArrayList<>();
+        for (int sel : table.getSelectedRows()) {
+            Object idObj = appointmentsModel.getValueAt(table.convertRowIndexToModel(sel), 0);
+            if (idObj != null) ids.add(Integer.parseInt(idObj.toString()));
+        }
+        return ids;
+    }
+
+    /**
+     * Saves one status for all given appointments off the EDT in a single transaction,
+     * then shows one summary (including any left out for a time conflict) and refreshes
+     * the table and counters.
+     */
+    private void updateAppointmentStatuses(List<Integer> apptIds, String status, String verb) {
+        if (apptIds.isEmpty()) { JOptionPane.showMessageDialog(this, "Select an appointment first."); return; }
+        DatabaseExecutor.supply(() -> DatabaseHelper.updateAppointmentStatuses(apptIds, status))
+            .whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+                if (error != null || result == null) {
+                    JOptionPane.showMessageDialog(this, "Error updating appointments. No changes were saved.", "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                int changed = result.changed();
+                String summary = changed == 1 ? "1 appointment " + verb + "." : changed + " appointments " + verb + ".";
+                if (!result.conflicts().isEmpty()) {
+                    summary += "\n" + result.conflicts().size() + " not " + verb + ", the time slot is occupied (1-hour appointment duration):";
+                    for (Map.Entry<Integer, LocalDateTime> c : result.conflicts().entrySet()) {
+                        summary += "\n  #" + c.getKey() + " at " + c.getValue().format(Appointment.DATE_TIME_FORMAT);
                     }
                 }
-            });
-        }).start();
+                int skipped = apptIds.size() - changed - result.conflicts().size();
+                if (skipped > 0) {
+                    summary += "\n" + skipped + " already " + verb + " or no longer exist.";
+                }
+                JOptionPane.showMessageDialog(this, summary);
+                appointmentsPoller.pollNow();
+                loadCounts();
+            }));
+    }
+
+    private void loadCounts() {
+        countsLoader.load(DatabaseHelper::getDashboardStats, stats -> {
+            totalAppointmentsLabel.setText("Appointments: " + stats.totalAppointments());
+            totalPatientsLabel.setText("Patients: " + stats.patients());
+        });
+    }
+
+    // Each load is a full reload; the poller then keeps the table current with deltas
+    private void loadAppointments() {
+        appointmentsPoller.restart();
+        appointmentsPager.reload();
     }
 
     private void loadPatients() {
-        new Thread(() -> {
-            Object[][] rows = DatabaseHelper.getAllPatientsForStaffView();
-            SwingUtilities.invokeLater(() -> {
-                patientsModel.setRowCount(0);
-                if (rows != null) {
-                    for (Object[] r : rows) {
-                        patientsModel.addRow(r);
-                    }
-                }
-            });
-        }).start();
+        patientsPoller.restart();
+        patientRows.setView(PATIENT_ORDER, pt -> true);
+        patientsLoader.load(DatabaseHelper::listPatientsForStaffView, patientRows::setAll);
+    }
+
+    /**
+     * Shows the patients matching query, best match first; polled changes then
+     * only touch those rows. A null query shows every patient again.
+     */
+    private void searchPatients(String query) {
+        if (query == null) {
+            loadPatients();
+            return;
+        }
+        patientsLoader.load(() -> DatabaseHelper.searchPatients(query), results -> {
+            Map<Integer, Integer> rank = new HashMap<>();
+            for (Patient pt : results) {
+                rank.put(pt.id(), rank.size());
+            }
+            patientRows.setView(Comparator.comparingInt(pt -> rank.getOrDefault(pt.id(), Integer.MAX_VALUE)),
+                    pt -> rank.containsKey(pt.id()));
+            patientRows.setAll(results);
+        });
     }
 
     private void loadBillings() {
-        new Thread(() -> {
-            Object[][] rows = DatabaseHelper.getBillingHistory();
-            SwingUtilities.invokeLater(() -> {
-                billingModel.setRowCount(0);
-                if (rows != null) {
-                    for (Object[] r : rows) {
-                        billingModel.addRow(new Object[]{r[1], r[2], r[3], r[4], r[5]});
-                    }
-                }
-            });
-        }).start();
+        billingPoller.restart();
+        billingPager.reload();
     }
 
     /**
@@ -0,0 +1,10 @@
+/**
+ * Staff directory row.
+ */
+public record StaffMember(int id, String name, String designation, String areaOfFocus,
+                          String contactDetails, boolean suspended) {
+
+    public String statusText() {
+        return suspended ? "SUSPENDED" : "ACTIVE";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,200 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements for one physical pooled connection.
+ * prepareStatement(sql) on a pooled connection is served from here, so a hot
+ * query is parsed (and, with useServerPrepStmts, server-prepared) only once
+ * per connection. Closing the returned statement puts it back in the cache.
+ * A connection is only ever used by one thread at a time, so no locking here.
+ */
+public class StatementCache {
+
+    private final Connection physical;
+    private final int maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+
+    // accessOrder = true turns LinkedHashMap into an LRU list
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public StatementCache(Connection physical, int maxSize, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    /**
+     * Returns a cached statement for sql, preparing it on first use.
+     * If the cached statement is already checked out (nested use of the same
+     * SQL on one connection) an ordinary uncached statement is returned.
+     */
+    public PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+        Entry entry = entries.get(sql);
+        if (entry != null && !entry.inUse) {
+            hits.incrementAndGet();
+            return entry.checkOut(owner);
+        }
+        misses.incrementAndGet();
+        if (entry != null) {
+            return physical.prepareStatement(sql);
+        }
+
+        entry = new Entry(physical.prepareStatement(sql));
+        entries.put(sql, entry);
+        evictOverflow();
+        return entry.checkOut(owner);
+    }
+
+    /**
+     * Closes every cached statement. Called when the physical connection is closed.
+     */
+    public void closeAll() {
+        for (Entry entry : entries.values()) {
+            entry.closePhysical();
+        }
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            evictions.incrementAndGet();
+            if (eldest.inUse) {
+                // Close once the current holder gives it back
+                eldest.evicted = true;
+            } else {
+                eldest.closePhysical();
+            }
+        }
+    }
+
+    /**
+     * One cached statement plus its checkout state.
+     */
+    private static final class Entry {
+        final PreparedStatement statement;
+        boolean inUse;
+        boolean evicted;
+
+        Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        PreparedStatement checkOut(Connection owner) {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new CheckoutHandler(this, owner));
+        }
+
+        void checkIn() {
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+                if (statement.getFetchSize() != 0) statement.setFetchSize(0);
+                if (statement.getMaxRows() != 0) statement.setMaxRows(0);
+                if (statement.getQueryTimeout() != 0) statement.setQueryTimeout(0);
+            } catch (SQLException e) {
+                evicted = true;
+            }
+            inUse = false;
+            if (evicted) {
+                closePhysical();
+            }
+        }
+
+        void closePhysical() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // Nothing useful to do, the connection will be validated on next borrow
+            }
+        }
+    }
+
+    /**
+     * Proxy handler for one checkout of a cached statement.
+     */
+    private static final class CheckoutHandler implements InvocationHandler {
+        private final Entry entry;
+        private final Connection owner;
+        private ResultSet lastResultSet;
+        private boolean closed = false;
+
+        CheckoutHandler(Entry entry, Connection owner) {
+            this.entry = entry;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        closeLastResultSet();
+                        entry.checkIn();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + entry.statement + (closed ? ", closed" : "") + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement has already been closed");
+            }
+            Object result;
+            try {
+                result = method.invoke(entry.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet) {
+                lastResultSet = (ResultSet) result;
+            }
+            return result;
+        }
+
+        private void closeLastResultSet() {
+            if (lastResultSet != null) {
+                try {
+                    lastResultSet.close();
+                } catch (SQLException e) {
+                    // Ignore, statement is reset below
+                }
+                lastResultSet = null;
+            }
+        }
+    }
+}
\ No newline at end of file
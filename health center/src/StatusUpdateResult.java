@@ -0,0 +1,10 @@
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Outcome of DatabaseHelper.updateAppointmentStatuses: how many appointments got
+ * the new status, and the ones left unchanged because approving them would
+ * overlap an APPROVED appointment (id to scheduled time, in the order checked).
+ */
+public record StatusUpdateResult(int changed, Map<Integer, LocalDateTime> conflicts) {
+}
\ No newline at end of file
@@ -0,0 +1,209 @@
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Turns a QuerySpec into one keyset-paged SELECT for a table, plus the matching
+ * Java order and filter, so live ChangeSets land where the query would have put them.
+ *
+ * Each sort key is a list of columns ending in the id. A page after a cursor row
+ * is selected with a row comparison, e.g. (a.status, a.appointment_date, a.id) < (?, ?, ?),
+ * which MySQL resolves as a range on an index starting with those columns.
+ * The first sort added is the default. Filters are equality (status, role), a
+ * date range and a prefix LIKE over the text columns, all bound as parameters.
+ */
+public final class TableQuery<T> {
+
+    private final String select;
+    private final String idColumn;
+    private final ToIntFunction<T> idOf;
+    private final Map<String, List<SortColumn<T>>> sorts = new LinkedHashMap<>();
+    private List<SortColumn<T>> lastSort;
+
+    private String statusColumn;
+    private Function<T, String> statusOf;
+    private String roleColumn;
+    private Function<T, String> roleOf;
+    private String dateColumn;
+    private Function<T, LocalDateTime> dateOf;
+    private List<String> textColumns = List.of();
+    private Function<T, List<String>> textOf;
+
+    private record SortColumn<T>(String sql, Function<T, ?> valueOf) {
+    }
+
+    /**
+     * @param select   SELECT ... FROM ... JOIN ..., without WHERE or ORDER BY
+     * @param idColumn unique tiebreaker appended to every sort, e.g. "a.id"
+     */
+    public TableQuery(String select, String idColumn, ToIntFunction<T> idOf) {
+        this.select = select;
+        this.idColumn = idColumn;
+        this.idOf = idOf;
+    }
+
+    /**
+     * Adds a sort key on one column; valueOf must return what the column holds for a row.
+     * Sorting on the id column itself is just the tiebreaker.
+     */
+    public TableQuery<T> sort(String key, String column, Function<T, ?> valueOf) {
+        lastSort = new ArrayList<>();
+        if (!column.equals(idColumn)) lastSort.add(new SortColumn<>(column, valueOf));
+        sorts.put(key, lastSort);
+        return this;
+    }
+
+    /** Adds a further column to the sort key added last. */
+    public TableQuery<T> then(String column, Function<T, ?> valueOf) {
+        lastSort.add(new SortColumn<>(column, valueOf));
+        return this;
+    }
+
+    public TableQuery<T> statusFilter(String column, Function<T, String> statusOf) {
+        this.statusColumn = column;
+        this.statusOf = statusOf;
+        return this;
+    }
+
+    public TableQuery<T> roleFilter(String column, Function<T, String> roleOf) {
+        this.roleColumn = column;
+        this.roleOf = roleOf;
+        return this;
+    }
+
+    public TableQuery<T> dateFilter(String column, Function<T, LocalDateTime> dateOf) {
+        this.dateColumn = column;
+        this.dateOf = dateOf;
+        return this;
+    }
+
+    /** Text filter: a row matches when any of the columns starts with the text. */
+    public TableQuery<T> textFilter(List<String> columns, Function<T, List<String>> textOf) {
+        this.textColumns = columns;
+        this.textOf = textOf;
+        return this;
+    }
+
+    /**
+     * The page query for spec, with a cursor condition when hasCursor.
+     */
+    public String sql(QuerySpec spec, boolean hasCursor) {
+        List<String> where = new ArrayList<>();
+        if (spec.status() != null && statusColumn != null) where.add(statusColumn + " = ?");
+        if (spec.role() != null && roleColumn != null) where.add(roleColumn + " = ?");
+        if (spec.from() != null && dateColumn != null) where.add(dateColumn + " >= ?");
+        if (spec.to() != null && dateColumn != null) where.add(dateColumn + " < ?");
+        if (spec.text() != null && !textColumns.isEmpty()) {
+            where.add("(" + String.join(" LIKE ? OR ", textColumns) + " LIKE ?)");
+        }
+
+        List<String> columns = new ArrayList<>();
+        for (SortColumn<T> c : sortFor(spec)) {
+            columns.add(c.sql());
+        }
+        columns.add(idColumn);
+        String direction = spec.descending() ? " DESC" : " ASC";
+        if (hasCursor) {
+            String comparison = spec.descending() ? " < " : " > ";
+            if (columns.size() == 1) {
+                where.add(idColumn + comparison + "?");
+            } else {
+                String placeholders = String.join(", ", Collections.nCopies(columns.size(), "?"));
+                where.add("(" + String.join(", ", columns) + ")" + comparison + "(" + placeholders + ")");
+            }
+        }
+
+        StringBuilder q = new StringBuilder(select);
+        if (!where.isEmpty()) q.append(" WHERE ").append(String.join(" AND ", where));
+        q.append(" ORDER BY ").append(String.join(direction + ", ", columns)).append(direction).append(" LIMIT ?");
+        return q.toString();
+    }
+
+    /**
+     * Binds the parameters of sql(spec, after != null) in the same order.
+     */
+    public void bind(PreparedStatement p, QuerySpec spec, T after, int limit) throws SQLException {
+        int i = 1;
+        if (spec.status() != null && statusColumn != null) p.setString(i++, spec.status());
+        if (spec.role() != null && roleColumn != null) p.setString(i++, spec.role());
+        if (spec.from() != null && dateColumn != null) p.setTimestamp(i++, Timestamp.valueOf(spec.from().atStartOfDay()));
+        if (spec.to() != null && dateColumn != null) p.setTimestamp(i++, Timestamp.valueOf(spec.to().plusDays(1).atStartOfDay()));
+        if (spec.text() != null && !textColumns.isEmpty()) {
+            String pattern = escapeLike(spec.text()) + "%";
+            for (int c = 0; c < textColumns.size(); c++) {
+                p.setString(i++, pattern);
+            }
+        }
+        if (after != null) {
+            for (SortColumn<T> c : sortFor(spec)) {
+                Object value = c.valueOf().apply(after);
+                if (value instanceof LocalDateTime) {
+                    p.setTimestamp(i++, Timestamp.valueOf((LocalDateTime) value));
+                } else {
+                    p.setObject(i++, value);
+                }
+            }
+            p.setInt(i++, idOf.applyAsInt(after));
+        }
+        p.setInt(i, limit);
+    }
+
+    /**
+     * The order sql(spec, ...) sorts by. Strings compare case-insensitively,
+     * like the default MySQL collation.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Comparator<T> order(QuerySpec spec) {
+        Comparator<T> order = null;
+        for (SortColumn<T> c : sortFor(spec)) {
+            Comparator<Object> values = (a, b) -> a instanceof String && b instanceof String
+                    ? String.CASE_INSENSITIVE_ORDER.compare((String) a, (String) b)
+                    : ((Comparable) a).compareTo(b);
+            Comparator<T> next = Comparator.comparing(row -> (Object) c.valueOf().apply(row), Comparator.nullsFirst(values));
+            order = order == null ? next : order.thenComparing(next);
+        }
+        Comparator<T> byId = Comparator.comparingInt(idOf);
+        order = order == null ? byId : order.thenComparing(byId);
+        return spec.descending() ? order.reversed() : order;
+    }
+
+    /**
+     * Whether a row passes the spec's filters, as the WHERE clause would decide.
+     */
+    public Predicate<T> filter(QuerySpec spec) {
+        return row -> {
+            if (spec.status() != null && statusOf != null && !spec.status().equalsIgnoreCase(statusOf.apply(row))) return false;
+            if (spec.role() != null && roleOf != null && !spec.role().equalsIgnoreCase(roleOf.apply(row))) return false;
+            if (dateOf != null && (spec.from() != null || spec.to() != null)) {
+                LocalDateTime at = dateOf.apply(row);
+                if (at == null) return false;
+                if (spec.from() != null && at.toLocalDate().isBefore(spec.from())) return false;
+                if (spec.to() != null && at.toLocalDate().isAfter(spec.to())) return false;
+            }
+            if (spec.text() != null && textOf != null) {
+                String prefix = spec.text().toLowerCase();
+                return textOf.apply(row).stream().anyMatch(s -> s != null && s.toLowerCase().startsWith(prefix));
+            }
+            return true;
+        };
+    }
+
+    private List<SortColumn<T>> sortFor(QuerySpec spec) {
+        List<SortColumn<T>> sort = spec.sortKey() == null ? null : sorts.get(spec.sortKey());
+        return sort != null ? sort : sorts.values().iterator().next();
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small in-process read-through cache: entries expire after a TTL and the
+ * least recently used entry is evicted once maxSize is reached.
+ * Loads run outside the lock, so a slow query doesn't block readers of other keys.
+ * A failed load (SQLException) or a null value is never cached.
+ */
+public class TtlCache<K, V> {
+
+    /**
+     * Loads the value for a key on a cache miss.
+     */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMillis;
+
+    // accessOrder = true turns LinkedHashMap into an LRU list
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Bumped by every invalidation so a load that started before it isn't stored afterwards
+    private long invalidations = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long expirations = 0;
+
+    public TtlCache(String name, int maxSize, long ttlMillis) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Returns the cached value, or loads, caches and returns it.
+     */
+    public V get(K key, Loader<K, V> loader) throws SQLException {
+        long loadStartedAfter;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (System.currentTimeMillis() < entry.expiresAt) {
+                    hits++;
+                    return entry.value;
+                }
+                entries.remove(key);
+                expirations++;
+            }
+            misses++;
+            loadStartedAfter = invalidations;
+        }
+
+        V value = loader.load(key);
+        if (value == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            if (invalidations == loadStartedAfter) {
+                entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+                evictOverflow();
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        invalidations++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        invalidations++;
+        entries.clear();
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(name, entries.size(), maxSize, hits, misses, evictions, expirations);
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Point-in-time cache statistics.
+     */
+    public static final class Stats {
+        public final String name;
+        public final int size;
+        public final int maxSize;
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long expirations;
+
+        Stats(String name, int size, int maxSize, long hits, long misses, long evictions, long expirations) {
+            this.name = name;
+            this.size = size;
+            this.maxSize = maxSize;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": size=" + size + "/" + maxSize + ", hits=" + hits + ", misses=" + misses
+                    + ", evictions=" + evictions + ", expirations=" + expirations;
+        }
+    }
+}
\ No newline at end of file
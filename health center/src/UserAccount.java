@@ -0,0 +1,12 @@
+import java.time.LocalDateTime;
+
+/**
+ * Row from the users table as shown in the admin User Management view.
+ */
+public record UserAccount(int id, String firstName, String lastName, String email,
+                          String role, LocalDateTime createdAt) {
+
+    public String fullName() {
+        return ((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "")).trim();
+    }
+}
\ No newline at end of file